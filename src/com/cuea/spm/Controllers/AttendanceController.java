@@ -5,9 +5,12 @@
  */
 package com.cuea.spm.Controllers;
 
+import com.cuea.spm.Dao.AttendanceSummaryDAO;
 import com.cuea.spm.Models.AttendanceRecord;
 import com.cuea.spm.Models.AttendanceRecord.AttendanceStatus;
+import com.cuea.spm.Models.AttendanceSummary;
 import com.cuea.spm.Models.DatabaseConnection;
+import com.cuea.spm.Utils.DashboardStatsService;
 import com.cuea.spm.Utils.ValidationUtils;
 
 import java.sql.Connection;
@@ -15,6 +18,7 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -36,15 +40,35 @@ public class AttendanceController {
     private static final Logger LOGGER = Logger.getLogger(AttendanceController.class.getName());
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     
+    // Public so QueryPlanVerifier checks the statements as they are run
+    public static final String SELECT_BY_ID_SQL = "SELECT * FROM attendance_records WHERE id = ?";
+    public static final String LOCK_BY_ID_SQL = SELECT_BY_ID_SQL + " FOR UPDATE";
+    public static final String SELECT_BY_KEY_SQL =
+            "SELECT * FROM attendance_records WHERE student_id = ? AND course_id = ? AND date = ?";
+    public static final String INSERT_SQL =
+            "INSERT INTO attendance_records (student_id, course_id, date, status, remarks) VALUES (?, ?, ?, ?, ?)";
+    public static final String UPDATE_SQL = "UPDATE attendance_records SET status = ?, remarks = ? WHERE id = ?";
+    public static final String SELECT_BY_STUDENT_SQL =
+            "SELECT * FROM attendance_records WHERE student_id = ? ORDER BY date DESC";
+    public static final String SELECT_BY_COURSE_SQL =
+            "SELECT * FROM attendance_records WHERE course_id = ? ORDER BY date DESC, student_id ASC";
+    public static final String SELECT_BY_DATE_RANGE_SQL =
+            "SELECT * FROM attendance_records WHERE date BETWEEN ? AND ? ORDER BY date ASC, course_id ASC, student_id ASC";
+    
+    private final AttendanceSummaryDAO attendanceSummaryDAO = new AttendanceSummaryDAO();
+    
     /**
-     * Creates a new attendance record in the database.
+     * Records attendance in the database. If the student is already marked for this
+     * course and date, that record's status and remarks are replaced instead, so
+     * re-marking a session never creates duplicates. The attendance summary counters
+     * are moved in the same transaction.
      * 
      * @param studentId The ID of the student
      * @param courseId The ID of the course
      * @param date The attendance date
      * @param status The attendance status (PRESENT, ABSENT, LATE, EXCUSED)
      * @param remarks Additional comments or notes about the attendance
-     * @return Result object containing the operation status and the created attendance record
+     * @return Result object containing the operation status and the created or updated attendance record
      */
     public Result<AttendanceRecord> markAttendance(int studentId, int courseId, Date date, 
             AttendanceStatus status, String remarks) {
@@ -70,42 +94,53 @@ public class AttendanceController {
             return new Result<>(false, "Attendance status cannot be null", null);
         }
         
-        // Check if an attendance record already exists for this student, course and date
-        Result<AttendanceRecord> existingRecord = getAttendanceRecord(studentId, courseId, date);
-        if (existingRecord.isSuccess() && existingRecord.getData() != null) {
-            LOGGER.log(Level.WARNING, "Attendance record already exists for student {0} in course {1} on {2}", 
-                    new Object[]{studentId, courseId, date});
-            return new Result<>(false, "Attendance record already exists for this student, course and date", null);
-        }
-        
-        String sql = "INSERT INTO attendance_records (student_id, course_id, date, status, remarks) VALUES (?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, studentId);
-            stmt.setInt(2, courseId);
-            stmt.setDate(3, date);
-            stmt.setString(4, status.toString());
-            stmt.setString(5, remarks);
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                LOGGER.log(Level.SEVERE, "Creating attendance record failed, no rows affected");
-                return new Result<>(false, "Failed to create attendance record", null);
-            }
-            
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    int id = generatedKeys.getInt(1);
-                    AttendanceRecord record = new AttendanceRecord(id, studentId, courseId, date, status, remarks);
-                    LOGGER.log(Level.INFO, "Successfully created attendance record with ID: {0}", id);
-                    return new Result<>(true, "Attendance record created successfully", record);
-                } else {
-                    LOGGER.log(Level.SEVERE, "Creating attendance record failed, no ID obtained");
-                    return new Result<>(false, "Failed to create attendance record", null);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                AttendanceRecord existing = null;
+                int id = 0;
+                for (int attempt = 1; ; attempt++) {
+                    // A plain read first: a locking read of a key that does not exist yet takes
+                    // a gap lock on InnoDB, and two sessions marking into the same gap would
+                    // then deadlock on their inserts. Only a row that exists is locked.
+                    existing = findAttendanceRecord(conn, SELECT_BY_KEY_SQL, studentId, courseId, date);
+                    if (existing != null) {
+                        existing = findAttendanceRecord(conn, LOCK_BY_ID_SQL, existing.getId());
+                    }
+                    try {
+                        id = existing != null
+                                ? updateAttendanceRecord(conn, existing.getId(), status, remarks)
+                                : insertAttendanceRecord(conn, studentId, courseId, date, status, remarks);
+                        break;
+                    } catch (SQLIntegrityConstraintViolationException e) {
+                        // Another session inserted the same key since the read; it is an update now
+                        conn.rollback();
+                        if (attempt == 2) {
+                            throw e;
+                        }
+                    }
+                }
+                if (id <= 0) {
+                    conn.rollback();
+                    LOGGER.log(Level.SEVERE, "Marking attendance failed, no ID obtained");
+                    return new Result<>(false, "Failed to mark attendance", null);
                 }
+                
+                AttendanceSummaryDAO.applyChange(conn, studentId, courseId,
+                        existing != null ? existing.getStatus().toString() : null, status.toString());
+                conn.commit();
+                DashboardStatsService.getInstance().markStale();
+                
+                AttendanceRecord record = new AttendanceRecord(id, studentId, courseId, date, status, remarks);
+                LOGGER.log(Level.INFO, "Successfully marked attendance record with ID: {0}", id);
+                return new Result<>(true, existing == null
+                        ? "Attendance record created successfully"
+                        : "Attendance record updated successfully", record);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
         } catch (SQLException e) {
@@ -117,6 +152,42 @@ public class AttendanceController {
         }
     }
     
+    /**
+     * Inserts an attendance record on the caller's transaction.
+     * 
+     * @return The new record's ID, or 0 if none was generated
+     * @throws SQLIntegrityConstraintViolationException If the student is already marked for the course and date
+     */
+    private int insertAttendanceRecord(Connection conn, int studentId, int courseId, Date date,
+            AttendanceStatus status, String remarks) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+            stmt.setDate(3, date);
+            stmt.setString(4, status.toString());
+            stmt.setString(5, remarks);
+            stmt.executeUpdate();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                return generatedKeys.next() ? generatedKeys.getInt(1) : 0;
+            }
+        }
+    }
+    
+    /**
+     * Replaces a locked attendance record's status and remarks on the caller's transaction.
+     * 
+     * @return The record's ID, or 0 if no row was updated
+     */
+    private int updateAttendanceRecord(Connection conn, int id, AttendanceStatus status, String remarks)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+            stmt.setString(1, status.toString());
+            stmt.setString(2, remarks);
+            stmt.setInt(3, id);
+            return stmt.executeUpdate() > 0 ? id : 0;
+        }
+    }
+    
     /**
      * Updates an existing attendance record in the database.
      * 
@@ -136,44 +207,55 @@ public class AttendanceController {
             return new Result<>(false, "Attendance status cannot be null", null);
         }
         
-        // Get the existing record first
-        Result<AttendanceRecord> existingRecordResult = getAttendanceRecordById(id);
-        if (!existingRecordResult.isSuccess() || existingRecordResult.getData() == null) {
-            LOGGER.log(Level.WARNING, "Attendance record with ID {0} not found", id);
-            return new Result<>(false, "Attendance record not found", null);
-        }
+        String sql = UPDATE_SQL;
         
-        AttendanceRecord existingRecord = existingRecordResult.getData();
-        
-        String sql = "UPDATE attendance_records SET status = ?, remarks = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, status.toString());
-            stmt.setString(2, remarks);
-            stmt.setInt(3, id);
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                LOGGER.log(Level.WARNING, "Updating attendance record failed, no rows affected");
-                return new Result<>(false, "Failed to update attendance record", null);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Lock the existing record so its old status is still current when the summary moves
+                AttendanceRecord existingRecord = findAttendanceRecord(conn, LOCK_BY_ID_SQL, id);
+                if (existingRecord == null) {
+                    conn.rollback();
+                    LOGGER.log(Level.WARNING, "Attendance record with ID {0} not found", id);
+                    return new Result<>(false, "Attendance record not found", null);
+                }
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, status.toString());
+                    stmt.setString(2, remarks);
+                    stmt.setInt(3, id);
+                    
+                    if (stmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        LOGGER.log(Level.WARNING, "Updating attendance record failed, no rows affected");
+                        return new Result<>(false, "Failed to update attendance record", null);
+                    }
+                }
+                
+                AttendanceSummaryDAO.applyChange(conn, existingRecord.getStudentId(), existingRecord.getCourseId(),
+                        existingRecord.getStatus().toString(), status.toString());
+                conn.commit();
+                DashboardStatsService.getInstance().markStale();
+                
+                // Create updated record object
+                AttendanceRecord updatedRecord = new AttendanceRecord(
+                        id, 
+                        existingRecord.getStudentId(), 
+                        existingRecord.getCourseId(), 
+                        existingRecord.getDate(), 
+                        status, 
+                        remarks
+                );
+                
+                LOGGER.log(Level.INFO, "Successfully updated attendance record with ID: {0}", id);
+                return new Result<>(true, "Attendance record updated successfully", updatedRecord);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
-            // Create updated record object
-            AttendanceRecord updatedRecord = new AttendanceRecord(
-                    id, 
-                    existingRecord.getStudentId(), 
-                    existingRecord.getCourseId(), 
-                    existingRecord.getDate(), 
-                    status, 
-                    remarks
-            );
-            
-            LOGGER.log(Level.INFO, "Successfully updated attendance record with ID: {0}", id);
-            return new Result<>(true, "Attendance record updated successfully", updatedRecord);
-            
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Database error while updating attendance record", e);
             return new Result<>(false, "Database error: " + e.getMessage(), null);
@@ -197,21 +279,39 @@ public class AttendanceController {
         
         String sql = "DELETE FROM attendance_records WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                LOGGER.log(Level.WARNING, "Deleting attendance record failed, no rows affected");
-                return new Result<>(false, "Attendance record not found or could not be deleted", null);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                AttendanceRecord existingRecord = findAttendanceRecord(conn, LOCK_BY_ID_SQL, id);
+                
+                int affectedRows = 0;
+                if (existingRecord != null) {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setInt(1, id);
+                        affectedRows = stmt.executeUpdate();
+                    }
+                }
+                
+                if (affectedRows == 0) {
+                    conn.rollback();
+                    LOGGER.log(Level.WARNING, "Deleting attendance record failed, no rows affected");
+                    return new Result<>(false, "Attendance record not found or could not be deleted", null);
+                }
+                
+                AttendanceSummaryDAO.applyChange(conn, existingRecord.getStudentId(), existingRecord.getCourseId(),
+                        existingRecord.getStatus().toString(), null);
+                conn.commit();
+                DashboardStatsService.getInstance().markStale();
+                
+                LOGGER.log(Level.INFO, "Successfully deleted attendance record with ID: {0}", id);
+                return new Result<>(true, "Attendance record deleted successfully", null);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
-            LOGGER.log(Level.INFO, "Successfully deleted attendance record with ID: {0}", id);
-            return new Result<>(true, "Attendance record deleted successfully", null);
-            
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Database error while deleting attendance record", e);
             return new Result<>(false, "Database error: " + e.getMessage(), null);
@@ -233,7 +333,7 @@ public class AttendanceController {
             return new Result<>(false, "Invalid attendance record ID", null);
         }
         
-        String sql = "SELECT * FROM attendance_records WHERE id = ?";
+        String sql = SELECT_BY_ID_SQL;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -283,7 +383,7 @@ public class AttendanceController {
             return new Result<>(false, "Attendance date cannot be null", null);
         }
         
-        String sql = "SELECT * FROM attendance_records WHERE student_id = ? AND course_id = ? AND date = ?";
+        String sql = SELECT_BY_KEY_SQL;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -324,7 +424,7 @@ public class AttendanceController {
             return new Result<>(false, "Invalid student ID", null);
         }
         
-        String sql = "SELECT * FROM attendance_records WHERE student_id = ? ORDER BY date DESC";
+        String sql = SELECT_BY_STUDENT_SQL;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -370,7 +470,7 @@ public class AttendanceController {
             return new Result<>(false, "Invalid course ID", null);
         }
         
-        String sql = "SELECT * FROM attendance_records WHERE course_id = ? ORDER BY date DESC, student_id ASC";
+        String sql = SELECT_BY_COURSE_SQL;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -422,7 +522,7 @@ public class AttendanceController {
             return new Result<>(false, "Start date cannot be after end date", null);
         }
         
-        String sql = "SELECT * FROM attendance_records WHERE date BETWEEN ? AND ? ORDER BY date ASC, course_id ASC, student_id ASC";
+        String sql = SELECT_BY_DATE_RANGE_SQL;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -459,6 +559,8 @@ public class AttendanceController {
     
     /**
      * Calculates attendance statistics for a student in a specific course.
+     * Read from the attendance summary counters, so the cost does not grow with the
+     * number of records.
      * 
      * @param studentId The ID of the student
      * @param courseId The ID of the course
@@ -475,52 +577,20 @@ public class AttendanceController {
             return new Result<>(false, "Invalid course ID", null);
         }
         
-        String sql = "SELECT status, COUNT(*) as count FROM attendance_records " +
-                     "WHERE student_id = ? AND course_id = ? GROUP BY status";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try {
+            AttendanceSummary summary = attendanceSummaryDAO.getSummary(studentId, courseId);
+            if (summary == null) {
+                return new Result<>(false, "Database error while retrieving attendance statistics", null);
+            }
             
-            stmt.setInt(1, studentId);
-            stmt.setInt(2, courseId);
+            Map<String, Object> statistics = toStatistics(summary);
+            statistics.put("TOTAL_CLASSES", summary.getTotal());
             
-            Map<String, Object> statistics = new HashMap<>();
-            int totalClasses = 0;
-            int presentCount = 0;
+            LOGGER.log(Level.INFO, "Retrieved attendance statistics for student {0} in course {1}", 
+                    new Object[]{studentId, courseId});
             
-            // Initialize counters for each status
-            for (AttendanceStatus status : AttendanceStatus.values()) {
-                statistics.put(status.toString(), 0);
-            }
+            return new Result<>(true, "Attendance statistics retrieved successfully", statistics);
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String status = rs.getString("status");
-                    int count = rs.getInt("count");
-                    
-                    statistics.put(status, count);
-                    totalClasses += count;
-                    
-                    if (status.equals(AttendanceStatus.PRESENT.toString()) || 
-                        status.equals(AttendanceStatus.LATE.toString())) {
-                        presentCount += count;
-                    }
-                }
-                
-                // Calculate attendance rate
-                double attendanceRate = totalClasses > 0 ? (double) presentCount / totalClasses * 100 : 0;
-                statistics.put("TOTAL_CLASSES", totalClasses);
-                statistics.put("ATTENDANCE_RATE", Math.round(attendanceRate * 100.0) / 100.0); // Round to 2 decimal places
-                
-                LOGGER.log(Level.INFO, "Retrieved attendance statistics for student {0} in course {1}", 
-                        new Object[]{studentId, courseId});
-                
-                return new Result<>(true, "Attendance statistics retrieved successfully", statistics);
-            }
-            
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Database error while retrieving attendance statistics", e);
-            return new Result<>(false, "Database error: " + e.getMessage(), null);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Unexpected error while retrieving attendance statistics", e);
             return new Result<>(false, "Unexpected error: " + e.getMessage(), null);
@@ -529,6 +599,7 @@ public class AttendanceController {
     
     /**
      * Calculates overall course attendance statistics.
+     * Sums the course's attendance summary counters, one row per student.
      * 
      * @param courseId The ID of the course
      * @return Result object containing the operation status and a map of statistics
@@ -539,67 +610,78 @@ public class AttendanceController {
             return new Result<>(false, "Invalid course ID", null);
         }
         
-        String sql = "SELECT status, COUNT(*) as count FROM attendance_records " +
-                     "WHERE course_id = ? GROUP BY status";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try {
+            AttendanceSummary summary = attendanceSummaryDAO.getCourseSummary(courseId);
+            if (summary == null) {
+                return new Result<>(false, "Database error while retrieving course attendance statistics", null);
+            }
             
-            stmt.setInt(1, courseId);
+            Map<String, Object> statistics = toStatistics(summary);
+            statistics.put("TOTAL_RECORDS", summary.getTotal());
+            statistics.put("UNIQUE_STUDENTS", summary.getStudentCount());
             
-            Map<String, Object> statistics = new HashMap<>();
-            int totalAttendance = 0;
-            int presentCount = 0;
+            LOGGER.log(Level.INFO, "Retrieved attendance statistics for course {0}", courseId);
             
-            // Initialize counters for each status
-            for (AttendanceStatus status : AttendanceStatus.values()) {
-                statistics.put(status.toString(), 0);
-            }
+            return new Result<>(true, "Course attendance statistics retrieved successfully", statistics);
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String status = rs.getString("status");
-                    int count = rs.getInt("count");
-                    
-                    statistics.put(status, count);
-                    totalAttendance += count;
-                    
-                    if (status.equals(AttendanceStatus.PRESENT.toString()) || 
-                        status.equals(AttendanceStatus.LATE.toString())) {
-                        presentCount += count;
-                    }
-                }
-                
-                // Calculate attendance rate
-                double attendanceRate = totalAttendance > 0 ? (double) presentCount / totalAttendance * 100 : 0;
-                statistics.put("TOTAL_RECORDS", totalAttendance);
-                statistics.put("ATTENDANCE_RATE", Math.round(attendanceRate * 100.0) / 100.0); // Round to 2 decimal places
-                
-                // Get the number of unique students in this course
-                String countStudentsSql = "SELECT COUNT(DISTINCT student_id) as student_count FROM attendance_records WHERE course_id = ?";
-                try (PreparedStatement countStmt = conn.prepareStatement(countStudentsSql)) {
-                    countStmt.setInt(1, courseId);
-                    try (ResultSet countRs = countStmt.executeQuery()) {
-                        if (countRs.next()) {
-                            statistics.put("UNIQUE_STUDENTS", countRs.getInt("student_count"));
-                        }
-                    }
-                }
-                
-                LOGGER.log(Level.INFO, "Retrieved attendance statistics for course {0}", courseId);
-                
-                return new Result<>(true, "Course attendance statistics retrieved successfully", statistics);
-            }
-            
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Database error while retrieving course attendance statistics", e);
-            return new Result<>(false, "Database error: " + e.getMessage(), null);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Unexpected error while retrieving course attendance statistics", e);
             return new Result<>(false, "Unexpected error: " + e.getMessage(), null);
         }
     }
     
+    /**
+     * Recomputes the attendance summary counters from the attendance records, repairing
+     * any drift, e.g. after records were changed outside this controller.
+     * 
+     * @return Result object containing the operation status and the number of summary rows
+     */
+    public Result<Integer> rebuildAttendanceSummary() {
+        long start = System.currentTimeMillis();
+        int rows = attendanceSummaryDAO.rebuild();
+        if (rows < 0) {
+            LOGGER.log(Level.SEVERE, "Rebuilding attendance summary failed");
+            return new Result<>(false, "Failed to rebuild attendance summary", null);
+        }
+        LOGGER.log(Level.INFO, "Rebuilt {0} attendance summary rows in {1} ms",
+                new Object[]{rows, System.currentTimeMillis() - start});
+        return new Result<>(true, "Attendance summary rebuilt successfully", rows);
+    }
+    
+    /**
+     * Builds the statistics map returned to callers: one entry per status plus the
+     * attendance rate, which counts late arrivals as attended.
+     */
+    private Map<String, Object> toStatistics(AttendanceSummary summary) {
+        Map<String, Object> statistics = new HashMap<>();
+        for (AttendanceStatus status : AttendanceStatus.values()) {
+            statistics.put(status.toString(), summary.getCount(status));
+        }
+        statistics.put("ATTENDANCE_RATE", summary.getAttendanceRate());
+        return statistics;
+    }
+    
+    /**
+     * Reads one attendance record on the caller's transaction. A SELECT ... FOR UPDATE
+     * also locks it for the rest of the transaction.
+     * 
+     * @param conn The connection holding the transaction
+     * @param sql A SELECT returning at most one attendance_records row
+     * @param params The query parameters
+     * @return The record, or null if there is none
+     * @throws SQLException If a database access error occurs
+     */
+    private AttendanceRecord findAttendanceRecord(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToAttendanceRecord(rs) : null;
+            }
+        }
+    }
+    
     /**
      * Maps a ResultSet row to an AttendanceRecord object.
      * 
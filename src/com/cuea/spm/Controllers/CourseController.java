@@ -5,6 +5,11 @@
  */
 package com.cuea.spm.Controllers;
 
+import com.cuea.spm.Dao.ChangeNotifier;
+import com.cuea.spm.Dao.CourseCache;
+import com.cuea.spm.Dao.CourseDAO;
+import com.cuea.spm.Dao.EntityChangeListener;
+import com.cuea.spm.Dao.TableVersions;
 import com.cuea.spm.Models.Course;
 import com.cuea.spm.Models.DatabaseConnection;
 import com.cuea.spm.Models.Enrollment;
@@ -39,6 +44,33 @@ public class CourseController {
     private static final Logger LOGGER = Logger.getLogger(CourseController.class.getName());
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
     
+    private static final ChangeNotifier<Course> NOTIFIER = new ChangeNotifier<>();
+    
+    private final CourseDAO courseDAO = new CourseDAO();
+    
+    static {
+        // Keep the shared course cache in step with writes made through any instance
+        NOTIFIER.addListener(CourseCache.getInstance().getChangeListener());
+    }
+    
+    /**
+     * Registers a listener notified after every successful course create, update or delete
+     *
+     * @param listener The listener to add
+     */
+    public static void addChangeListener(EntityChangeListener<Course> listener) {
+        NOTIFIER.addListener(listener);
+    }
+    
+    /**
+     * Removes a listener added with {@link #addChangeListener(EntityChangeListener)}
+     *
+     * @param listener The listener to remove
+     */
+    public static void removeChangeListener(EntityChangeListener<Course> listener) {
+        NOTIFIER.removeListener(listener);
+    }
+    
     /**
      * Validates course information
      *
@@ -119,7 +151,9 @@ public class CourseController {
                     if (generatedKeys.next()) {
                         int id = generatedKeys.getInt(1);
                         course.setId(id);
+                        TableVersions.bump(conn, TableVersions.COURSES);
                         LOGGER.log(Level.INFO, "Successfully created course with ID: {0}", id);
+                        NOTIFIER.fire(EntityChangeListener.ChangeType.INSERT, id, course);
                         return new Result<>(true, "Course created successfully", course, null);
                     } else {
                         LOGGER.log(Level.SEVERE, "Creating course failed, no ID obtained");
@@ -138,7 +172,7 @@ public class CourseController {
     }
     
     /**
-     * Retrieves a course by its ID
+     * Retrieves a course by its ID, from the shared course cache
      *
      * @param courseId The ID of the course to retrieve
      * @return The course if found, null otherwise
@@ -149,25 +183,12 @@ public class CourseController {
             return null;
         }
         
-        String sql = "SELECT * FROM courses WHERE course_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, courseId);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToCourse(rs);
-                } else {
-                    LOGGER.log(Level.INFO, "No course found with ID: {0}", courseId);
-                    return null;
-                }
+        try {
+            Course course = CourseCache.getInstance().getById(courseId);
+            if (course == null) {
+                LOGGER.log(Level.INFO, "No course found with ID: {0}", courseId);
             }
-            
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Database error while retrieving course by ID", e);
-            return null;
+            return course;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Unexpected error while retrieving course by ID", e);
             return null;
@@ -175,7 +196,7 @@ public class CourseController {
     }
     
     /**
-     * Retrieves a course by its code
+     * Retrieves a course by its code, from the shared course cache
      *
      * @param courseCode The code of the course to retrieve
      * @return The course if found, null otherwise
@@ -186,25 +207,12 @@ public class CourseController {
             return null;
         }
         
-        String sql = "SELECT * FROM courses WHERE course_code = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, courseCode);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToCourse(rs);
-                } else {
-                    LOGGER.log(Level.INFO, "No course found with code: {0}", courseCode);
-                    return null;
-                }
+        try {
+            Course course = CourseCache.getInstance().getByCode(courseCode);
+            if (course == null) {
+                LOGGER.log(Level.INFO, "No course found with code: {0}", courseCode);
             }
-            
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Database error while retrieving course by code", e);
-            return null;
+            return course;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Unexpected error while retrieving course by code", e);
             return null;
@@ -212,29 +220,15 @@ public class CourseController {
     }
     
     /**
-     * Retrieves all courses from the database
+     * Retrieves all courses from the shared course cache, by semester and code
      *
      * @return A list of all courses
      */
     public List<Course> getAllCourses() {
-        String sql = "SELECT * FROM courses ORDER BY semester, course_code";
-        List<Course> courses = new ArrayList<>();
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                Course course = mapResultSetToCourse(rs);
-                courses.add(course);
-            }
-            
-            LOGGER.log(Level.INFO, "Retrieved {0} courses", courses.size());
+        try {
+            List<Course> courses = CourseCache.getInstance().getAll();
+            LOGGER.log(Level.FINE, "Retrieved {0} courses", courses.size());
             return courses;
-            
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Database error while retrieving all courses", e);
-            return new ArrayList<>();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Unexpected error while retrieving all courses", e);
             return new ArrayList<>();
@@ -296,7 +290,9 @@ public class CourseController {
                     return new Result<>(false, "Failed to update course", null, null);
                 }
                 
+                TableVersions.bump(conn, TableVersions.COURSES);
                 LOGGER.log(Level.INFO, "Successfully updated course with ID: {0}", course.getId());
+                NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, course.getId(), course);
                 return new Result<>(true, "Course updated successfully", course, null);
             }
             
@@ -352,7 +348,9 @@ public class CourseController {
                     return new Result<>(false, "Failed to delete course", null, null);
                 }
                 
+                TableVersions.bump(conn, TableVersions.COURSES);
                 LOGGER.log(Level.INFO, "Successfully deleted course with ID: {0}", courseId);
+                NOTIFIER.fire(EntityChangeListener.ChangeType.DELETE, courseId, null);
                 return new Result<>(true, "Course deleted successfully", null, null);
             }
             
@@ -394,22 +392,6 @@ public class CourseController {
         return false;
     }
     
-    /**
-     * Maps a database result set to a Course object
-     *
-     * @param rs The result set containing course data
-     * @return A Course object
-     * @throws SQLException if a database error occurs
-     */
-    private Course mapResultSetToCourse(ResultSet rs) throws SQLException {
-        Course course = new Course();
-        course.setId(rs.getInt("course_id"));
-        course.setCode(rs.getString("course_code"));
-        course.setName(rs.getString("course_name"));
-        course.setCredits(rs.getInt("credits"));
-        course.setSemester(rs.getInt("semester"));
-        return course;
-    }
     
     /**
      * Gets the total number of courses in the system
@@ -418,13 +400,7 @@ public class CourseController {
      */
     public int getTotalCourseCount() {
         LOGGER.log(Level.INFO, "Getting total course count");
-        try {
-            List<Course> courses = getAllCourses();
-            return courses.size();
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error getting total course count", e);
-            return 0;
-        }
+        return courseDAO.getCourseCount();
     }
     
     /**
@@ -6,11 +6,15 @@
 package com.cuea.spm.Controllers;
 
 import com.cuea.spm.Dao.EnrollmentDAO;
+import com.cuea.spm.Dao.EnrollmentDAO.CloseSummary;
+import com.cuea.spm.Dao.EnrollmentDAO.TransitionScope;
+import com.cuea.spm.Dao.RowMappers;
 import com.cuea.spm.Models.Course;
 import com.cuea.spm.Models.DatabaseConnection;
 import com.cuea.spm.Models.Enrollment;
 import com.cuea.spm.Models.Enrollment.EnrollmentStatus;
 import com.cuea.spm.Models.Student;
+import com.cuea.spm.Utils.DashboardStatsService;
 import com.cuea.spm.Utils.ValidationUtils;
 
 import java.sql.Connection;
@@ -40,6 +44,7 @@ public class EnrollmentController {
     private final EnrollmentDAO enrollmentDAO;
     private final StudentController studentController;
     private final CourseController courseController;
+    private final GradeController gradeController;
     
     /**
      * Default constructor that initializes the EnrollmentDAO and related controllers
@@ -48,6 +53,7 @@ public class EnrollmentController {
         this.enrollmentDAO = new EnrollmentDAO();
         this.studentController = new StudentController();
         this.courseController = new CourseController();
+        this.gradeController = new GradeController();
     }
     
     /**
@@ -63,6 +69,7 @@ public class EnrollmentController {
         this.enrollmentDAO = enrollmentDAO;
         this.studentController = studentController;
         this.courseController = courseController;
+        this.gradeController = new GradeController();
     }
     
     /**
@@ -142,6 +149,7 @@ public class EnrollmentController {
             boolean success = addEnrollmentToDatabase(enrollment);
             
             if (success) {
+                DashboardStatsService.getInstance().markStale();
                 LOGGER.log(Level.INFO, "Successfully created enrollment for student ID: {0} in course ID: {1}",
                         new Object[]{enrollment.getStudentId(), enrollment.getCourseId()});
                 return new Result<>(true, "Enrollment created successfully", enrollment, null);
@@ -209,7 +217,7 @@ public class EnrollmentController {
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToEnrollment(rs);
+                    return RowMappers.ENROLLMENT.mapRow(rs);
                 } else {
                     LOGGER.log(Level.INFO, "No enrollment found with ID: {0}", enrollmentId);
                     return null;
@@ -236,10 +244,7 @@ public class EnrollmentController {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
-            while (rs.next()) {
-                Enrollment enrollment = mapResultSetToEnrollment(rs);
-                enrollments.add(enrollment);
-            }
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments", enrollments.size());
             return enrollments;
@@ -272,10 +277,7 @@ public class EnrollmentController {
             stmt.setInt(1, studentId);
             
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Enrollment enrollment = mapResultSetToEnrollment(rs);
-                    enrollments.add(enrollment);
-                }
+                RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             }
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments for student ID: {1}", 
@@ -310,10 +312,7 @@ public class EnrollmentController {
             stmt.setInt(1, courseId);
             
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Enrollment enrollment = mapResultSetToEnrollment(rs);
-                    enrollments.add(enrollment);
-                }
+                RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             }
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments for course ID: {1}", 
@@ -378,6 +377,7 @@ public class EnrollmentController {
                 
                 // Update the enrollment object
                 enrollment.setStatus(status);
+                DashboardStatsService.getInstance().markStale();
                 
                 LOGGER.log(Level.INFO, "Successfully updated enrollment ID: {0} to status: {1}",
                         new Object[]{enrollmentId, status});
@@ -393,6 +393,90 @@ public class EnrollmentController {
         }
     }
     
+    /**
+     * Moves every ENROLLED enrollment in a course or semester to COMPLETED or FAILED in
+     * one statement, instead of fetching, checking and updating each enrollment.
+     * Enrollments in any other status are left unchanged.
+     * 
+     * @param scope Whether {@code scopeId} is a course ID or a semester number
+     * @param scopeId The course ID or semester number
+     * @param status COMPLETED or FAILED
+     * @return Result object whose data is the number of enrollments moved
+     */
+    public Result<Integer> updateEnrolledStatusInBulk(TransitionScope scope, int scopeId, EnrollmentStatus status) {
+        LOGGER.log(Level.INFO, "Attempting to move enrolled students of {0} {1} to status: {2}",
+                new Object[]{scope, scopeId, status});
+        
+        if (scope == null || scopeId <= 0) {
+            return new Result<>(false, "Invalid course or semester", null, null);
+        }
+        if (status == null) {
+            return new Result<>(false, "Status cannot be null", null, null);
+        }
+        // Bulk moves are only for closing out: ENROLLED -> COMPLETED or FAILED
+        if ((status != EnrollmentStatus.COMPLETED && status != EnrollmentStatus.FAILED)
+                || !isValidStatusTransition(EnrollmentStatus.ENROLLED, status)) {
+            LOGGER.log(Level.WARNING, "Invalid bulk status transition from ENROLLED to {0}", status);
+            return new Result<>(false, "Invalid status transition", null, null);
+        }
+        
+        int moved = enrollmentDAO.transitionEnrolled(scope, scopeId, status);
+        if (moved < 0) {
+            return new Result<>(false, "Failed to update enrollment statuses", null, null);
+        }
+        return new Result<>(true, moved + " enrollment(s) updated to " + status, moved, null);
+    }
+    
+    /**
+     * Closes a course or semester using the default pass mark.
+     * 
+     * @param scope Whether {@code scopeId} is a course ID or a semester number
+     * @param scopeId The course ID or semester number
+     * @return Result object whose data holds the completed, failed and ungraded counts
+     * @see #closeEnrollments(TransitionScope, int, double)
+     */
+    public Result<CloseSummary> closeEnrollments(TransitionScope scope, int scopeId) {
+        return closeEnrollments(scope, scopeId, GradeController.PASS_MARK);
+    }
+    
+    /**
+     * Closes a course or semester: each ENROLLED enrollment becomes COMPLETED if the
+     * student's weighted final mark for the course reaches the pass mark, and FAILED
+     * otherwise. The final marks are recomputed first so they reflect the latest grades
+     * and weights; the close itself runs as two set-based updates in one transaction.
+     * Students without grades stay ENROLLED and are reported as ungraded.
+     * 
+     * @param scope Whether {@code scopeId} is a course ID or a semester number
+     * @param scopeId The course ID or semester number
+     * @param passMark The lowest final mark that completes the course
+     * @return Result object whose data holds the completed, failed and ungraded counts
+     */
+    public Result<CloseSummary> closeEnrollments(TransitionScope scope, int scopeId, double passMark) {
+        LOGGER.log(Level.INFO, "Closing enrollments for {0} {1} with pass mark {2}",
+                new Object[]{scope, scopeId, passMark});
+        
+        if (scope == null || scopeId <= 0) {
+            return new Result<>(false, "Invalid course or semester", null, null);
+        }
+        if (passMark < 0 || passMark > 100) {
+            return new Result<>(false, "Pass mark must be between 0 and 100", null, null);
+        }
+        
+        GradeController.Result<Integer> marks = scope == TransitionScope.COURSE
+                ? gradeController.computeFinalMarks(scopeId)
+                : gradeController.computeSemesterFinalMarks(scopeId);
+        if (!marks.isSuccess()) {
+            return new Result<>(false, "Failed to compute final marks: " + marks.getMessage(), null, null);
+        }
+        
+        CloseSummary summary = enrollmentDAO.closeEnrolled(scope, scopeId, passMark);
+        if (summary == null) {
+            return new Result<>(false, "Failed to close enrollments", null, null);
+        }
+        return new Result<>(true, String.format("%d completed, %d failed, %d ungraded",
+                summary.getCompleted(), summary.getFailed(), summary.getUngraded()), summary, null);
+    }
+    
     /**
      * Checks if a status transition is valid
      * 
@@ -499,37 +583,6 @@ public class EnrollmentController {
         }
     }
     
-    /**
-     * Maps a ResultSet row to an Enrollment object
-     * 
-     * @param rs The ResultSet containing enrollment data
-     * @return An Enrollment object
-     * @throws SQLException If a database error occurs
-     */
-    private Enrollment mapResultSetToEnrollment(ResultSet rs) throws SQLException {
-        int id = rs.getInt("enrollment_id");
-        int studentId = rs.getInt("student_id");
-        int courseId = rs.getInt("course_id");
-        LocalDate enrollmentDate = rs.getDate("enrollment_date").toLocalDate();
-        String statusStr = rs.getString("status");
-        
-        EnrollmentStatus status;
-        try {
-            status = EnrollmentStatus.valueOf(statusStr);
-        } catch (IllegalArgumentException e) {
-            LOGGER.log(Level.WARNING, "Invalid enrollment status in database: {0}", statusStr);
-            status = EnrollmentStatus.ENROLLED; // Default to ENROLLED if invalid
-        }
-        
-        Enrollment enrollment = new Enrollment(0, studentId, courseId, enrollmentDate);
-        enrollment.setId(id);
-        enrollment.setStudentId(studentId);
-        enrollment.setCourseId(courseId);
-        enrollment.setEnrollmentDate(enrollmentDate);
-        enrollment.setStatus(status);
-        
-        return enrollment;
-    }
     
     /**
      * Gets the count of active enrollments (ENROLLED status)
@@ -539,10 +592,7 @@ public class EnrollmentController {
     public int getActiveEnrollmentCount() {
         LOGGER.log(Level.INFO, "Getting active enrollment count");
         try {
-            List<Enrollment> enrollments = enrollmentDAO.getAllEnrollments();
-            return (int) enrollments.stream()
-                .filter(e -> e.getStatus() == EnrollmentStatus.ENROLLED)
-                .count();
+            return enrollmentDAO.getActiveEnrollmentCount();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error getting active enrollment count", e);
             return 0;
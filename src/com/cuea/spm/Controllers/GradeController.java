@@ -5,10 +5,524 @@
  */
 package com.cuea.spm.Controllers;
 
+import com.cuea.spm.Dao.AssessmentWeightDAO;
+import com.cuea.spm.Dao.PerformanceDAO;
+import com.cuea.spm.Models.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 /**
+ * Grades marks and combines a student's assessments into a course final mark.
+ *
+ * <p>Each course weights its assessment types, e.g. CAT 30 and EXAM 70, summing to
+ * 100; courses without a configured weighting use {@link #DEFAULT_WEIGHTS}. Several
+ * grades of one type are averaged, a type the student has no grade for counts as 0,
+ * and types the weighting does not list are ignored. The final mark and its letter
+ * are stored on the student's enrollments in the course.</p>
+ *
+ * <p>Final marks are computed in one pass over a cursor of grades sorted by course and
+ * student, so only the current student's totals and the current course's results are
+ * held in memory, however many grades there are.</p>
  *
  * @author theresiakavati
  */
 public class GradeController {
-    
+
+    private static final Logger LOGGER = Logger.getLogger(GradeController.class.getName());
+
+    /** The lowest mark graded above F. */
+    public static final double PASS_MARK = 40;
+
+    /** The weighting of courses that have none configured: 30% coursework, 70% exam. */
+    public static final Map<String, Double> DEFAULT_WEIGHTS;
+
+    static {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        weights.put("ASSIGNMENT", 10.0);
+        weights.put("CAT", 20.0);
+        weights.put("EXAM", 70.0);
+        DEFAULT_WEIGHTS = Collections.unmodifiableMap(weights);
+    }
+
+    // Enrollment updates per JDBC batch
+    private static final int BATCH_SIZE = 500;
+    // Rows per round trip on the embedded database; MySQL streams them one at a time
+    private static final int FETCH_SIZE = 1000;
+
+    // The filtered statements are public so QueryPlanVerifier checks them as they are run
+    public static final String COURSE_GRADES_SQL =
+            "SELECT course_id, student_id, assessment_type, marks FROM grades "
+            + "WHERE course_id = ? ORDER BY student_id";
+    public static final String SEMESTER_GRADES_SQL =
+            "SELECT course_id, student_id, assessment_type, marks FROM grades "
+            + "WHERE course_id IN (SELECT course_id FROM courses WHERE semester = ?) "
+            + "ORDER BY course_id, student_id";
+    private static final String ALL_GRADES_SQL =
+            "SELECT course_id, student_id, assessment_type, marks FROM grades "
+            + "ORDER BY course_id, student_id";
+    public static final String CLEAR_COURSE_SQL =
+            "UPDATE enrollments SET final_mark = NULL, grade_letter = NULL WHERE course_id = ?";
+    private static final String CLEAR_UNGRADED_SQL =
+            "UPDATE enrollments SET final_mark = NULL, grade_letter = NULL "
+            + "WHERE final_mark IS NOT NULL AND course_id NOT IN (SELECT DISTINCT course_id FROM grades)";
+    public static final String CLEAR_UNGRADED_SEMESTER_SQL =
+            "UPDATE enrollments SET final_mark = NULL, grade_letter = NULL "
+            + "WHERE final_mark IS NOT NULL AND course_id IN (SELECT course_id FROM courses WHERE semester = ?) "
+            + "AND course_id NOT IN (SELECT DISTINCT course_id FROM grades)";
+    public static final String STUDENTS_OF_COURSE_SQL =
+            "SELECT DISTINCT student_id FROM grades WHERE course_id = ? ORDER BY student_id";
+    public static final String UPDATE_FINAL_MARK_SQL =
+            "UPDATE enrollments SET final_mark = ?, grade_letter = ? WHERE course_id = ? AND student_id = ?";
+
+    private final AssessmentWeightDAO weightDAO;
+    private final PerformanceController performanceController;
+
+    public GradeController() {
+        this(new AssessmentWeightDAO());
+    }
+
+    public GradeController(AssessmentWeightDAO weightDAO) {
+        this.weightDAO = weightDAO;
+        this.performanceController = new PerformanceController(new PerformanceDAO(), weightDAO);
+    }
+
+    /**
+     * Result class for grade operations
+     * @param <T> Type of data returned in the result
+     */
+    public static class Result<T> {
+        private final boolean success;
+        private final String message;
+        private final T data;
+
+        public Result(boolean success, String message, T data) {
+            this.success = success;
+            this.message = message;
+            this.data = data;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        public T getData() { return data; }
+    }
+
+    /**
+     * Maps a mark out of 100 to its letter grade.
+     *
+     * @param marks The mark to grade
+     * @return The letter grade, from "A+" down to "F"
+     */
+    public static String calculateGradeLetter(double marks) {
+        if (marks >= 90) return "A+";
+        else if (marks >= 85) return "A";
+        else if (marks >= 80) return "A-";
+        else if (marks >= 75) return "B+";
+        else if (marks >= 70) return "B";
+        else if (marks >= 65) return "B-";
+        else if (marks >= 60) return "C+";
+        else if (marks >= 55) return "C";
+        else if (marks >= 50) return "C-";
+        else if (marks >= 45) return "D+";
+        else if (marks >= PASS_MARK) return "D";
+        else return "F";
+    }
+
+    /**
+     * Gets the weighting a course's final marks are computed with.
+     *
+     * @param courseId The course
+     * @return The configured weights by assessment type, the defaults if none are, or
+     *         null if they could not be read
+     */
+    public Map<String, Double> getWeights(int courseId) {
+        Map<String, Double> weights = weightDAO.getWeights(courseId);
+        if (weights == null) {
+            return null;
+        }
+        return weights.isEmpty() ? new LinkedHashMap<>(DEFAULT_WEIGHTS) : weights;
+    }
+
+    /**
+     * Sets a course's weighting. Assessment types are stored in upper case; the
+     * weights must be non-negative and add up to 100. An empty map restores the
+     * default weighting. The course's final marks and the GPAs of its students are
+     * recomputed with the new weighting.
+     *
+     * @param courseId The course
+     * @param weights The weights by assessment type
+     * @return Result object whose data is the weights as saved
+     */
+    public Result<Map<String, Double>> saveWeights(int courseId, Map<String, Double> weights) {
+        if (courseId <= 0) {
+            return new Result<>(false, "Invalid course ID", null);
+        }
+        Map<String, Double> normalized = new LinkedHashMap<>();
+        double total = 0;
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            String type = entry.getKey() == null ? "" : entry.getKey().trim().toUpperCase(Locale.ROOT);
+            Double weight = entry.getValue();
+            if (type.isEmpty() || type.length() > 20) {
+                return new Result<>(false, "Assessment type must be 1 to 20 characters", null);
+            }
+            if (weight == null || weight < 0 || weight.isNaN()) {
+                return new Result<>(false, "Weight of " + type + " must be zero or more", null);
+            }
+            if (normalized.put(type, weight) != null) {
+                return new Result<>(false, "Assessment type " + type + " is listed twice", null);
+            }
+            total += weight;
+        }
+        if (!normalized.isEmpty() && Math.abs(total - 100) > 0.01) {
+            return new Result<>(false, "Weights must add up to 100, not " + total, null);
+        }
+        if (!weightDAO.saveWeights(courseId, normalized)) {
+            return new Result<>(false, "Failed to save assessment weights", null);
+        }
+        LOGGER.log(Level.INFO, "Saved assessment weights of course {0}: {1}", new Object[]{courseId, normalized});
+
+        Result<Integer> marks = computeFinalMarks(courseId);
+        if (!marks.isSuccess()) {
+            return new Result<>(false, "Assessment weights saved, but final marks were not recomputed: "
+                    + marks.getMessage(), normalized);
+        }
+        try {
+            PerformanceController.Result<Integer> gpas =
+                    performanceController.recomputeStudents(loadStudentsOfCourse(courseId));
+            if (!gpas.isSuccess()) {
+                return new Result<>(false, "Assessment weights saved, but GPAs were not recomputed: "
+                        + gpas.getMessage(), normalized);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Database error while listing the students of course " + courseId, e);
+            return new Result<>(false, "Assessment weights saved, but GPAs were not recomputed: "
+                    + e.getMessage(), normalized);
+        }
+        return new Result<>(true, "Assessment weights saved", normalized);
+    }
+
+    private List<Integer> loadStudentsOfCourse(int courseId) throws SQLException {
+        List<Integer> studentIds = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(STUDENTS_OF_COURSE_SQL)) {
+            stmt.setInt(1, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    studentIds.add(rs.getInt(1));
+                }
+            }
+        }
+        return studentIds;
+    }
+
+    /**
+     * Computes the final mark and letter of every enrollment in one course. Enrollments
+     * of students without grades in the course are left without a final mark.
+     *
+     * @param courseId The course
+     * @return Result object whose data is the number of students given a final mark
+     */
+    public Result<Integer> computeFinalMarks(int courseId) {
+        if (courseId <= 0) {
+            return new Result<>(false, "Invalid course ID", null);
+        }
+        Map<String, Double> courseWeights = weightDAO.getWeights(courseId);
+        Map<Integer, Map<String, Double>> weights = null;
+        if (courseWeights != null) {
+            weights = new LinkedHashMap<>();
+            weights.put(courseId, courseWeights);
+        }
+        return aggregate(COURSE_GRADES_SQL, courseId, weights, courseId, null);
+    }
+
+    /**
+     * Computes the final mark and letter of every enrollment in the courses taught in
+     * one semester, e.g. before the semester is closed.
+     *
+     * @param semester The semester number
+     * @return Result object whose data is the number of students given a final mark,
+     *         counting a student once per course
+     */
+    public Result<Integer> computeSemesterFinalMarks(int semester) {
+        if (semester <= 0) {
+            return new Result<>(false, "Invalid semester", null);
+        }
+        return aggregate(SEMESTER_GRADES_SQL, semester, weightDAO.getAllWeights(), null, CLEAR_UNGRADED_SEMESTER_SQL);
+    }
+
+    /**
+     * Computes the final mark and letter of every enrollment in every course.
+     *
+     * @return Result object whose data is the number of students given a final mark,
+     *         counting a student once per course
+     */
+    public Result<Integer> computeAllFinalMarks() {
+        return aggregate(ALL_GRADES_SQL, null, weightDAO.getAllWeights(), null, CLEAR_UNGRADED_SQL);
+    }
+
+    /**
+     * @param gradesSql The grade cursor, sorted by course and student
+     * @param scopeId The cursor's one parameter, or null if it has none
+     * @param weights The configured weights by course; courses not in it use the defaults.
+     *                Null if they could not be read, in which case nothing is written
+     * @param course A course whose final marks are replaced even if it has no grades, or null
+     * @param clearUngradedSql Clears the final marks of courses in scope with no grades,
+     *                         taking {@code scopeId} if not null; null to skip
+     */
+    private Result<Integer> aggregate(String gradesSql, Integer scopeId, Map<Integer, Map<String, Double>> weights,
+                                      Integer course, String clearUngradedSql) {
+        if (weights == null) {
+            // Default weights would silently give every course wrong marks
+            return new Result<>(false, "Failed to read assessment weights", null);
+        }
+        long start = System.currentTimeMillis();
+        int students = 0;
+        int courses = 0;
+        // The cursor keeps its connection busy while it streams, so writes use another
+        try (Connection readConn = DatabaseConnection.getConnection();
+             Connection writeConn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = readConn.prepareStatement(gradesSql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(DatabaseConnection.isEmbedded() ? FETCH_SIZE : Integer.MIN_VALUE);
+            if (scopeId != null) {
+                stmt.setInt(1, scopeId);
+            }
+            CourseMarks marks = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int rowCourse = rs.getInt(1);
+                    if (marks == null || marks.courseId != rowCourse) {
+                        if (marks != null) {
+                            students += write(writeConn, marks);
+                            courses++;
+                        }
+                        marks = new CourseMarks(rowCourse, weightingFor(weights, rowCourse));
+                    }
+                    marks.add(rs.getInt(2), rs.getString(3), rs.getDouble(4));
+                }
+            }
+            if (marks == null && course != null) {
+                // No grades at all; clear any final marks left from earlier ones
+                marks = new CourseMarks(course, weightingFor(weights, course));
+            }
+            if (marks != null) {
+                students += write(writeConn, marks);
+                courses++;
+            }
+            if (clearUngradedSql != null) {
+                try (PreparedStatement clear = writeConn.prepareStatement(clearUngradedSql)) {
+                    if (scopeId != null) {
+                        clear.setInt(1, scopeId);
+                    }
+                    clear.executeUpdate();
+                }
+            }
+            LOGGER.log(Level.INFO, "Computed final marks of {0} students in {1} courses in {2} ms",
+                    new Object[]{students, courses, System.currentTimeMillis() - start});
+            return new Result<>(true, "Final marks computed for " + students + " student(s)", students);
+        } catch (SQLException e) {
+            // Courses written before the failure keep their new marks; running again rewrites them
+            LOGGER.log(Level.SEVERE, "Database error while computing final marks", e);
+            return new Result<>(false, "Database error: " + e.getMessage(), null);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unexpected error while computing final marks", e);
+            return new Result<>(false, "Unexpected error: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * @param weights The configured weights by course
+     * @param courseId The course
+     * @return The course's weighting, or the default one if it has none configured
+     */
+    static Weighting weightingFor(Map<Integer, Map<String, Double>> weights, int courseId) {
+        Map<String, Double> configured = weights.get(courseId);
+        return new Weighting(configured == null || configured.isEmpty() ? DEFAULT_WEIGHTS : configured);
+    }
+
+    /**
+     * Replaces one course's final marks in a single transaction.
+     *
+     * @return The number of students given a final mark
+     */
+    private int write(Connection conn, CourseMarks course) throws SQLException {
+        course.finishStudent();
+        conn.setAutoCommit(false);
+        try (PreparedStatement clear = conn.prepareStatement(CLEAR_COURSE_SQL);
+             PreparedStatement update = conn.prepareStatement(UPDATE_FINAL_MARK_SQL)) {
+            clear.setInt(1, course.courseId);
+            clear.executeUpdate();
+            for (int i = 0; i < course.size; i++) {
+                update.setDouble(1, course.finalMarks[i]);
+                update.setString(2, calculateGradeLetter(course.finalMarks[i]));
+                update.setInt(3, course.courseId);
+                update.setInt(4, course.studentIds[i]);
+                update.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            if (course.size % BATCH_SIZE != 0) {
+                update.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        if (course.ignored > 0) {
+            LOGGER.log(Level.WARNING, "Ignored {0} grades of course {1} with assessment types not in its weighting {2}",
+                    new Object[]{course.ignored, course.courseId, course.weighting});
+        }
+        return course.size;
+    }
+
+    /**
+     * A course's weights by position, shared by the final mark and GPA calculations so
+     * both grade a course the same way.
+     */
+    public static final class Weighting {
+        private final String[] types;
+        private final double[] weights;
+        private final double totalWeight;
+
+        /**
+         * @param weights The weights by assessment type
+         */
+        public Weighting(Map<String, Double> weights) {
+            types = new String[weights.size()];
+            this.weights = new double[weights.size()];
+            double total = 0;
+            int i = 0;
+            for (Map.Entry<String, Double> entry : weights.entrySet()) {
+                types[i] = entry.getKey();
+                this.weights[i] = entry.getValue();
+                total += this.weights[i];
+                i++;
+            }
+            totalWeight = total;
+        }
+
+        /**
+         * @return The number of weighted assessment types
+         */
+        public int size() {
+            return types.length;
+        }
+
+        /**
+         * @param assessmentType An assessment type, in any case
+         * @return Its position, or -1 if the weighting does not list it
+         */
+        public int indexOf(String assessmentType) {
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].equalsIgnoreCase(assessmentType)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Combines per-type totals into a final mark. A type with no marks counts as 0.
+         *
+         * @param sums The sum of the marks of each type, by position
+         * @param counts The number of marks of each type, by position
+         * @return The final mark rounded to two decimals, or NaN if no type has any marks
+         */
+        public double finalMark(double[] sums, int[] counts) {
+            boolean graded = false;
+            double weighted = 0;
+            for (int i = 0; i < types.length; i++) {
+                if (counts[i] > 0) {
+                    graded = true;
+                    weighted += sums[i] / counts[i] * weights[i];
+                }
+            }
+            if (!graded || totalWeight <= 0) {
+                return Double.NaN;
+            }
+            // Rounded to the two decimals the final_mark column holds
+            return Math.round(weighted / totalWeight * 100.0) / 100.0;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(types);
+        }
+    }
+
+    /**
+     * One course's weighting, the running totals of the student being read and the
+     * final marks of the students already read.
+     */
+    private static class CourseMarks {
+        final int courseId;
+        final Weighting weighting;
+
+        // The current student's sum and count of marks per assessment type
+        final double[] sums;
+        final int[] counts;
+        int currentStudent = -1;
+
+        int size;
+        int[] studentIds = new int[64];
+        double[] finalMarks = new double[64];
+        int ignored;
+
+        CourseMarks(int courseId, Weighting weighting) {
+            this.courseId = courseId;
+            this.weighting = weighting;
+            sums = new double[weighting.size()];
+            counts = new int[weighting.size()];
+        }
+
+        void add(int studentId, String assessmentType, double marks) {
+            if (studentId != currentStudent) {
+                finishStudent();
+                currentStudent = studentId;
+            }
+            int type = weighting.indexOf(assessmentType);
+            if (type < 0) {
+                ignored++;
+                return;
+            }
+            sums[type] += marks;
+            counts[type]++;
+        }
+
+        /**
+         * Records the current student's final mark, if any of their grades counted,
+         * and resets the totals for the next student.
+         */
+        void finishStudent() {
+            double finalMark = weighting.finalMark(sums, counts);
+            if (!Double.isNaN(finalMark)) {
+                if (size == studentIds.length) {
+                    studentIds = Arrays.copyOf(studentIds, size * 2);
+                    finalMarks = Arrays.copyOf(finalMarks, size * 2);
+                }
+                studentIds[size] = currentStudent;
+                finalMarks[size] = finalMark;
+                size++;
+            }
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+            currentStudent = -1;
+        }
+    }
 }
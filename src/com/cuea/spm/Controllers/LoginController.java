@@ -0,0 +1,153 @@
+package com.cuea.spm.Controllers;
+
+import com.cuea.spm.Dao.UserDAO;
+import com.cuea.spm.Models.User;
+import com.cuea.spm.Utils.PasswordHasher;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks usernames and passwords.
+ *
+ * <p>BCrypt is deliberately slow, so {@link #loginAsync(String, char[], Consumer)} runs
+ * the check on a small pool of {@code -Dspm.auth.workers} threads (default 2) with a
+ * bounded queue, keeping it off the Swing event thread and limiting how many checks
+ * can run at once. A successful login whose stored password is plain text or hashed
+ * at an old cost factor is rehashed at the configured cost.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class LoginController {
+
+    private static final Logger LOGGER = Logger.getLogger(LoginController.class.getName());
+
+    private static final int WORKERS = Math.max(1, Integer.getInteger("spm.auth.workers", 2));
+    private static final int QUEUE_CAPACITY = 16;
+    private static final String INVALID_CREDENTIALS = "Invalid username or password!";
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService VERIFIERS = new ThreadPoolExecutor(WORKERS, WORKERS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                Thread thread = new Thread(r, "spm-login-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // Checked against when the username is unknown, so that costs as much as a wrong
+    // password and does not reveal which usernames exist. Made on first use.
+    private static class UnknownUserHash {
+        static final String VALUE = PasswordHasher.hash("unknown-user".toCharArray());
+    }
+
+    /**
+     * Result class for login operations
+     * @param <T> Type of data returned in the result
+     */
+    public static class Result<T> {
+        private final boolean success;
+        private final String message;
+        private final T data;
+
+        public Result(boolean success, String message, T data) {
+            this.success = success;
+            this.message = message;
+            this.data = data;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        public T getData() { return data; }
+    }
+
+    private final UserDAO userDAO;
+
+    public LoginController() {
+        this(new UserDAO());
+    }
+
+    public LoginController(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    /**
+     * Checks the credentials on the calling thread.
+     *
+     * @param username The username
+     * @param password The password entered
+     * @return Result object whose data is the logged-in user
+     */
+    public Result<User> login(String username, char[] password) {
+        if (username == null || username.trim().isEmpty() || password == null || password.length == 0) {
+            return new Result<>(false, "Please enter your username and password", null);
+        }
+        try {
+            User user = userDAO.getUserByUsername(username.trim());
+            if (user == null) {
+                PasswordHasher.verify(password, UnknownUserHash.VALUE);
+                LOGGER.log(Level.INFO, "Login failed for unknown user {0}", username);
+                return new Result<>(false, INVALID_CREDENTIALS, null);
+            }
+            if (!PasswordHasher.verify(password, user.getPassword())) {
+                LOGGER.log(Level.INFO, "Login failed for user {0}", username);
+                return new Result<>(false, INVALID_CREDENTIALS, null);
+            }
+            if (PasswordHasher.needsRehash(user.getPassword())) {
+                rehash(user, password);
+            }
+            LOGGER.log(Level.INFO, "User {0} logged in", user.getUsername());
+            return new Result<>(true, "Login successful", user);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unexpected error during login", e);
+            return new Result<>(false, "Unexpected error: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * Checks the credentials on the login worker pool. The password array is cleared
+     * once checked.
+     *
+     * @param username The username
+     * @param password The password entered
+     * @param callback Receives the result on a worker thread; Swing callers should hop
+     *                 back with {@code SwingUtilities.invokeLater}
+     * @return The pending check, or null if too many logins are already waiting, in
+     *         which case the callback has been given a failed result
+     */
+    public Future<?> loginAsync(String username, char[] password, Consumer<Result<User>> callback) {
+        try {
+            return VERIFIERS.submit(() -> {
+                try {
+                    callback.accept(login(username, password));
+                } finally {
+                    Arrays.fill(password, '\0');
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Arrays.fill(password, '\0');
+            LOGGER.log(Level.WARNING, "Login rejected; {0} checks already waiting", QUEUE_CAPACITY);
+            callback.accept(new Result<>(false, "Too many login attempts in progress, please try again", null));
+            return null;
+        }
+    }
+
+    private void rehash(User user, char[] password) {
+        String hash = PasswordHasher.hash(password);
+        if (userDAO.updatePassword(user.getUserId(), hash)) {
+            user.setPassword(hash);
+            LOGGER.log(Level.INFO, "Rehashed the password of user {0} at cost {1}",
+                    new Object[]{user.getUsername(), PasswordHasher.getCost()});
+        } else {
+            // The login still succeeds; the rehash is retried next time
+            LOGGER.log(Level.WARNING, "Failed to rehash the password of user {0}", user.getUsername());
+        }
+    }
+}
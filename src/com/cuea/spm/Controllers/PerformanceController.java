@@ -5,10 +5,490 @@
  */
 package com.cuea.spm.Controllers;
 
+import com.cuea.spm.Dao.AssessmentWeightDAO;
+import com.cuea.spm.Dao.BatchResult;
+import com.cuea.spm.Dao.PerformanceDAO;
+import com.cuea.spm.Models.DatabaseConnection;
+import com.cuea.spm.Models.Performance;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 /**
+ * Derives performance rows from grades: for each student and semester, the GPA of the
+ * semester's courses and the cumulative GPA of every course up to and including it,
+ * both weighted by course credits.
+ *
+ * <p>A course's mark is the student's weighted final mark over its assessments in that
+ * semester, combined by the course's weighting exactly as
+ * {@link GradeController#computeFinalMarks(int)} does, and mapped to grade points
+ * through its letter grade (A+ and A are 4.0, F is 0.0).</p>
+ *
+ * <p>Students are processed in chunks of consecutive IDs to bound memory: each chunk
+ * is one grouped query, the GPAs are computed in parallel on the fork-join pool, and
+ * the rows are written with one batched upsert.</p>
  *
  * @author theresiakavati
  */
 public class PerformanceController {
-    
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceController.class.getName());
+
+    // Students per query and per upsert batch
+    private static final int CHUNK_SIZE = 2000;
+    // Below this many students a task computes instead of splitting
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private static final String ALL_STUDENTS_SQL =
+            "SELECT DISTINCT student_id FROM grades ORDER BY student_id";
+    public static final String SEMESTER_STUDENTS_SQL =
+            "SELECT DISTINCT student_id FROM grades WHERE semester = ? ORDER BY student_id";
+    // One row per student, semester, course and assessment type, so the GPA needs no
+    // per-assessment rows. The left join keeps grades as the driving table, read by
+    // student range; grades of a deleted course have no credits and so still do not count.
+    public static final String COURSE_MARKS_SQL =
+            "SELECT g.student_id, g.semester, g.course_id, c.credits, g.assessment_type, "
+            + "AVG(g.marks) AS average_marks "
+            + "FROM grades g LEFT JOIN courses c ON c.course_id = g.course_id "
+            + "WHERE g.student_id BETWEEN ? AND ? AND g.semester <= ? "
+            + "GROUP BY g.student_id, g.semester, g.course_id, c.credits, g.assessment_type "
+            + "ORDER BY g.student_id, g.semester, g.course_id";
+
+    private final PerformanceDAO performanceDAO;
+    private final AssessmentWeightDAO weightDAO;
+
+    public PerformanceController() {
+        this(new PerformanceDAO());
+    }
+
+    public PerformanceController(PerformanceDAO performanceDAO) {
+        this(performanceDAO, new AssessmentWeightDAO());
+    }
+
+    public PerformanceController(PerformanceDAO performanceDAO, AssessmentWeightDAO weightDAO) {
+        this.performanceDAO = performanceDAO;
+        this.weightDAO = weightDAO;
+    }
+
+    /**
+     * Result class for performance operations
+     * @param <T> Type of data returned in the result
+     */
+    public static class Result<T> {
+        private final boolean success;
+        private final String message;
+        private final T data;
+
+        public Result(boolean success, String message, T data) {
+            this.success = success;
+            this.message = message;
+            this.data = data;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        public T getData() { return data; }
+    }
+
+    /**
+     * Maps a mark out of 100 to grade points on a 4.0 scale.
+     *
+     * @param marks The mark
+     * @return The grade points of the mark's letter grade
+     * @see GradeController#calculateGradeLetter(double)
+     */
+    public static double gradePoints(double marks) {
+        switch (GradeController.calculateGradeLetter(marks)) {
+            case "A+":
+            case "A": return 4.0;
+            case "A-": return 3.7;
+            case "B+": return 3.3;
+            case "B": return 3.0;
+            case "B-": return 2.7;
+            case "C+": return 2.3;
+            case "C": return 2.0;
+            case "C-": return 1.7;
+            case "D+": return 1.3;
+            case "D": return 1.0;
+            default: return 0.0;
+        }
+    }
+
+    /**
+     * Recomputes every student's performance for every semester they have grades in.
+     *
+     * @return Result object whose data is the number of rows written
+     */
+    public Result<Integer> recomputeAll() {
+        return recompute(ALL_STUDENTS_SQL, null);
+    }
+
+    /**
+     * Recomputes one semester for every student graded in it. Cumulative GPAs
+     * include the earlier semesters' grades.
+     *
+     * @param semester The semester
+     * @return Result object whose data is the number of rows written
+     */
+    public Result<Integer> recomputeSemester(int semester) {
+        if (semester <= 0) {
+            return new Result<>(false, "Invalid semester", null);
+        }
+        return recompute(SEMESTER_STUDENTS_SQL, semester);
+    }
+
+    /**
+     * Recomputes every semester of one student, e.g. after one of their grades changed.
+     *
+     * @param studentId The student
+     * @return Result object whose data is the number of rows written
+     */
+    public Result<Integer> recomputeStudent(int studentId) {
+        if (studentId <= 0) {
+            return new Result<>(false, "Invalid student ID", null);
+        }
+        Map<Integer, Map<String, Double>> weights = weightDAO.getAllWeights();
+        if (weights == null) {
+            return new Result<>(false, "Failed to read assessment weights", null);
+        }
+        long start = System.currentTimeMillis();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int written = processChunk(conn, new int[]{studentId}, null, weights);
+            if (written < 0) {
+                return new Result<>(false, "Failed to save performance records", null);
+            }
+            LOGGER.log(Level.FINE, "Recomputed {0} performance rows for student {1} in {2} ms",
+                    new Object[]{written, studentId, System.currentTimeMillis() - start});
+            return new Result<>(true, written + " performance record(s) updated", written);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Database error while recomputing performance of student " + studentId, e);
+            return new Result<>(false, "Database error: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * Recomputes every semester of a set of students, e.g. those whose grades changed
+     * in a bulk edit. Students with nearby IDs share a query, so this is much cheaper
+     * than calling {@link #recomputeStudent(int)} for each.
+     *
+     * @param studentIds The students
+     * @return Result object whose data is the number of rows written
+     */
+    public Result<Integer> recomputeStudents(Collection<Integer> studentIds) {
+        int[] ids = new int[studentIds.size()];
+        int count = 0;
+        for (Integer id : studentIds) {
+            if (id != null && id > 0) {
+                ids[count++] = id;
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        if (count == 0) {
+            return new Result<>(true, "0 performance record(s) updated", 0);
+        }
+
+        Map<Integer, Map<String, Double>> weights = weightDAO.getAllWeights();
+        if (weights == null) {
+            return new Result<>(false, "Failed to read assessment weights", null);
+        }
+        long start = System.currentTimeMillis();
+        int written = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int from = 0;
+            while (from < ids.length) {
+                // Bound the ID range as well as the count, so a chunk never reads the
+                // grades of many students who are not in the set
+                int to = from;
+                while (to + 1 < ids.length && to + 1 - from < CHUNK_SIZE
+                        && ids[to + 1] - ids[from] < CHUNK_SIZE) {
+                    to++;
+                }
+                int chunk = processChunk(conn, Arrays.copyOfRange(ids, from, to + 1), null, weights);
+                if (chunk < 0) {
+                    return new Result<>(false, "Failed to save performance records after "
+                            + written + " rows", written);
+                }
+                written += chunk;
+                from = to + 1;
+            }
+            LOGGER.log(Level.FINE, "Recomputed {0} performance rows for {1} changed students in {2} ms",
+                    new Object[]{written, ids.length, System.currentTimeMillis() - start});
+            return new Result<>(true, written + " performance record(s) updated", written);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Database error while recomputing performance of changed students", e);
+            return new Result<>(false, "Database error: " + e.getMessage(), null);
+        }
+    }
+
+    /**
+     * @param studentsSql Lists the students to recompute, in ID order
+     * @param semester The one semester to write, or null for all of them
+     */
+    private Result<Integer> recompute(String studentsSql, Integer semester) {
+        Map<Integer, Map<String, Double>> weights = weightDAO.getAllWeights();
+        if (weights == null) {
+            return new Result<>(false, "Failed to read assessment weights", null);
+        }
+        long start = System.currentTimeMillis();
+        int written = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int[] studentIds = loadStudentIds(conn, studentsSql, semester);
+            for (int from = 0; from < studentIds.length; from += CHUNK_SIZE) {
+                int to = Math.min(from + CHUNK_SIZE, studentIds.length) - 1;
+                int chunk = processChunk(conn, Arrays.copyOfRange(studentIds, from, to + 1), semester, weights);
+                if (chunk < 0) {
+                    // Earlier chunks stay written; running again rewrites them
+                    return new Result<>(false, "Failed to save performance records after "
+                            + written + " rows", written);
+                }
+                written += chunk;
+            }
+            LOGGER.log(Level.INFO, "Recomputed {0} performance rows for {1} students in {2} ms",
+                    new Object[]{written, studentIds.length, System.currentTimeMillis() - start});
+            return new Result<>(true, written + " performance record(s) updated", written);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Database error while recomputing performance", e);
+            return new Result<>(false, "Database error: " + e.getMessage(), null);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unexpected error while recomputing performance", e);
+            return new Result<>(false, "Unexpected error: " + e.getMessage(), null);
+        }
+    }
+
+    private int[] loadStudentIds(Connection conn, String sql, Integer semester) throws SQLException {
+        int[] ids = new int[1024];
+        int count = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (semester != null) {
+                stmt.setInt(1, semester);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = rs.getInt(1);
+                }
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Loads, computes and writes a chunk of students. Their existing rows that are not
+     * rewritten, such as a semester whose grades have all been deleted, are deleted.
+     *
+     * @param studentIds The students, sorted
+     * @param weights The configured assessment weights by course
+     * @return The number of rows written, or -1 if the write failed
+     */
+    private int processChunk(Connection conn, int[] studentIds, Integer semester,
+                             Map<Integer, Map<String, Double>> weights) throws SQLException {
+        int firstId = studentIds[0];
+        int lastId = studentIds[studentIds.length - 1];
+        List<StudentMarks> students = new ArrayList<>();
+        Map<Integer, GradeController.Weighting> weightings = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(COURSE_MARKS_SQL)) {
+            stmt.setInt(1, firstId);
+            stmt.setInt(2, lastId);
+            stmt.setInt(3, semester != null ? semester : Integer.MAX_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                StudentMarks current = null;
+                CourseTotals course = null;
+                while (rs.next()) {
+                    int studentId = rs.getInt(1);
+                    if (Arrays.binarySearch(studentIds, studentId) < 0) {
+                        continue;
+                    }
+                    int rowSemester = rs.getInt(2);
+                    int courseId = rs.getInt(3);
+                    if (course == null || !course.isFor(studentId, rowSemester, courseId)) {
+                        if (course != null) {
+                            course.addTo(current);
+                        }
+                        if (current == null || current.studentId != studentId) {
+                            current = new StudentMarks(studentId);
+                            students.add(current);
+                        }
+                        GradeController.Weighting weighting = weightings.computeIfAbsent(courseId,
+                                id -> GradeController.weightingFor(weights, id));
+                        course = new CourseTotals(studentId, rowSemester, courseId, rs.getInt(4), weighting);
+                    }
+                    course.add(rs.getString(5), rs.getDouble(6));
+                }
+                if (course != null) {
+                    course.addTo(current);
+                }
+            }
+        }
+
+        StudentMarks[] work = students.toArray(new StudentMarks[0]);
+        ForkJoinPool.commonPool().invoke(new GpaTask(work, 0, work.length, semester, new Date()));
+
+        List<Performance> rows = new ArrayList<>();
+        for (StudentMarks student : work) {
+            rows.addAll(student.results);
+        }
+        BatchResult result = performanceDAO.replacePerformanceBatch(studentIds, semester, rows);
+        if (!result.isSuccess()) {
+            LOGGER.log(Level.SEVERE, "Performance upsert failed for students {0} to {1}: {2}",
+                    new Object[]{firstId, lastId, result.getFailures()});
+            return -1;
+        }
+        return result.getWritten();
+    }
+
+    /**
+     * One student's average marks per assessment type in one course and semester.
+     */
+    private static class CourseTotals {
+        final int studentId;
+        final int semester;
+        final int courseId;
+        final int credits;
+        final GradeController.Weighting weighting;
+        final double[] sums;
+        final int[] counts;
+
+        CourseTotals(int studentId, int semester, int courseId, int credits, GradeController.Weighting weighting) {
+            this.studentId = studentId;
+            this.semester = semester;
+            this.courseId = courseId;
+            this.credits = credits;
+            this.weighting = weighting;
+            sums = new double[weighting.size()];
+            counts = new int[weighting.size()];
+        }
+
+        boolean isFor(int student, int sem, int course) {
+            return studentId == student && semester == sem && courseId == course;
+        }
+
+        // Types the weighting does not list are ignored, as for final marks
+        void add(String assessmentType, double averageMarks) {
+            int type = weighting.indexOf(assessmentType);
+            if (type >= 0) {
+                sums[type] += averageMarks;
+                counts[type]++;
+            }
+        }
+
+        void addTo(StudentMarks student) {
+            double finalMark = weighting.finalMark(sums, counts);
+            if (!Double.isNaN(finalMark)) {
+                student.add(semester, credits, finalMark);
+            }
+        }
+    }
+
+    /**
+     * One student's course marks, in semester order as loaded, and the rows computed
+     * from them.
+     */
+    private static class StudentMarks {
+        final int studentId;
+        int size;
+        int[] semesters = new int[8];
+        int[] credits = new int[8];
+        double[] marks = new double[8];
+        final List<Performance> results = new ArrayList<>();
+
+        StudentMarks(int studentId) {
+            this.studentId = studentId;
+        }
+
+        void add(int semester, int courseCredits, double averageMarks) {
+            if (size == semesters.length) {
+                semesters = Arrays.copyOf(semesters, size * 2);
+                credits = Arrays.copyOf(credits, size * 2);
+                marks = Arrays.copyOf(marks, size * 2);
+            }
+            semesters[size] = semester;
+            credits[size] = courseCredits;
+            marks[size] = averageMarks;
+            size++;
+        }
+
+        /**
+         * Walks the semesters in order, keeping running cumulative totals.
+         *
+         * @param only The one semester to produce a row for, or null for every semester
+         */
+        void compute(Integer only, Date calculatedAt) {
+            double cumulativePoints = 0;
+            int cumulativeCredits = 0;
+            int i = 0;
+            while (i < size) {
+                int semester = semesters[i];
+                double points = 0;
+                int semesterCredits = 0;
+                for (; i < size && semesters[i] == semester; i++) {
+                    points += gradePoints(marks[i]) * credits[i];
+                    semesterCredits += credits[i];
+                }
+                cumulativePoints += points;
+                cumulativeCredits += semesterCredits;
+                if (only == null || only == semester) {
+                    Performance performance = new Performance(0, studentId, semester,
+                            gpa(points, semesterCredits), semesterCredits, null, calculatedAt);
+                    performance.setCumulativeGpa(gpa(cumulativePoints, cumulativeCredits));
+                    performance.setCumulativeCredits(cumulativeCredits);
+                    results.add(performance);
+                }
+            }
+        }
+
+        // Rounded to the two decimals the gpa column holds
+        private static double gpa(double points, int credits) {
+            return credits > 0 ? Math.round(points / credits * 100.0) / 100.0 : 0.0;
+        }
+    }
+
+    /**
+     * Computes a slice of students, splitting it in half while it is large.
+     */
+    private static class GpaTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final StudentMarks[] students;
+        private final int from;
+        private final int to;
+        private final Integer semester;
+        private final Date calculatedAt;
+
+        GpaTask(StudentMarks[] students, int from, int to, Integer semester, Date calculatedAt) {
+            this.students = students;
+            this.from = from;
+            this.to = to;
+            this.semester = semester;
+            this.calculatedAt = calculatedAt;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    students[i].compute(semester, calculatedAt);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GpaTask(students, from, middle, semester, calculatedAt),
+                    new GpaTask(students, middle, to, semester, calculatedAt));
+        }
+    }
 }
@@ -7,6 +7,7 @@ package com.cuea.spm.Controllers;
 
 import com.cuea.spm.Dao.StudentDAO;
 import com.cuea.spm.Models.Student;
+import com.cuea.spm.Utils.StudentSearchIndex;
 import com.cuea.spm.Utils.ValidationUtils;
 import java.util.ArrayList;
 import java.util.Date;
@@ -26,6 +27,10 @@ import java.text.ParseException;
 public class StudentController {
     
     private static final Logger LOGGER = Logger.getLogger(StudentController.class.getName());
+    
+    // Upper bound on rows returned by searches and filters
+    private static final int MAX_RESULTS = 1000;
+    
     private final StudentDAO studentDAO;
     
     /**
@@ -254,11 +259,9 @@ public class StudentController {
                 return null;
             }
             
-            List<Student> allStudents = getAllStudents();
-            for (Student student : allStudents) {
-                if (student.getRegistrationNumber().equals(registrationNumber)) {
-                    return student;
-                }
+            Student student = studentDAO.getStudentByRegistrationNumber(registrationNumber);
+            if (student != null) {
+                return student;
             }
             
             LOGGER.log(Level.INFO, "No student found with registration number: {0}", registrationNumber);
@@ -270,7 +273,8 @@ public class StudentController {
     }
     
     /**
-     * Searches for students based on various criteria
+     * Searches for students whose name, email, phone or registration number
+     * contains the search term, best matches first
      * 
      * @param searchTerm The term to search for (name, email, registration number)
      * @return A list of students matching the search criteria
@@ -283,18 +287,15 @@ public class StudentController {
                 return getAllStudents();
             }
             
-            List<Student> matchingStudents = new ArrayList<>();
-            List<Student> allStudents = getAllStudents();
-            String term = searchTerm.toLowerCase().trim();
-            
-            for (Student student : allStudents) {
-                if (student.getFirstName().toLowerCase().contains(term) ||
-                    student.getLastName().toLowerCase().contains(term) ||
-                    student.getEmail().toLowerCase().contains(term) ||
-                    student.getRegistrationNumber().toLowerCase().contains(term) ||
-                    student.getPhone().contains(term)) {
-                    matchingStudents.add(student);
-                }
+            // Substring search comes from the in-memory index once it is built; until then
+            // fall back to the prefix search in SQL
+            StudentSearchIndex index = StudentSearchIndex.getInstance();
+            List<Student> matchingStudents;
+            if (index.isReady()) {
+                matchingStudents = index.search(searchTerm, MAX_RESULTS);
+            } else {
+                index.buildAsync();
+                matchingStudents = studentDAO.searchStudents(searchTerm.trim(), MAX_RESULTS);
             }
             
             LOGGER.log(Level.INFO, "Found {0} students matching search term: {1}", 
@@ -321,14 +322,7 @@ public class StudentController {
                 return new ArrayList<>();
             }
             
-            List<Student> filteredStudents = new ArrayList<>();
-            List<Student> allStudents = getAllStudents();
-            
-            for (Student student : allStudents) {
-                if (student.getCurrentSemester() == semester) {
-                    filteredStudents.add(student);
-                }
-            }
+            List<Student> filteredStudents = studentDAO.getStudentsBySemester(semester, MAX_RESULTS);
             
             LOGGER.log(Level.INFO, "Found {0} students in semester {1}", 
                     new Object[]{filteredStudents.size(), semester});
@@ -367,17 +361,7 @@ public class StudentController {
                 return new ArrayList<>();
             }
             
-            List<Student> filteredStudents = new ArrayList<>();
-            List<Student> allStudents = getAllStudents();
-            
-            for (Student student : allStudents) {
-                Date enrollmentDate = student.getEnrollmentDate();
-                if (enrollmentDate != null && 
-                    (enrollmentDate.after(start) || enrollmentDate.equals(start)) && 
-                    (enrollmentDate.before(end) || enrollmentDate.equals(end))) {
-                    filteredStudents.add(student);
-                }
-            }
+            List<Student> filteredStudents = studentDAO.getStudentsByEnrollmentDate(start, end, MAX_RESULTS);
             
             LOGGER.log(Level.INFO, "Found {0} students enrolled between {1} and {2}", 
                     new Object[]{filteredStudents.size(), startDate, endDate});
@@ -399,8 +383,7 @@ public class StudentController {
     public int getTotalStudentCount() {
         LOGGER.log(Level.INFO, "Getting total student count");
         try {
-            List<Student> students = getAllStudents();
-            return students.size();
+            return studentDAO.getStudentCount();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error getting total student count", e);
             return 0;
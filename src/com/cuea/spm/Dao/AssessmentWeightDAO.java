@@ -0,0 +1,106 @@
+package com.cuea.spm.Dao;
+
+import com.cuea.spm.Models.DatabaseConnection;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the per-course assessment weights, kept as a map from assessment
+ * type (e.g. "CAT") to its weight in percent.
+ *
+ * @author StudentManagementSystem
+ */
+public class AssessmentWeightDAO {
+
+    static final String SELECT_BY_COURSE_SQL =
+            "SELECT assessment_type, weight FROM assessment_weights WHERE course_id = ? ORDER BY assessment_type";
+    static final String DELETE_BY_COURSE_SQL = "DELETE FROM assessment_weights WHERE course_id = ?";
+
+    /**
+     * Gets the weights configured for one course.
+     *
+     * @param courseId The course
+     * @return The weights by assessment type, empty if the course has none, or null on
+     *         a database error so callers do not mistake it for the default weighting
+     */
+    public Map<String, Double> getWeights(int courseId) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_COURSE_SQL)) {
+            stmt.setInt(1, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    weights.put(rs.getString("assessment_type"), rs.getDouble("weight"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return weights;
+    }
+
+    /**
+     * Gets the weights of every course that has any configured.
+     *
+     * @return The weights by course ID, then by assessment type, or null on a database error
+     */
+    public Map<Integer, Map<String, Double>> getAllWeights() {
+        Map<Integer, Map<String, Double>> weights = new HashMap<>();
+        String sql = "SELECT course_id, assessment_type, weight FROM assessment_weights " +
+                     "ORDER BY course_id, assessment_type";
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                weights.computeIfAbsent(rs.getInt("course_id"), id -> new LinkedHashMap<>())
+                        .put(rs.getString("assessment_type"), rs.getDouble("weight"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return weights;
+    }
+
+    /**
+     * Replaces a course's weights in one transaction. An empty map removes them, so
+     * the course falls back to the default weighting.
+     *
+     * @param courseId The course
+     * @param weights The weights by assessment type
+     * @return true if saved
+     */
+    public boolean saveWeights(int courseId, Map<String, Double> weights) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(DELETE_BY_COURSE_SQL);
+                 PreparedStatement insert = conn.prepareStatement(
+                         "INSERT INTO assessment_weights (course_id, assessment_type, weight) VALUES (?, ?, ?)")) {
+                delete.setInt(1, courseId);
+                delete.executeUpdate();
+                for (Map.Entry<String, Double> entry : weights.entrySet()) {
+                    insert.setInt(1, courseId);
+                    insert.setString(2, entry.getKey());
+                    insert.setDouble(3, entry.getValue());
+                    insert.addBatch();
+                }
+                if (!weights.isEmpty()) {
+                    insert.executeBatch();
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
@@ -11,14 +11,48 @@ import com.cuea.spm.Models.Attendance;
 import com.cuea.spm.Models.DatabaseConnection;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AttendanceDAO {
 
+    // Rows sent to the driver per executeBatch call
+    private static final int BATCH_SIZE = 500;
+
+    static final String INSERT_SQL =
+            "INSERT INTO attendance (student_id, course_id, date, status) VALUES (?, ?, ?, ?)";
+    // Relies on the unique key (student_id, course_id, date). LAST_INSERT_ID(expr) makes
+    // MySQL report the existing row's ID as the generated key when it is updated
+    static final String UPSERT_SQL = INSERT_SQL
+            + " ON DUPLICATE KEY UPDATE attendance_id = LAST_INSERT_ID(attendance_id), status = VALUES(status)";
+    static final String SELECT_PAGE_SQL =
+            "SELECT * FROM attendance WHERE attendance_id > ? ORDER BY attendance_id LIMIT ?";
+
+    private static final ChangeNotifier<Attendance> NOTIFIER = new ChangeNotifier<>();
+
+    /**
+     * Registers a listener notified after every successful attendance write. Upserts
+     * are reported as updates, with ID 0 when the driver did not report the row's ID.
+     *
+     * @param listener The listener to add
+     */
+    public static void addChangeListener(EntityChangeListener<Attendance> listener) {
+        NOTIFIER.addListener(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addChangeListener(EntityChangeListener)}.
+     *
+     * @param listener The listener to remove
+     */
+    public static void removeChangeListener(EntityChangeListener<Attendance> listener) {
+        NOTIFIER.removeListener(listener);
+    }
+
     public boolean addAttendance(Attendance attendance) {
-        String sql = "INSERT INTO attendance (student_id, course_id, date, status) VALUES (?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, attendance.getStudentId());
             stmt.setInt(2, attendance.getCourseId());
             stmt.setDate(3, new java.sql.Date(attendance.getDate().getTime()));
@@ -30,6 +64,7 @@ public class AttendanceDAO {
                         attendance.setAttendanceId(rs.getInt(1));
                     }
                 }
+                NOTIFIER.fire(EntityChangeListener.ChangeType.INSERT, attendance.getAttendanceId(), attendance);
                 return true;
             }
             return false;
@@ -39,27 +74,176 @@ public class AttendanceDAO {
         }
     }
 
+    /**
+     * Records a student's attendance for a course and date, replacing the status if that
+     * student, course and date is already marked. One round trip either way, and
+     * re-marking a session never adds rows.
+     * The attendance ID is set when the driver reports it: always for a new row, and
+     * for an existing row on MySQL through {@code LAST_INSERT_ID(expr)}.
+     *
+     * @param attendance The attendance to record
+     * @return true if the row was written or already held this status
+     */
+    public boolean upsertAttendance(Attendance attendance) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, attendance.getStudentId());
+            stmt.setInt(2, attendance.getCourseId());
+            stmt.setDate(3, new java.sql.Date(attendance.getDate().getTime()));
+            stmt.setString(4, attendance.getStatus());
+            // 1 = inserted, 2 = updated, 0 = unchanged (MySQL affected-rows semantics)
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    attendance.setAttendanceId(rs.getInt(1));
+                }
+            }
+            NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, attendance.getAttendanceId(), attendance);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Inserts a list of attendance rows with JDBC batching in a single transaction.
+     * On success each row's attendance ID is set from the generated keys. If any row
+     * is rejected the whole batch is rolled back and the failures are reported by row index.
+     *
+     * @param attendances The attendance rows to insert
+     * @return The batch outcome
+     */
+    public BatchResult addAttendanceBatch(List<Attendance> attendances) {
+        return writeBatch(attendances, INSERT_SQL, true);
+    }
+
+    /**
+     * Upserts a list of attendance rows with JDBC batching in a single transaction, so
+     * saving a whole session again updates its rows in place. Attendance IDs are not
+     * set, since drivers do not report keys for rows that were updated. If any row is
+     * rejected the whole batch is rolled back and the failures are reported by row index.
+     *
+     * @param attendances The attendance rows to record
+     * @return The batch outcome; no generated keys are reported
+     */
+    public BatchResult upsertAttendanceBatch(List<Attendance> attendances) {
+        return writeBatch(attendances, UPSERT_SQL, false);
+    }
+
+    private BatchResult writeBatch(List<Attendance> attendances, String sql, boolean collectKeys) {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < attendances.size(); i++) {
+            Attendance a = attendances.get(i);
+            if (a.getDate() == null || a.getStatus() == null) {
+                failures.put(i, "Attendance date and status are required");
+            }
+        }
+        if (attendances.isEmpty() || !failures.isEmpty()) {
+            return new BatchResult(attendances.size(), 0, keys, failures);
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = collectKeys
+                    ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : conn.prepareStatement(sql)) {
+                for (int start = 0; start < attendances.size(); start += BATCH_SIZE) {
+                    int end = Math.min(start + BATCH_SIZE, attendances.size());
+                    for (int i = start; i < end; i++) {
+                        Attendance a = attendances.get(i);
+                        stmt.setInt(1, a.getStudentId());
+                        stmt.setInt(2, a.getCourseId());
+                        stmt.setDate(3, new java.sql.Date(a.getDate().getTime()));
+                        stmt.setString(4, a.getStatus());
+                        stmt.addBatch();
+                    }
+                    try {
+                        stmt.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        BatchResult.collectFailures(e, start, end, failures);
+                        conn.rollback();
+                        return new BatchResult(attendances.size(), 0, new ArrayList<>(), failures);
+                    }
+                    if (collectKeys) {
+                        try (ResultSet rs = stmt.getGeneratedKeys()) {
+                            for (int i = start; i < end && rs.next(); i++) {
+                                keys.add(rs.getInt(1));
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            failures.put(BatchResult.BATCH_ERROR, e.getMessage());
+            return new BatchResult(attendances.size(), 0, new ArrayList<>(), failures);
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            attendances.get(i).setAttendanceId(keys.get(i));
+        }
+        EntityChangeListener.ChangeType type = collectKeys
+                ? EntityChangeListener.ChangeType.INSERT : EntityChangeListener.ChangeType.UPDATE;
+        for (Attendance a : attendances) {
+            NOTIFIER.fire(type, a.getAttendanceId(), a);
+        }
+        return new BatchResult(attendances.size(), attendances.size(), keys, failures);
+    }
+
     public List<Attendance> getAllAttendance() {
         List<Attendance> attendances = new ArrayList<>();
         String sql = "SELECT * FROM attendance";
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                attendances.add(new Attendance(
-                    rs.getInt("attendance_id"),
-                    rs.getInt("student_id"),
-                    rs.getInt("course_id"),
-                    rs.getDate("date"),
-                    rs.getString("status")
-                ));
-            }
+            RowMappers.ATTENDANCE.mapAll(rs, attendances);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return attendances;
     }
 
+    /**
+     * Gets one page of attendances in attendance_id order using keyset pagination.
+     *
+     * @param afterId Only rows with a greater attendance_id are returned; 0 for the first page
+     * @param limit The maximum number of rows to return
+     * @return The page, empty once the end of the table is reached
+     * @throws PageIterator.PageFetchException If the page cannot be read
+     */
+    public List<Attendance> getAttendancePage(int afterId, int limit) {
+        List<Attendance> attendances = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.ATTENDANCE.mapAll(rs, attendances);
+            }
+        } catch (SQLException e) {
+            throw new PageIterator.PageFetchException("Failed to read attendance after ID " + afterId, e);
+        }
+        return attendances;
+    }
+
+    /**
+     * Lazily iterates over every row, holding one page in memory at a time.
+     *
+     * @param pageSize Rows fetched per query
+     * @return An iterable that starts a fresh scan on each call to iterator()
+     */
+    public Iterable<Attendance> iterateAttendance(int pageSize) {
+        return () -> new PageIterator<>(this::getAttendancePage, Attendance::getAttendanceId, pageSize);
+    }
+
     public boolean updateAttendance(Attendance attendance) {
         String sql = "UPDATE attendance SET student_id = ?, course_id = ?, date = ?, status = ? WHERE attendance_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -69,7 +253,11 @@ public class AttendanceDAO {
             stmt.setDate(3, new java.sql.Date(attendance.getDate().getTime()));
             stmt.setString(4, attendance.getStatus());
             stmt.setInt(5, attendance.getAttendanceId());
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, attendance.getAttendanceId(), attendance);
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -81,7 +269,11 @@ public class AttendanceDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, attendanceId);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                NOTIFIER.fire(EntityChangeListener.ChangeType.DELETE, attendanceId, null);
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -0,0 +1,168 @@
+package com.cuea.spm.Dao;
+
+import com.cuea.spm.Models.AttendanceSummary;
+import com.cuea.spm.Models.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Reads and maintains the {@code attendance_summary} table, which holds per student
+ * and course counts of each attendance status so statistics are a single-row read
+ * instead of a {@code GROUP BY} over {@code attendance_records}.
+ *
+ * <p>Writers to {@code attendance_records} call {@link #applyChange} on the same
+ * connection and transaction as their own statement. {@link #rebuild()} recomputes
+ * the table from scratch to repair any drift.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class AttendanceSummaryDAO {
+
+    // Adds the deltas to the row, creating it on the first record for the pair
+    static final String APPLY_SQL =
+            "INSERT INTO attendance_summary (student_id, course_id, present_count, absent_count, late_count, excused_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "present_count = present_count + VALUES(present_count), "
+            + "absent_count = absent_count + VALUES(absent_count), "
+            + "late_count = late_count + VALUES(late_count), "
+            + "excused_count = excused_count + VALUES(excused_count)";
+    static final String SELECT_SQL =
+            "SELECT * FROM attendance_summary WHERE student_id = ? AND course_id = ?";
+    static final String SELECT_COURSE_SQL =
+            "SELECT SUM(present_count), SUM(absent_count), SUM(late_count), SUM(excused_count), "
+            + "SUM(CASE WHEN present_count + absent_count + late_count + excused_count > 0 THEN 1 ELSE 0 END) "
+            + "FROM attendance_summary WHERE course_id = ?";
+    private static final String CLEAR_SQL = "DELETE FROM attendance_summary";
+    private static final String REBUILD_SQL =
+            "INSERT INTO attendance_summary (student_id, course_id, present_count, absent_count, late_count, excused_count) "
+            + "SELECT student_id, course_id, "
+            + "SUM(CASE WHEN status = 'PRESENT' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN status = 'ABSENT' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN status = 'LATE' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN status = 'EXCUSED' THEN 1 ELSE 0 END) "
+            + "FROM attendance_records GROUP BY student_id, course_id";
+
+    /**
+     * Moves one record's count from its old status to its new one. Call it in the
+     * transaction that writes the record so the counters commit or roll back with it.
+     *
+     * @param conn The caller's connection
+     * @param studentId The record's student
+     * @param courseId The record's course
+     * @param oldStatus The status before the write, or null for a new record
+     * @param newStatus The status after the write, or null for a deleted record
+     * @throws SQLException If the counters cannot be written
+     */
+    public static void applyChange(Connection conn, int studentId, int courseId,
+                                   String oldStatus, String newStatus) throws SQLException {
+        if (oldStatus != null && oldStatus.equals(newStatus)) {
+            return;
+        }
+        int[] deltas = new int[4];
+        addDelta(deltas, oldStatus, -1);
+        addDelta(deltas, newStatus, 1);
+        try (PreparedStatement stmt = conn.prepareStatement(APPLY_SQL)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+            for (int i = 0; i < deltas.length; i++) {
+                stmt.setInt(3 + i, deltas[i]);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void addDelta(int[] deltas, String status, int delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case "PRESENT": deltas[0] += delta; break;
+            case "ABSENT": deltas[1] += delta; break;
+            case "LATE": deltas[2] += delta; break;
+            case "EXCUSED": deltas[3] += delta; break;
+            default: break;
+        }
+    }
+
+    /**
+     * @param studentId The student
+     * @param courseId The course
+     * @return The student's counts in the course, all zero if nothing is recorded,
+     *         or null on error
+     */
+    public AttendanceSummary getSummary(int studentId, int courseId) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    int present = rs.getInt("present_count");
+                    int absent = rs.getInt("absent_count");
+                    int late = rs.getInt("late_count");
+                    int excused = rs.getInt("excused_count");
+                    int students = present + absent + late + excused > 0 ? 1 : 0;
+                    return new AttendanceSummary(studentId, courseId, present, absent, late, excused, students);
+                }
+            }
+            return AttendanceSummary.empty(studentId, courseId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Sums the counters of every student in a course. This reads one summary row per
+     * student rather than every attendance record.
+     *
+     * @param courseId The course
+     * @return The course-wide counts with a student ID of 0, or null on error
+     */
+    public AttendanceSummary getCourseSummary(int courseId) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_COURSE_SQL)) {
+            stmt.setInt(1, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    // SUM over no rows is NULL, which getInt reads as 0
+                    return new AttendanceSummary(0, courseId, rs.getInt(1), rs.getInt(2),
+                            rs.getInt(3), rs.getInt(4), rs.getInt(5));
+                }
+            }
+            return AttendanceSummary.empty(0, courseId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Recomputes every counter from {@code attendance_records} in one transaction.
+     * Readers keep seeing the old counters until it commits.
+     *
+     * @return The number of summary rows written, or -1 on error
+     */
+    public int rebuild() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(CLEAR_SQL);
+                int rows = stmt.executeUpdate(REBUILD_SQL);
+                conn.commit();
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.cuea.spm.Dao;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a batched write. Batches are applied in a single transaction, so either
+ * every row was written (and {@link #getGeneratedKeys()} holds one key per row, in input
+ * order) or nothing was written and {@link #getFailures()} says which rows were rejected.
+ * Errors not tied to a particular row are keyed by {@link #BATCH_ERROR}.
+ *
+ * @author StudentManagementSystem
+ */
+public class BatchResult {
+
+    /** Failure key for errors that are not tied to a particular row. */
+    public static final int BATCH_ERROR = -1;
+
+    private final int attempted;
+    private final int written;
+    private final List<Integer> generatedKeys;
+    private final Map<Integer, String> failures;
+
+    /**
+     * Creates a batch result.
+     *
+     * @param attempted The number of rows submitted
+     * @param written The number of rows written
+     * @param generatedKeys The generated keys of the written rows, in input order
+     * @param failures Failure messages keyed by the zero-based index of the rejected row
+     */
+    public BatchResult(int attempted, int written, List<Integer> generatedKeys, Map<Integer, String> failures) {
+        this.attempted = attempted;
+        this.written = written;
+        this.generatedKeys = Collections.unmodifiableList(generatedKeys);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return true if every submitted row was written
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty() && written == attempted;
+    }
+
+    /**
+     * @return The number of rows submitted
+     */
+    public int getAttempted() {
+        return attempted;
+    }
+
+    /**
+     * @return The number of rows written
+     */
+    public int getWritten() {
+        return written;
+    }
+
+    /**
+     * @return The generated keys of the written rows, in input order
+     */
+    public List<Integer> getGeneratedKeys() {
+        return generatedKeys;
+    }
+
+    /**
+     * @return Failure messages keyed by the zero-based index of the rejected row
+     */
+    public Map<Integer, String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Maps the update counts of a failed batch back to row indexes. Drivers that stop at
+     * the first error return fewer counts than rows; the row after the last count failed.
+     *
+     * @param e The exception thrown by executeBatch
+     * @param start The index of the first row in the failed batch
+     * @param end One past the index of the last row in the failed batch
+     * @param failures The map failures are added to
+     */
+    public static void collectFailures(BatchUpdateException e, int start, int end, Map<Integer, String> failures) {
+        int[] counts = e.getUpdateCounts();
+        boolean found = false;
+        for (int i = 0; i < counts.length && start + i < end; i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                failures.put(start + i, e.getMessage());
+                found = true;
+            }
+        }
+        if (!found) {
+            failures.put(Math.min(start + counts.length, end - 1), e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+               "attempted=" + attempted +
+               ", written=" + written +
+               ", failures=" + failures.size() +
+               '}';
+    }
+}
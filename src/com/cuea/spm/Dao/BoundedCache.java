@@ -0,0 +1,287 @@
+package com.cuea.spm.Dao;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe, size-bounded LRU cache with an optional time to live.
+ *
+ * <p>Entries are spread over independently locked segments, each an access-ordered
+ * {@link LinkedHashMap} evicting its least recently used entry when full, so readers
+ * on different keys rarely contend. Eviction is therefore LRU per segment rather than
+ * globally, which is close enough for an entity cache.</p>
+ *
+ * <p>Writers call {@link #invalidate(Object)} after changing the underlying row. A
+ * load that started before the invalidation is not cached when it finishes, so a
+ * reader racing a writer cannot put the old row back: loads take a
+ * {@link #writeStamp(Object)} first and store with
+ * {@link #putIfUnchanged(Object, Object, long)}.</p>
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author StudentManagementSystem
+ */
+public class BoundedCache<K, V> {
+
+    // Below this many entries a single segment keeps eviction exactly LRU
+    private static final int MIN_ENTRIES_FOR_SEGMENTS = 1024;
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Counters since the cache was created.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+        private final int size;
+        private final int maxEntries;
+
+        public Stats(long hits, long misses, long evictions, long expirations, long invalidations,
+                int size, int maxEntries) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+            this.size = size;
+            this.maxEntries = maxEntries;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+        public int getSize() { return size; }
+        public int getMaxEntries() { return maxEntries; }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups > 0 ? (double) hits / lookups : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{hits=%d, misses=%d, hitRate=%.3f, evictions=%d, expirations=%d, "
+                    + "invalidations=%d, size=%d/%d}", hits, misses, getHitRate(), evictions, expirations,
+                    invalidations, size, maxEntries);
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+        final LinkedHashMap<K, Entry<V>> entries;
+        // Bumped by every invalidation; a load stamped with an older value is stale
+        long writes;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true);
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxEntries The most entries held at once; at least 1
+     * @param ttl How long an entry may be served after it was loaded; 0 or less never expires
+     * @param unit The unit of {@code ttl}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BoundedCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+        int count = maxEntries >= MIN_ENTRIES_FOR_SEGMENTS ? SEGMENTS : 1;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the capacities add up to maxEntries
+            segments[i] = new Segment<>(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Gets a cached value, loading and caching it on a miss.
+     *
+     * @param key The key
+     * @param loader Loads the value; returning null caches nothing
+     * @return The value, or null if the loader found none
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long stamp = writeStamp(key);
+        value = loader.apply(key);
+        if (value != null) {
+            putIfUnchanged(key, value, stamp);
+        }
+        return value;
+    }
+
+    /**
+     * @param key The key
+     * @return The cached value, or null if it is absent or expired; counts a hit or miss
+     */
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.expiresAt > 0) {
+                segment.entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a stamp before loading a value from the database.
+     *
+     * @param key The key about to be loaded
+     * @return A stamp for {@link #putIfUnchanged(Object, Object, long)}
+     */
+    public long writeStamp(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.writes;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Caches a loaded value unless an invalidation happened since the stamp was taken.
+     *
+     * @param key The key
+     * @param value The value loaded after {@link #writeStamp(Object)}
+     * @param stamp The stamp taken before loading
+     * @return true if the value was cached
+     */
+    public boolean putIfUnchanged(K key, V value, long stamp) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            if (segment.writes != stamp) {
+                return false;
+            }
+            long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+            segment.entries.put(key, new Entry<>(value, expiresAt));
+            if (segment.entries.size() > segment.capacity) {
+                Iterator<Map.Entry<K, Entry<V>>> eldest = segment.entries.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+            return true;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a key after its underlying data changed.
+     *
+     * @param key The key
+     */
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.entries.remove(key);
+            segment.writes++;
+            invalidations.increment();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.clear();
+                segment.writes++;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * @return The number of entries, including any expired ones not yet removed
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return A snapshot of the counters
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(),
+                size(), maxEntries);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        if (segments.length == 1) {
+            return segments[0];
+        }
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+}
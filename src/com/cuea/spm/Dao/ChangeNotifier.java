@@ -0,0 +1,39 @@
+package com.cuea.spm.Dao;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread-safe list of {@link EntityChangeListener}s for one writer (a DAO, or a
+ * controller that writes its own SQL). A listener that throws is logged and does not
+ * stop the others or fail the write.
+ *
+ * @param <T> The entity type
+ * @author StudentManagementSystem
+ */
+public class ChangeNotifier<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(ChangeNotifier.class.getName());
+
+    private final List<EntityChangeListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(EntityChangeListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(EntityChangeListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    public void fire(EntityChangeListener.ChangeType type, int id, T entity) {
+        for (EntityChangeListener<T> listener : listeners) {
+            try {
+                listener.entityChanged(type, id, entity);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Change listener failed for " + type + " of ID " + id, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.cuea.spm.Dao;
+
+import com.cuea.spm.Models.Course;
+import com.cuea.spm.Models.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide read-through cache of courses by ID and by code.
+ *
+ * <p>Courses change a few times a term, so the whole table is loaded on first use
+ * and then served from memory. A lookup that misses, e.g. a course another client
+ * has just added, falls through to the database and caches what it finds. Writes
+ * made through {@code CourseController} update the cache via its change listener;
+ * {@link #invalidateAll()} drops everything so the next read reloads.</p>
+ *
+ * <p>Callers get copies, so editing a returned course does not change the cache.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class CourseCache {
+
+    private static final Logger LOGGER = Logger.getLogger(CourseCache.class.getName());
+
+    private static final String SELECT_ALL_SQL = "SELECT * FROM courses";
+    static final String SELECT_BY_ID_SQL = "SELECT * FROM courses WHERE course_id = ?";
+    static final String SELECT_BY_CODE_SQL = "SELECT * FROM courses WHERE course_code = ?";
+
+    // Same order as CourseController's listing: semester, then code
+    private static final Comparator<Course> LISTING_ORDER = Comparator.comparingInt(Course::getSemester)
+            .thenComparing(Course::getCode, String.CASE_INSENSITIVE_ORDER);
+
+    private static final CourseCache INSTANCE = new CourseCache();
+
+    static {
+        // Another client wrote courses; reload them on the next read
+        TableVersions.getInstance().addListener(TableVersions.COURSES, INSTANCE::invalidateAll);
+    }
+
+    /**
+     * Hit and load counters since the cache was created.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long invalidations;
+        private final int size;
+
+        public Stats(long hits, long misses, long loads, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getLoads() { return loads; }
+        public long getInvalidations() { return invalidations; }
+        public int getSize() { return size; }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups > 0 ? (double) hits / lookups : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{hits=%d, misses=%d, hitRate=%.3f, loads=%d, invalidations=%d, size=%d}",
+                    hits, misses, getHitRate(), loads, invalidations, size);
+        }
+    }
+
+    private final Map<Integer, Course> byId = new ConcurrentHashMap<>();
+    private final Map<String, Course> byCode = new ConcurrentHashMap<>();
+    // Every course is present; set by a full load and cleared by invalidateAll
+    private volatile boolean complete;
+    // The listing, rebuilt on the first getAll after a change
+    private volatile List<Course> sorted;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final EntityChangeListener<Course> changeListener = (type, id, course) -> {
+        if (type == EntityChangeListener.ChangeType.DELETE || course == null) {
+            remove(id);
+        } else {
+            put(course);
+        }
+    };
+
+    private CourseCache() {
+    }
+
+    /**
+     * @return The shared cache
+     */
+    public static CourseCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return A listener that applies course inserts, updates and deletes to this cache
+     */
+    public EntityChangeListener<Course> getChangeListener() {
+        return changeListener;
+    }
+
+    /**
+     * @param courseId The course ID
+     * @return A copy of the course, or null if there is none or it cannot be loaded
+     */
+    public Course getById(int courseId) {
+        ensureLoaded();
+        Course course = byId.get(courseId);
+        if (course != null) {
+            hits.incrementAndGet();
+            return copy(course);
+        }
+        misses.incrementAndGet();
+        return copy(loadOne(SELECT_BY_ID_SQL, courseId));
+    }
+
+    /**
+     * Looks a course up without falling through to the database on a miss.
+     *
+     * @param courseId The course ID
+     * @return A copy of the course, or null if it is not cached
+     */
+    Course getIfPresent(int courseId) {
+        ensureLoaded();
+        Course course = byId.get(courseId);
+        if (course != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return copy(course);
+    }
+
+    /**
+     * @param courseCode The course code, compared case-insensitively like the database does
+     * @return A copy of the course, or null if there is none or it cannot be loaded
+     */
+    public Course getByCode(String courseCode) {
+        if (courseCode == null) {
+            return null;
+        }
+        ensureLoaded();
+        Course course = byCode.get(codeKey(courseCode));
+        if (course != null) {
+            hits.incrementAndGet();
+            return copy(course);
+        }
+        misses.incrementAndGet();
+        return copy(loadOne(SELECT_BY_CODE_SQL, courseCode));
+    }
+
+    /**
+     * @return Copies of every course, by semester and then code; empty if the courses
+     *         cannot be loaded
+     */
+    public List<Course> getAll() {
+        if (!ensureLoaded()) {
+            misses.incrementAndGet();
+            return new ArrayList<>();
+        }
+        hits.incrementAndGet();
+        List<Course> listing = sorted;
+        if (listing == null) {
+            // Under the lock so a concurrent write cannot be missed by the listing it clears
+            synchronized (this) {
+                listing = sorted;
+                if (listing == null) {
+                    listing = new ArrayList<>(byId.values());
+                    listing.sort(LISTING_ORDER);
+                    listing = Collections.unmodifiableList(listing);
+                    sorted = listing;
+                }
+            }
+        }
+        List<Course> copies = new ArrayList<>(listing.size());
+        for (Course course : listing) {
+            copies.add(copy(course));
+        }
+        return copies;
+    }
+
+    /**
+     * Adds or replaces a course, e.g. after it was written to the database.
+     *
+     * @param course The course; a copy is stored
+     */
+    public synchronized void put(Course course) {
+        Course stored = copy(course);
+        Course previous = byId.put(stored.getId(), stored);
+        if (previous != null) {
+            byCode.remove(codeKey(previous.getCode()), previous);
+        }
+        byCode.put(codeKey(stored.getCode()), stored);
+        sorted = null;
+    }
+
+    /**
+     * Removes a course, e.g. after it was deleted from the database.
+     *
+     * @param courseId The course ID
+     */
+    public synchronized void remove(int courseId) {
+        Course previous = byId.remove(courseId);
+        if (previous != null) {
+            byCode.remove(codeKey(previous.getCode()), previous);
+        }
+        sorted = null;
+    }
+
+    /**
+     * Drops every cached course; the next read reloads the table.
+     */
+    public synchronized void invalidateAll() {
+        complete = false;
+        byId.clear();
+        byCode.clear();
+        sorted = null;
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * @return A snapshot of the cache counters
+     */
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), loads.get(), invalidations.get(), byId.size());
+    }
+
+    /**
+     * Loads the whole table if it is not already cached. Writers wait for the load,
+     * so a course written meanwhile is not overwritten by the load's older copy.
+     *
+     * @return true if every course is cached
+     */
+    private boolean ensureLoaded() {
+        if (complete) {
+            return true;
+        }
+        synchronized (this) {
+            if (complete) {
+                return true;
+            }
+            long start = System.currentTimeMillis();
+            List<Course> courses = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+                RowMappers.COURSE.mapAll(rs, courses);
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Failed to load course cache", e);
+                return false;
+            }
+            byId.clear();
+            byCode.clear();
+            for (Course course : courses) {
+                byId.put(course.getId(), course);
+                byCode.put(codeKey(course.getCode()), course);
+            }
+            sorted = null;
+            complete = true;
+            loads.incrementAndGet();
+            LOGGER.log(Level.INFO, "Loaded {0} courses into the cache in {1} ms",
+                    new Object[]{courses.size(), System.currentTimeMillis() - start});
+            return true;
+        }
+    }
+
+    private Course loadOne(String sql, Object key) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setObject(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Course course = RowMappers.COURSE.mapRow(rs);
+                    put(course);
+                    return course;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to load course " + key, e);
+        }
+        return null;
+    }
+
+    private static String codeKey(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static Course copy(Course course) {
+        return course == null ? null : new Course(course.getId(), course.getCode(), course.getName(),
+                course.getCredits(), course.getSemester());
+    }
+}
@@ -4,10 +4,19 @@ import com.cuea.spm.Models.Course;
 import com.cuea.spm.Models.DatabaseConnection;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class CourseDAO {
 
+    // IN lists are widened to the chunk size with InClause.expand
+    static final String SELECT_BY_IDS_SQL = "SELECT * FROM courses WHERE course_id IN (?)";
+    static final String SELECT_IDS_BY_CODES_SQL = "SELECT course_id, course_code FROM courses WHERE course_code IN (?)";
+
     public boolean addCourse(Course course) {
         String sql = "INSERT INTO courses (course_code, course_name, credits, semester) VALUES (?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -21,8 +30,10 @@ public class CourseDAO {
                 try (ResultSet rs = stmt.getGeneratedKeys()) {
                     if (rs.next()) {
                         course.setId(rs.getInt(1));  // FIXED
+                        CourseCache.getInstance().put(course);
                     }
                 }
+                TableVersions.bump(conn, TableVersions.COURSES);
                 return true;
             }
             return false;
@@ -32,46 +43,119 @@ public class CourseDAO {
         }
     }
 
+    /**
+     * Gets a course from the shared {@link CourseCache}, which reads the database
+     * only on first use and on a miss.
+     *
+     * @param courseId The course ID
+     * @return The course, or null if there is none
+     */
     public Course getCourseById(int courseId) {
-        String sql = "SELECT * FROM courses WHERE course_id = ?";
+        return CourseCache.getInstance().getById(courseId);
+    }
+
+    /**
+     * Gets every course from the shared {@link CourseCache}.
+     *
+     * @return The courses by semester and then code
+     */
+    public List<Course> getAllCourses() {
+        return CourseCache.getInstance().getAll();
+    }
+
+    /**
+     * Counts courses without loading them.
+     *
+     * @return The number of courses, or 0 on error
+     */
+    public int getCourseCount() {
+        String sql = "SELECT COUNT(*) FROM courses";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, courseId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return new Course(
-                        rs.getInt("course_id"),
-                        rs.getString("course_code"),
-                        rs.getString("course_name"),
-                        rs.getInt("credits"),
-                        rs.getInt("semester")
-                    );
-                }
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return rs.getInt(1);
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return null;
+        return 0;
     }
 
-    public List<Course> getAllCourses() {
-        List<Course> courses = new ArrayList<>();
-        String sql = "SELECT * FROM courses";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                courses.add(new Course(
-                    rs.getInt("course_id"),
-                    rs.getString("course_code"),
-                    rs.getString("course_name"),
-                    rs.getInt("credits"),
-                    rs.getInt("semester")
-                ));
+    /**
+     * Loads many courses by ID, from the {@link CourseCache} where possible and the rest
+     * in a few {@code IN (...)} queries over one connection, instead of one query per
+     * ID. IDs that match no course are absent from the result.
+     *
+     * @param courseIds The IDs to load; duplicates are fetched once
+     * @return The courses keyed by course ID
+     */
+    public Map<Integer, Course> getCoursesByIds(Collection<Integer> courseIds) {
+        Map<Integer, Course> courses = new HashMap<>();
+        // Cached courses first; only the rest are queried
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer courseId : courseIds) {
+            if (courses.containsKey(courseId) || missing.contains(courseId)) {
+                continue;
+            }
+            Course course = CourseCache.getInstance().getIfPresent(courseId);
+            if (course != null) {
+                courses.put(courseId, course);
+            } else {
+                missing.add(courseId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return courses;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<Integer> chunk : InClause.chunks(missing)) {
+                int size = InClause.paddedSize(chunk.size());
+                String sql = InClause.expand(SELECT_BY_IDS_SQL, size);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    InClause.bindInts(stmt, chunk, size);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        RowMapper.Bound<Course> mapper = RowMappers.COURSE.bind(rs);
+                        while (rs.next()) {
+                            Course course = mapper.map();
+                            courses.put(course.getId(), course);
+                            CourseCache.getInstance().put(course);
+                        }
+                    }
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return courses;
     }
+
+    /**
+     * Resolves course codes to course IDs in bulk, a chunk of codes per query.
+     * Codes that match no course are absent from the result.
+     *
+     * @param courseCodes The course codes to resolve
+     * @return Course IDs keyed by course code, or null on a database error
+     */
+    public Map<String, Integer> getCourseIdsByCodes(Collection<String> courseCodes) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (List<String> chunk : InClause.chunks(courseCodes)) {
+            String sql = InClause.expand(SELECT_IDS_BY_CODES_SQL, chunk.size());
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString("course_code"), rs.getInt("course_id"));
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        return ids;
+    }
 }
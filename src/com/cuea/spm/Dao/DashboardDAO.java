@@ -0,0 +1,78 @@
+package com.cuea.spm.Dao;
+
+import com.cuea.spm.Models.DashboardStats;
+import com.cuea.spm.Models.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Loads the dashboard summary figures.
+ *
+ * @author StudentManagementSystem
+ */
+public class DashboardDAO {
+
+    // Every figure is a scalar subquery so the dashboard costs one round trip. The
+    // counts are answered from indexes (idx_enrollments_status,
+    // idx_attendance_date_status) rather than by loading rows into the application.
+    static final String ENROLLED_COUNT_SQL = "SELECT COUNT(*) FROM enrollments WHERE status = 'ENROLLED'";
+    static final String COMPLETED_COUNT_SQL = "SELECT COUNT(*) FROM enrollments WHERE status = 'COMPLETED'";
+    static final String SESSIONS_SQL = "SELECT COUNT(*) FROM attendance WHERE date >= ? AND date < ?";
+    static final String PRESENT_SQL = SESSIONS_SQL + " AND status = 'PRESENT'";
+    private static final String STATS_SQL = "SELECT "
+            + "(SELECT COUNT(*) FROM students) AS total_students, "
+            + "(SELECT COUNT(*) FROM courses) AS total_courses, "
+            + "(" + ENROLLED_COUNT_SQL + ") AS active_enrollments, "
+            + "(" + COMPLETED_COUNT_SQL + ") AS completed_enrollments, "
+            + "(SELECT AVG(marks) FROM grades) AS average_grade, "
+            + "(" + SESSIONS_SQL + ") AS sessions, "
+            + "(" + PRESENT_SQL + ") AS present, "
+            + "(" + SESSIONS_SQL + ") AS previous_sessions, "
+            + "(" + PRESENT_SQL + ") AS previous_present";
+
+    /**
+     * Loads the dashboard figures, with attendance counted for the month containing
+     * {@code today} and for the month before it.
+     *
+     * @param today The date whose month is treated as the current month
+     * @return The figures, or null if the query fails
+     */
+    public DashboardStats getDashboardStats(LocalDate today) {
+        Date monthStart = Date.valueOf(today.withDayOfMonth(1));
+        Date nextMonthStart = Date.valueOf(today.withDayOfMonth(1).plusMonths(1));
+        Date previousMonthStart = Date.valueOf(today.withDayOfMonth(1).minusMonths(1));
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(STATS_SQL)) {
+            stmt.setDate(1, monthStart);
+            stmt.setDate(2, nextMonthStart);
+            stmt.setDate(3, monthStart);
+            stmt.setDate(4, nextMonthStart);
+            stmt.setDate(5, previousMonthStart);
+            stmt.setDate(6, monthStart);
+            stmt.setDate(7, previousMonthStart);
+            stmt.setDate(8, monthStart);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new DashboardStats(
+                            rs.getInt("total_students"),
+                            rs.getInt("total_courses"),
+                            rs.getInt("active_enrollments"),
+                            rs.getInt("completed_enrollments"),
+                            rs.getDouble("average_grade"),
+                            rs.getInt("sessions"),
+                            rs.getInt("present"),
+                            rs.getInt("previous_sessions"),
+                            rs.getInt("previous_present"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
@@ -30,31 +30,89 @@ public class EnrollmentDAO {
     private static final String SQL_INSERT_ENROLLMENT = 
             "INSERT INTO enrollments (student_id, course_id, enrollment_date, status) VALUES (?, ?, ?, ?)";
     private static final String SQL_UPDATE_ENROLLMENT = 
-            "UPDATE enrollments SET student_id = ?, course_id = ?, enrollment_date = ?, status = ? WHERE id = ?";
+            "UPDATE enrollments SET student_id = ?, course_id = ?, enrollment_date = ?, status = ? WHERE enrollment_id = ?";
     private static final String SQL_DELETE_ENROLLMENT = 
-            "DELETE FROM enrollments WHERE id = ?";
-    private static final String SQL_GET_ENROLLMENT_BY_ID = 
-            "SELECT * FROM enrollments WHERE id = ?";
+            "DELETE FROM enrollments WHERE enrollment_id = ?";
+    static final String SQL_GET_ENROLLMENT_BY_ID = 
+            "SELECT * FROM enrollments WHERE enrollment_id = ?";
     private static final String SQL_GET_ALL_ENROLLMENTS = 
             "SELECT * FROM enrollments";
-    private static final String SQL_GET_ENROLLMENTS_BY_STUDENT = 
+    static final String SQL_GET_ENROLLMENTS_PAGE = 
+            "SELECT * FROM enrollments WHERE enrollment_id > ? ORDER BY enrollment_id LIMIT ?";
+    static final String SQL_GET_ENROLLMENTS_BY_STUDENT = 
             "SELECT * FROM enrollments WHERE student_id = ?";
-    private static final String SQL_GET_ENROLLMENTS_BY_COURSE = 
+    static final String SQL_GET_ENROLLMENTS_BY_COURSE = 
             "SELECT * FROM enrollments WHERE course_id = ?";
-    private static final String SQL_GET_ENROLLMENTS_BY_STATUS = 
+    static final String SQL_GET_ENROLLMENTS_BY_STATUS = 
             "SELECT * FROM enrollments WHERE status = ?";
-    private static final String SQL_GET_ENROLLMENTS_BY_DATE_RANGE = 
+    static final String SQL_GET_ENROLLMENTS_BY_DATE_RANGE = 
             "SELECT * FROM enrollments WHERE enrollment_date BETWEEN ? AND ?";
-    private static final String SQL_GET_ACTIVE_ENROLLMENTS = 
-            "SELECT * FROM enrollments WHERE status IN ('ACTIVE', 'PENDING')";
+    static final String SQL_GET_ACTIVE_ENROLLMENTS = 
+            "SELECT * FROM enrollments WHERE status IN ('ENROLLED', 'PENDING')";
     private static final String SQL_UPDATE_ENROLLMENT_STATUS = 
-            "UPDATE enrollments SET status = ? WHERE id = ?";
-    private static final String SQL_CHECK_ENROLLMENT_EXISTS = 
+            "UPDATE enrollments SET status = ? WHERE enrollment_id = ?";
+    static final String SQL_CHECK_ENROLLMENT_EXISTS = 
             "SELECT COUNT(*) FROM enrollments WHERE student_id = ? AND course_id = ?";
-    private static final String SQL_GET_STUDENT_ENROLLMENT_COUNT = 
-            "SELECT COUNT(*) FROM enrollments WHERE student_id = ? AND status = 'ACTIVE'";
-    private static final String SQL_GET_COURSE_ENROLLMENT_COUNT = 
+    static final String SQL_GET_STUDENT_ENROLLMENT_COUNT = 
+            "SELECT COUNT(*) FROM enrollments WHERE student_id = ? AND status = 'ENROLLED'";
+    static final String SQL_GET_COURSE_ENROLLMENT_COUNT = 
             "SELECT COUNT(*) FROM enrollments WHERE course_id = ?";
+    static final String SQL_GET_ACTIVE_ENROLLMENT_COUNT = 
+            "SELECT COUNT(*) FROM enrollments WHERE status = 'ENROLLED'";
+    
+    // Bulk transitions. Only ENROLLED rows move, which is the transition rule for
+    // COMPLETED and FAILED; the scope condition is appended from TransitionScope
+    static final String SQL_TRANSITION_ENROLLED = 
+            "UPDATE enrollments SET status = ? WHERE status = 'ENROLLED' AND ";
+    // Graded on the weighted final mark, which is NULL when the student is ungraded
+    static final String SQL_CLOSE_PASSED = 
+            "UPDATE enrollments SET status = 'COMPLETED' WHERE status = 'ENROLLED' AND " +
+            "final_mark >= ? AND ";
+    static final String SQL_CLOSE_FAILED = 
+            "UPDATE enrollments SET status = 'FAILED' WHERE status = 'ENROLLED' AND " +
+            "final_mark < ? AND ";
+    static final String SQL_COUNT_ENROLLED = 
+            "SELECT COUNT(*) FROM enrollments WHERE status = 'ENROLLED' AND ";
+    
+    /**
+     * Selects the enrollments a bulk status transition applies to.
+     */
+    public enum TransitionScope {
+        /** Enrollments in one course, by course ID. */
+        COURSE("course_id = ?"),
+        /** Enrollments in every course taught in one semester, by semester number. */
+        SEMESTER("course_id IN (SELECT course_id FROM courses WHERE semester = ?)");
+        
+        final String condition;
+        
+        TransitionScope(String condition) {
+            this.condition = condition;
+        }
+    }
+    
+    /**
+     * Row counts from closing a course or semester.
+     */
+    public static class CloseSummary {
+        private final int completed;
+        private final int failed;
+        private final int ungraded;
+        
+        public CloseSummary(int completed, int failed, int ungraded) {
+            this.completed = completed;
+            this.failed = failed;
+            this.ungraded = ungraded;
+        }
+        
+        /** @return Enrollments moved to COMPLETED */
+        public int getCompleted() { return completed; }
+        /** @return Enrollments moved to FAILED */
+        public int getFailed() { return failed; }
+        /** @return Enrollments left ENROLLED because the student has no grades for the course */
+        public int getUngraded() { return ungraded; }
+    }
+    
+    private static final ChangeNotifier<Enrollment> NOTIFIER = new ChangeNotifier<>();
     
     private DatabaseConnection dbConnection;
     
@@ -74,6 +132,26 @@ public class EnrollmentDAO {
         this.dbConnection = dbConnection;
     }
     
+    /**
+     * Registers a listener notified after every successful enrollment write made
+     * through this DAO. Status-only updates pass no entity, and the bulk transitions
+     * are reported as one update with ID 0 and no entity.
+     * 
+     * @param listener The listener to add
+     */
+    public static void addChangeListener(EntityChangeListener<Enrollment> listener) {
+        NOTIFIER.addListener(listener);
+    }
+    
+    /**
+     * Removes a listener added with {@link #addChangeListener(EntityChangeListener)}.
+     * 
+     * @param listener The listener to remove
+     */
+    public static void removeChangeListener(EntityChangeListener<Enrollment> listener) {
+        NOTIFIER.removeListener(listener);
+    }
+    
     /**
      * Creates a new enrollment record in the database.
      * 
@@ -93,7 +171,7 @@ public class EnrollmentDAO {
             stmt.setInt(1, enrollment.getStudentId());
             stmt.setInt(2, enrollment.getCourseId());
             stmt.setDate(3, Date.valueOf(enrollment.getEnrollmentDate()));
-            stmt.setString(4, enrollment.getStatus().toString());
+            stmt.setString(4, enrollment.getStatus().name());
             
             int affectedRows = stmt.executeUpdate();
             
@@ -108,6 +186,7 @@ public class EnrollmentDAO {
             }
             
             LOGGER.log(Level.INFO, "Created enrollment with ID: {0}", enrollmentId);
+            NOTIFIER.fire(EntityChangeListener.ChangeType.INSERT, enrollmentId, enrollment);
             return enrollmentId;
             
         } catch (SQLException ex) {
@@ -138,7 +217,7 @@ public class EnrollmentDAO {
             rs = stmt.executeQuery();
             
             if (rs.next()) {
-                enrollment = mapResultSetToEnrollment(rs);
+                enrollment = RowMappers.ENROLLMENT.mapRow(rs);
             }
             
             return enrollment;
@@ -169,13 +248,14 @@ public class EnrollmentDAO {
             stmt.setInt(1, enrollment.getStudentId());
             stmt.setInt(2, enrollment.getCourseId());
             stmt.setDate(3, Date.valueOf(enrollment.getEnrollmentDate()));
-            stmt.setString(4, enrollment.getStatus().toString());
+            stmt.setString(4, enrollment.getStatus().name());
             stmt.setInt(5, enrollment.getId());
             
             int affectedRows = stmt.executeUpdate();
             
             if (affectedRows > 0) {
                 LOGGER.log(Level.INFO, "Updated enrollment with ID: {0}", enrollment.getId());
+                NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, enrollment.getId(), enrollment);
                 return true;
             } else {
                 LOGGER.log(Level.WARNING, "No enrollment found with ID: {0}", enrollment.getId());
@@ -210,6 +290,7 @@ public class EnrollmentDAO {
             
             if (affectedRows > 0) {
                 LOGGER.log(Level.INFO, "Deleted enrollment with ID: {0}", enrollmentId);
+                NOTIFIER.fire(EntityChangeListener.ChangeType.DELETE, enrollmentId, null);
                 return true;
             } else {
                 LOGGER.log(Level.WARNING, "No enrollment found with ID: {0}", enrollmentId);
@@ -242,10 +323,7 @@ public class EnrollmentDAO {
             
             rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                Enrollment enrollment = mapResultSetToEnrollment(rs);
-                enrollments.add(enrollment);
-            }
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments", enrollments.size());
             return enrollments;
@@ -258,6 +336,49 @@ public class EnrollmentDAO {
         }
     }
     
+    /**
+     * Retrieves one page of enrollments in enrollment_id order using keyset pagination.
+     * 
+     * @param afterId Only enrollments with a greater ID are returned; 0 for the first page
+     * @param limit The maximum number of enrollments to return
+     * @return The page, empty once the end of the table is reached
+     * @throws PageIterator.PageFetchException If the page cannot be read
+     */
+    public List<Enrollment> getEnrollmentsPage(int afterId, int limit) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Enrollment> enrollments = new ArrayList<>();
+        
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(SQL_GET_ENROLLMENTS_PAGE);
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            
+            rs = stmt.executeQuery();
+            
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
+            
+            return enrollments;
+            
+        } catch (SQLException ex) {
+            throw new PageIterator.PageFetchException("Failed to read enrollments after ID " + afterId, ex);
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+    
+    /**
+     * Lazily iterates over every enrollment, holding one page in memory at a time.
+     * 
+     * @param pageSize The number of enrollments fetched per query
+     * @return An iterable that starts a fresh scan on each call to iterator()
+     */
+    public Iterable<Enrollment> iterateEnrollments(int pageSize) {
+        return () -> new PageIterator<>(this::getEnrollmentsPage, Enrollment::getId, pageSize);
+    }
+    
     /**
      * Retrieves all enrollments for a specific student.
      * 
@@ -277,10 +398,7 @@ public class EnrollmentDAO {
             
             rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                Enrollment enrollment = mapResultSetToEnrollment(rs);
-                enrollments.add(enrollment);
-            }
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments for student ID: {1}", 
                     new Object[]{enrollments.size(), studentId});
@@ -314,10 +432,7 @@ public class EnrollmentDAO {
             
             rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                Enrollment enrollment = mapResultSetToEnrollment(rs);
-                enrollments.add(enrollment);
-            }
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments for course ID: {1}", 
                     new Object[]{enrollments.size(), courseId});
@@ -347,14 +462,11 @@ public class EnrollmentDAO {
         try {
             conn = dbConnection.getConnection();
             stmt = conn.prepareStatement(SQL_GET_ENROLLMENTS_BY_STATUS);
-            stmt.setString(1, status.toString());
+            stmt.setString(1, status.name());
             
             rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                Enrollment enrollment = mapResultSetToEnrollment(rs);
-                enrollments.add(enrollment);
-            }
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments with status: {1}", 
                     new Object[]{enrollments.size(), status});
@@ -390,10 +502,7 @@ public class EnrollmentDAO {
             
             rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                Enrollment enrollment = mapResultSetToEnrollment(rs);
-                enrollments.add(enrollment);
-            }
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             
             LOGGER.log(Level.INFO, "Retrieved {0} enrollments between {1} and {2}", 
                     new Object[]{enrollments.size(), startDate, endDate});
@@ -423,7 +532,7 @@ public class EnrollmentDAO {
             conn = dbConnection.getConnection();
             stmt = conn.prepareStatement(SQL_UPDATE_ENROLLMENT_STATUS);
             
-            stmt.setString(1, status.toString());
+            stmt.setString(1, status.name());
             stmt.setInt(2, enrollmentId);
             
             int affectedRows = stmt.executeUpdate();
@@ -431,6 +540,7 @@ public class EnrollmentDAO {
             if (affectedRows > 0) {
                 LOGGER.log(Level.INFO, "Updated status to {0} for enrollment with ID: {1}", 
                         new Object[]{status, enrollmentId});
+                NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, enrollmentId, null);
                 return true;
             } else {
                 LOGGER.log(Level.WARNING, "No enrollment found with ID: {0}", enrollmentId);
@@ -446,6 +556,106 @@ public class EnrollmentDAO {
         }
     }
     
+    /**
+     * Moves every ENROLLED enrollment in a course or semester to COMPLETED or FAILED with
+     * a single UPDATE. Enrollments in any other status are left alone, as the
+     * per-enrollment transition rules require.
+     * 
+     * @param scope Whether {@code scopeId} is a course ID or a semester number
+     * @param scopeId The course ID or semester number
+     * @param target COMPLETED or FAILED
+     * @return The number of enrollments moved, or -1 on a database error
+     * @throws IllegalArgumentException If the target is not COMPLETED or FAILED
+     */
+    public int transitionEnrolled(TransitionScope scope, int scopeId, EnrollmentStatus target) {
+        if (target != EnrollmentStatus.COMPLETED && target != EnrollmentStatus.FAILED) {
+            throw new IllegalArgumentException("Enrolled students can only be moved to COMPLETED or FAILED in bulk");
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(SQL_TRANSITION_ENROLLED + scope.condition);
+            
+            stmt.setString(1, target.name());
+            stmt.setInt(2, scopeId);
+            
+            int affectedRows = stmt.executeUpdate();
+            LOGGER.log(Level.INFO, "Moved {0} enrollments to {1} for {2} {3}", 
+                    new Object[]{affectedRows, target, scope, scopeId});
+            if (affectedRows > 0) {
+                NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, 0, null);
+            }
+            return affectedRows;
+            
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "Error moving enrollments to {0} for {1} {2}: {3}", 
+                    new Object[]{target, scope, scopeId, ex.getMessage()});
+            return -1;
+        } finally {
+            closeResources(conn, stmt, null);
+        }
+    }
+    
+    /**
+     * Closes a course or semester. Every ENROLLED enrollment whose weighted final mark
+     * reaches the pass mark becomes COMPLETED and the rest become FAILED. Each outcome
+     * is one set-based UPDATE, and both run in a single transaction. Enrollments
+     * without a final mark, i.e. students with no grades for the course, stay ENROLLED
+     * and are counted as ungraded. Final marks are not recomputed here.
+     * 
+     * @param scope Whether {@code scopeId} is a course ID or a semester number
+     * @param scopeId The course ID or semester number
+     * @param passMark The lowest final mark that completes the course
+     * @return The counts per outcome, or null on a database error (nothing is changed)
+     */
+    public CloseSummary closeEnrolled(TransitionScope scope, int scopeId, double passMark) {
+        Connection conn = null;
+        
+        try {
+            conn = dbConnection.getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement passed = conn.prepareStatement(SQL_CLOSE_PASSED + scope.condition);
+                 PreparedStatement failed = conn.prepareStatement(SQL_CLOSE_FAILED + scope.condition);
+                 PreparedStatement remaining = conn.prepareStatement(SQL_COUNT_ENROLLED + scope.condition)) {
+                passed.setDouble(1, passMark);
+                passed.setInt(2, scopeId);
+                int completedCount = passed.executeUpdate();
+                
+                failed.setDouble(1, passMark);
+                failed.setInt(2, scopeId);
+                int failedCount = failed.executeUpdate();
+                
+                remaining.setInt(1, scopeId);
+                int ungradedCount;
+                try (ResultSet rs = remaining.executeQuery()) {
+                    ungradedCount = rs.next() ? rs.getInt(1) : 0;
+                }
+                conn.commit();
+                
+                LOGGER.log(Level.INFO, "Closed {0} {1}: {2} completed, {3} failed, {4} ungraded", 
+                        new Object[]{scope, scopeId, completedCount, failedCount, ungradedCount});
+                if (completedCount + failedCount > 0) {
+                    NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, 0, null);
+                }
+                return new CloseSummary(completedCount, failedCount, ungradedCount);
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "Error closing enrollments for {0} {1}: {2}", 
+                    new Object[]{scope, scopeId, ex.getMessage()});
+            return null;
+        } finally {
+            closeResources(conn, null, null);
+        }
+    }
+    
     /**
      * Retrieves all active enrollments.
      * 
@@ -463,10 +673,7 @@ public class EnrollmentDAO {
             
             rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                Enrollment enrollment = mapResultSetToEnrollment(rs);
-                enrollments.add(enrollment);
-            }
+            RowMappers.ENROLLMENT.mapAll(rs, enrollments);
             
             LOGGER.log(Level.INFO, "Retrieved {0} active enrollments", enrollments.size());
             return enrollments;
@@ -584,27 +791,33 @@ public class EnrollmentDAO {
     }
     
     /**
-     * Utility method to map a ResultSet row to an Enrollment object.
+     * Gets the number of active (ENROLLED) enrollments across all courses.
      * 
-     * @param rs The ResultSet containing enrollment data
-     * @return An Enrollment object populated with data from the ResultSet
-     * @throws SQLException If there's an error accessing the ResultSet data
+     * @return The number of active enrollments
      */
-    private Enrollment mapResultSetToEnrollment(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        int studentId = rs.getInt("student_id");
-        int courseId = rs.getInt("course_id");
-        LocalDate enrollmentDate = rs.getDate("enrollment_date").toLocalDate();
-        EnrollmentStatus status = EnrollmentStatus.valueOf(rs.getString("status"));
-        
-        Enrollment enrollment = new Enrollment(0, studentId, courseId, enrollmentDate);
-        enrollment.setId(id);
-        enrollment.setStudentId(studentId);
-        enrollment.setCourseId(courseId);
-        enrollment.setEnrollmentDate(enrollmentDate);
-        enrollment.setStatus(status);
+    public int getActiveEnrollmentCount() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
         
-        return enrollment;
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(SQL_GET_ACTIVE_ENROLLMENT_COUNT);
+            
+            rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+            
+            return 0;
+            
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "Error getting active enrollment count: {0}", ex.getMessage());
+            return 0;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
     }
     
     /**
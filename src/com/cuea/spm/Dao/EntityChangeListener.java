@@ -0,0 +1,28 @@
+package com.cuea.spm.Dao;
+
+/**
+ * Receives notifications after a DAO has committed a write. Listeners are called on
+ * the writing thread, so anything slow should be handed off to another thread.
+ *
+ * @param <T> The entity type
+ * @author StudentManagementSystem
+ */
+public interface EntityChangeListener<T> {
+
+    /**
+     * The kind of write that happened.
+     */
+    enum ChangeType {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * Called after a row was inserted, updated or deleted.
+     *
+     * @param type The kind of write
+     * @param id The primary key of the affected row
+     * @param entity The written entity, or null for deletes unless the writer documents
+     *               that it passes the deleted row
+     */
+    void entityChanged(ChangeType type, int id, T entity);
+}
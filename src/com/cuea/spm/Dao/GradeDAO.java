@@ -9,12 +9,43 @@ package com.cuea.spm.Dao;
 
 import com.cuea.spm.Models.DatabaseConnection;
 import com.cuea.spm.Models.Grade;
+import com.cuea.spm.Models.GradeDetail;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GradeDAO {
 
+    private static final int BATCH_SIZE = 500;
+
+    static final String SELECT_FOR_UPDATE_SQL = "SELECT * FROM grades WHERE grade_id = ? FOR UPDATE";
+    static final String SELECT_PAGE_SQL = "SELECT * FROM grades WHERE grade_id > ? ORDER BY grade_id LIMIT ?";
+
+    private static final ChangeNotifier<Grade> NOTIFIER = new ChangeNotifier<>();
+
+    /**
+     * Registers a listener notified after every successful grade insert, update or delete.
+     * Deletes pass the grade as it was before the delete, so listeners can tell whose
+     * grade it was. A grade moved to another student is reported as a delete from the
+     * old student followed by an insert for the new one.
+     *
+     * @param listener The listener to add
+     */
+    public static void addChangeListener(EntityChangeListener<Grade> listener) {
+        NOTIFIER.addListener(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addChangeListener(EntityChangeListener)}.
+     *
+     * @param listener The listener to remove
+     */
+    public static void removeChangeListener(EntityChangeListener<Grade> listener) {
+        NOTIFIER.removeListener(listener);
+    }
+
     public boolean addGrade(Grade grade) {
         String sql = "INSERT INTO grades (student_id, course_id, assessment_type, marks, grade_letter, semester, recorded_at) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?)";
@@ -34,6 +65,7 @@ public class GradeDAO {
                         grade.setGradeId(rs.getInt(1));
                     }
                 }
+                NOTIFIER.fire(EntityChangeListener.ChangeType.INSERT, grade.getGradeId(), grade);
                 return true;
             }
             return false;
@@ -43,59 +75,231 @@ public class GradeDAO {
         }
     }
 
+    /**
+     * Inserts a list of grades with JDBC batching in a single transaction.
+     * On success each grade's ID is set from the generated keys. If any row is
+     * rejected the whole batch is rolled back and the failures are reported by row index.
+     *
+     * @param grades The grades to insert
+     * @return The outcome of the batch
+     */
+    public BatchResult addGradeBatch(List<Grade> grades) {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < grades.size(); i++) {
+            Grade g = grades.get(i);
+            if (g.getAssessmentType() == null || g.getDateRecorded() == null) {
+                failures.put(i, "Assessment type and date recorded are required");
+            }
+        }
+        if (grades.isEmpty() || !failures.isEmpty()) {
+            return new BatchResult(grades.size(), 0, keys, failures);
+        }
+
+        String sql = "INSERT INTO grades (student_id, course_id, assessment_type, marks, grade_letter, semester, recorded_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int start = 0; start < grades.size(); start += BATCH_SIZE) {
+                    int end = Math.min(start + BATCH_SIZE, grades.size());
+                    for (int i = start; i < end; i++) {
+                        Grade g = grades.get(i);
+                        stmt.setInt(1, g.getStudentId());
+                        stmt.setInt(2, g.getCourseId());
+                        stmt.setString(3, g.getAssessmentType());
+                        stmt.setDouble(4, g.getMarks());
+                        stmt.setString(5, g.getGradeLetter());
+                        stmt.setInt(6, g.getSemester());
+                        stmt.setTimestamp(7, new java.sql.Timestamp(g.getDateRecorded().getTime()));
+                        stmt.addBatch();
+                    }
+                    try {
+                        stmt.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        BatchResult.collectFailures(e, start, end, failures);
+                        conn.rollback();
+                        return new BatchResult(grades.size(), 0, new ArrayList<>(), failures);
+                    }
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        for (int i = start; i < end && rs.next(); i++) {
+                            keys.add(rs.getInt(1));
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            failures.put(BatchResult.BATCH_ERROR, e.getMessage());
+            return new BatchResult(grades.size(), 0, new ArrayList<>(), failures);
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            grades.get(i).setGradeId(keys.get(i));
+        }
+        for (Grade g : grades) {
+            NOTIFIER.fire(EntityChangeListener.ChangeType.INSERT, g.getGradeId(), g);
+        }
+        return new BatchResult(grades.size(), grades.size(), keys, failures);
+    }
+
     public List<Grade> getAllGrades() {
         List<Grade> grades = new ArrayList<>();
         String sql = "SELECT * FROM grades";
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                grades.add(new Grade(
-                    rs.getInt("grade_id"),
-                    rs.getInt("student_id"),
-                    rs.getInt("course_id"),
-                    rs.getString("assessment_type"),
-                    rs.getDouble("marks"),
-                    rs.getString("grade_letter"),
-                    rs.getInt("semester"),
-                    rs.getTimestamp("recorded_at") // Matches DB column
-                ));
-            }
+            RowMappers.GRADE.mapAll(rs, grades);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return grades;
+    }
+
+    /**
+     * Gets every grade with its student's full name and course name in one query,
+     * ordered by grade_id. Grades whose student or course has been deleted are still
+     * returned, with a null name.
+     *
+     * @return The grades with display names
+     */
+    public List<GradeDetail> getAllGradeDetails() {
+        List<GradeDetail> grades = new ArrayList<>();
+        String sql = "SELECT g.*, s.first_name, s.last_name, c.course_name FROM grades g " +
+                     "LEFT JOIN students s ON s.student_id = g.student_id " +
+                     "LEFT JOIN courses c ON c.course_id = g.course_id " +
+                     "ORDER BY g.grade_id";
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            RowMappers.GRADE_DETAIL.mapAll(rs, grades);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return grades;
     }
 
+    /**
+     * Gets one page of grades in grade_id order using keyset pagination.
+     *
+     * @param afterId Only rows with a greater grade_id are returned; 0 for the first page
+     * @param limit The maximum number of rows to return
+     * @return The page, empty once the end of the table is reached
+     * @throws PageIterator.PageFetchException If the page cannot be read
+     */
+    public List<Grade> getGradesPage(int afterId, int limit) {
+        List<Grade> grades = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.GRADE.mapAll(rs, grades);
+            }
+        } catch (SQLException e) {
+            throw new PageIterator.PageFetchException("Failed to read grades after ID " + afterId, e);
+        }
+        return grades;
+    }
+
+    /**
+     * Lazily iterates over every row, holding one page in memory at a time.
+     *
+     * @param pageSize Rows fetched per query
+     * @return An iterable that starts a fresh scan on each call to iterator()
+     */
+    public Iterable<Grade> iterateGrades(int pageSize) {
+        return () -> new PageIterator<>(this::getGradesPage, Grade::getGradeId, pageSize);
+    }
+
     public boolean updateGrade(Grade grade) {
         String sql = "UPDATE grades SET student_id = ?, course_id = ?, assessment_type = ?, marks = ?, " +
                      "grade_letter = ?, semester = ?, recorded_at = ? WHERE grade_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, grade.getStudentId());
-            stmt.setInt(2, grade.getCourseId());
-            stmt.setString(3, grade.getAssessmentType());
-            stmt.setDouble(4, grade.getMarks());
-            stmt.setString(5, grade.getGradeLetter());
-            stmt.setInt(6, grade.getSemester());
-            stmt.setTimestamp(7, new java.sql.Timestamp(grade.getDateRecorded().getTime())); // Fixed to getDateRecorded
-            stmt.setInt(8, grade.getGradeId());
-            return stmt.executeUpdate() > 0;
+        Grade previous;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                // Locked until commit so listeners hear about the student the grade
+                // really was moved from
+                previous = lockGrade(conn, grade.getGradeId());
+                if (previous == null) {
+                    conn.rollback();
+                    return false;
+                }
+                stmt.setInt(1, grade.getStudentId());
+                stmt.setInt(2, grade.getCourseId());
+                stmt.setString(3, grade.getAssessmentType());
+                stmt.setDouble(4, grade.getMarks());
+                stmt.setString(5, grade.getGradeLetter());
+                stmt.setInt(6, grade.getSemester());
+                stmt.setTimestamp(7, new java.sql.Timestamp(grade.getDateRecorded().getTime())); // Fixed to getDateRecorded
+                stmt.setInt(8, grade.getGradeId());
+                stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
+        if (previous.getStudentId() != grade.getStudentId()) {
+            NOTIFIER.fire(EntityChangeListener.ChangeType.DELETE, grade.getGradeId(), previous);
+            NOTIFIER.fire(EntityChangeListener.ChangeType.INSERT, grade.getGradeId(), grade);
+        } else {
+            NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, grade.getGradeId(), grade);
+        }
+        return true;
     }
 
     public boolean deleteGrade(int gradeId) {
         String sql = "DELETE FROM grades WHERE grade_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, gradeId);
-            return stmt.executeUpdate() > 0;
+        Grade previous;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                previous = lockGrade(conn, gradeId);
+                if (previous == null) {
+                    conn.rollback();
+                    return false;
+                }
+                stmt.setInt(1, gradeId);
+                stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
+        NOTIFIER.fire(EntityChangeListener.ChangeType.DELETE, gradeId, previous);
+        return true;
+    }
+
+    /**
+     * Reads a grade and locks its row for the rest of the caller's transaction.
+     *
+     * @return The grade, or null if there is no such row
+     */
+    private Grade lockGrade(Connection conn, int gradeId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_FOR_UPDATE_SQL)) {
+            stmt.setInt(1, gradeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? RowMappers.GRADE.mapRow(rs) : null;
+            }
+        }
     }
 }
\ No newline at end of file
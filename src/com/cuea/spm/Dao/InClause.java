@@ -0,0 +1,99 @@
+package com.cuea.spm.Dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helpers for building {@code IN (...)} lookups over large key sets. Keys are split
+ * into chunks so a single statement never exceeds the driver's parameter limits.
+ *
+ * @author StudentManagementSystem
+ */
+final class InClause {
+
+    /** Maximum number of keys bound into one IN list. */
+    static final int CHUNK_SIZE = 500;
+
+    private InClause() {
+    }
+
+    /**
+     * Builds a comma-separated list of {@code count} parameter markers.
+     *
+     * @param count The number of markers
+     * @return e.g. {@code ?, ?, ?} for a count of 3
+     */
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Widens the single-marker list {@code IN (?)} of a query to {@code count} markers,
+     * so the query can be kept as one constant and explained as written.
+     *
+     * @param sql A query containing {@code IN (?)} once
+     * @param count The number of markers
+     * @return The query with {@code count} markers in its IN list
+     */
+    static String expand(String sql, int count) {
+        return sql.replace("IN (?)", "IN (" + placeholders(count) + ")");
+    }
+
+    /**
+     * Rounds a chunk length up to the next power of two, capped at {@link #CHUNK_SIZE}.
+     * Padding short chunks to these few lengths (by repeating a key, which IN ignores)
+     * keeps the number of distinct statement texts small, so the prepared statements
+     * stay in the statement cache instead of being re-parsed for every list length.
+     *
+     * @param count The number of keys in the chunk
+     * @return The number of markers to bind
+     */
+    static int paddedSize(int count) {
+        int size = Integer.highestOneBit(Math.max(count, 1));
+        if (size < count) {
+            size <<= 1;
+        }
+        return Math.min(size, CHUNK_SIZE);
+    }
+
+    /**
+     * Binds a chunk of integer keys to markers 1..{@code paddedSize}, repeating the last
+     * key to fill any markers beyond the chunk.
+     *
+     * @param stmt The statement to bind
+     * @param chunk The keys, not empty
+     * @param paddedSize The number of markers in the statement
+     * @throws SQLException If binding fails
+     */
+    static void bindInts(PreparedStatement stmt, List<Integer> chunk, int paddedSize) throws SQLException {
+        for (int i = 0; i < paddedSize; i++) {
+            stmt.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+        }
+    }
+
+    /**
+     * Splits the keys into lists of at most {@link #CHUNK_SIZE} elements.
+     *
+     * @param keys The keys to split
+     * @return The chunks, in iteration order of the keys
+     */
+    static <T> List<List<T>> chunks(Collection<T> keys) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> current = new ArrayList<>(Math.min(keys.size(), CHUNK_SIZE));
+        for (T key : keys) {
+            current.add(key);
+            if (current.size() == CHUNK_SIZE) {
+                chunks.add(current);
+                current = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cuea.spm.Dao;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Lazily walks a table in primary-key order using keyset pagination. Only one page
+ * is held in memory at a time; the next page is fetched with {@code id > lastSeenId}
+ * when the current one is exhausted, so the cost of a page does not grow with its
+ * position in the table the way {@code OFFSET} does.
+ *
+ * <p>Rows inserted behind the cursor while iterating are not seen; rows inserted
+ * ahead of it are. A page that cannot be read throws {@link PageFetchException} from
+ * {@link #hasNext()}, so a failed query is never mistaken for the end of the table.</p>
+ *
+ * @param <T> The row type
+ * @author StudentManagementSystem
+ */
+public class PageIterator<T> implements Iterator<T> {
+
+    /** Page size used by the DAOs' iterate methods when none is given. */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    /**
+     * Fetches the page of rows whose ID is greater than {@code afterId}, in ID order.
+     * A fetcher reports a failed query by throwing {@link PageFetchException}, never by
+     * returning an empty page.
+     *
+     * @param <T> The row type
+     */
+    public interface PageFetcher<T> {
+        List<T> fetch(int afterId, int limit);
+    }
+
+    /**
+     * Thrown when a page cannot be read, wrapping the database error.
+     */
+    public static class PageFetchException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public PageFetchException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final ToIntFunction<T> idOf;
+    private final int pageSize;
+
+    private List<T> page = Collections.emptyList();
+    private int position;
+    private int lastId;
+    private boolean exhausted;
+
+    /**
+     * Creates an iterator starting before the first row.
+     *
+     * @param fetcher Fetches one page of rows
+     * @param idOf Extracts the key the pages are ordered by
+     * @param pageSize Rows per page
+     */
+    public PageIterator(PageFetcher<T> fetcher, ToIntFunction<T> idOf, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.fetcher = fetcher;
+        this.idOf = idOf;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < page.size()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        page = fetcher.fetch(lastId, pageSize);
+        position = 0;
+        // A short page means the end of the table; skip the extra empty query
+        exhausted = page.size() < pageSize;
+        return !page.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T row = page.get(position++);
+        lastId = idOf.applyAsInt(row);
+        return row;
+    }
+}
@@ -11,10 +11,33 @@ import com.cuea.spm.Models.DatabaseConnection;
 import com.cuea.spm.Models.Performance;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PerformanceDAO {
 
+    private static final int BATCH_SIZE = 1000;
+
+    // Rewrites the derived figures of an existing (student_id, semester) row; remarks
+    // entered by hand are kept
+    static final String UPSERT_SQL =
+            "INSERT INTO performance (student_id, semester, gpa, total_credits, cumulative_gpa, cumulative_credits, calculated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE gpa = VALUES(gpa), "
+            + "total_credits = VALUES(total_credits), cumulative_gpa = VALUES(cumulative_gpa), "
+            + "cumulative_credits = VALUES(cumulative_credits), calculated_at = VALUES(calculated_at)";
+    static final String SELECT_RANGE_SQL =
+            "SELECT student_id, semester FROM performance WHERE student_id BETWEEN ? AND ?";
+    static final String SELECT_RANGE_SEMESTER_SQL =
+            "SELECT student_id, semester FROM performance WHERE student_id BETWEEN ? AND ? AND semester = ?";
+    static final String DELETE_ROW_SQL = "DELETE FROM performance WHERE student_id = ? AND semester = ?";
+    static final String SELECT_PAGE_SQL =
+            "SELECT * FROM performance WHERE performance_id > ? ORDER BY performance_id LIMIT ?";
+    static final String SELECT_BY_ID_SQL = "SELECT * FROM performance WHERE performance_id = ?";
+
     public boolean addPerformance(Performance performance) {
         String sql = "INSERT INTO performance (student_id, semester, gpa, total_credits, remarks, calculated_at) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
@@ -42,29 +65,189 @@ public class PerformanceDAO {
         }
     }
 
+    /**
+     * Upserts computed performance rows on the unique (student_id, semester) key with
+     * JDBC batching in a single transaction. Performance IDs are not set, since drivers
+     * do not report keys for rows that were updated. If any row is rejected the whole
+     * batch is rolled back and the failures are reported by row index.
+     *
+     * @param performances The rows to write
+     * @return The batch outcome; no generated keys are reported
+     */
+    public BatchResult upsertPerformanceBatch(List<Performance> performances) {
+        return replacePerformanceBatch(null, null, performances);
+    }
+
+    /**
+     * Replaces the computed performance rows of a set of students in a single
+     * transaction: their rows not in {@code performances} are deleted, so a semester
+     * whose grades are all gone loses its row, and the rest are upserted as by
+     * {@link #upsertPerformanceBatch(List)}. A student with no rows in
+     * {@code performances} loses all of theirs.
+     *
+     * @param studentIds The students whose rows are replaced, sorted; null to only upsert
+     * @param semester The one semester replaced, or null for every semester
+     * @param performances The rows to write, all for students in {@code studentIds}
+     * @return The batch outcome; no generated keys are reported
+     */
+    public BatchResult replacePerformanceBatch(int[] studentIds, Integer semester, List<Performance> performances) {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        if (performances.isEmpty() && (studentIds == null || studentIds.length == 0)) {
+            return new BatchResult(0, 0, new ArrayList<>(), failures);
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (studentIds != null && studentIds.length > 0) {
+                    deleteStale(conn, studentIds, semester, performances);
+                }
+                if (!upsert(conn, performances, failures)) {
+                    conn.rollback();
+                    return new BatchResult(performances.size(), 0, new ArrayList<>(), failures);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            failures.put(BatchResult.BATCH_ERROR, e.getMessage());
+            return new BatchResult(performances.size(), 0, new ArrayList<>(), failures);
+        }
+        return new BatchResult(performances.size(), performances.size(), new ArrayList<>(), failures);
+    }
+
+    /**
+     * Deletes the rows of the given students that the new rows do not replace.
+     */
+    private void deleteStale(Connection conn, int[] studentIds, Integer semester,
+                             List<Performance> performances) throws SQLException {
+        Set<Long> kept = new HashSet<>();
+        for (Performance p : performances) {
+            kept.add(key(p.getStudentId(), p.getSemester()));
+        }
+        List<long[]> stale = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(semester != null ? SELECT_RANGE_SEMESTER_SQL : SELECT_RANGE_SQL)) {
+            stmt.setInt(1, studentIds[0]);
+            stmt.setInt(2, studentIds[studentIds.length - 1]);
+            if (semester != null) {
+                stmt.setInt(3, semester);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int studentId = rs.getInt(1);
+                    int rowSemester = rs.getInt(2);
+                    if (Arrays.binarySearch(studentIds, studentId) >= 0 && !kept.contains(key(studentId, rowSemester))) {
+                        stale.add(new long[]{studentId, rowSemester});
+                    }
+                }
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(DELETE_ROW_SQL)) {
+            for (int i = 0; i < stale.size(); i++) {
+                stmt.setInt(1, (int) stale.get(i)[0]);
+                stmt.setInt(2, (int) stale.get(i)[1]);
+                stmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            if (stale.size() % BATCH_SIZE != 0) {
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    private static long key(int studentId, int semester) {
+        return ((long) studentId << 32) | (semester & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return false if a row was rejected, with the failures recorded; the caller rolls back
+     */
+    private boolean upsert(Connection conn, List<Performance> performances, Map<Integer, String> failures)
+            throws SQLException {
+        if (performances.isEmpty()) {
+            return true;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+            for (int start = 0; start < performances.size(); start += BATCH_SIZE) {
+                int end = Math.min(start + BATCH_SIZE, performances.size());
+                for (int i = start; i < end; i++) {
+                    Performance p = performances.get(i);
+                    stmt.setInt(1, p.getStudentId());
+                    stmt.setInt(2, p.getSemester());
+                    stmt.setDouble(3, p.getGpa());
+                    stmt.setInt(4, p.getTotalCredits());
+                    stmt.setDouble(5, p.getCumulativeGpa());
+                    stmt.setInt(6, p.getCumulativeCredits());
+                    stmt.setTimestamp(7, new java.sql.Timestamp(p.getCalculatedAt().getTime()));
+                    stmt.addBatch();
+                }
+                try {
+                    stmt.executeBatch();
+                } catch (BatchUpdateException e) {
+                    BatchResult.collectFailures(e, start, end, failures);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     public List<Performance> getAllPerformance() {
         List<Performance> performances = new ArrayList<>();
         String sql = "SELECT * FROM performance";
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                performances.add(new Performance(
-                    rs.getInt("performance_id"),
-                    rs.getInt("student_id"),
-                    rs.getInt("semester"),
-                    rs.getDouble("gpa"),
-                    rs.getInt("total_credits"),
-                    rs.getString("remarks"),
-                    rs.getTimestamp("calculated_at")
-                ));
-            }
+            RowMappers.PERFORMANCE.mapAll(rs, performances);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return performances;
     }
 
+    /**
+     * Gets one page of performances in performance_id order using keyset pagination.
+     *
+     * @param afterId Only rows with a greater performance_id are returned; 0 for the first page
+     * @param limit The maximum number of rows to return
+     * @return The page, empty once the end of the table is reached
+     * @throws PageIterator.PageFetchException If the page cannot be read
+     */
+    public List<Performance> getPerformancePage(int afterId, int limit) {
+        List<Performance> performances = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.PERFORMANCE.mapAll(rs, performances);
+            }
+        } catch (SQLException e) {
+            throw new PageIterator.PageFetchException("Failed to read performance after ID " + afterId, e);
+        }
+        return performances;
+    }
+
+    /**
+     * Lazily iterates over every row, holding one page in memory at a time.
+     *
+     * @param pageSize Rows fetched per query
+     * @return An iterable that starts a fresh scan on each call to iterator()
+     */
+    public Iterable<Performance> iteratePerformance(int pageSize) {
+        return () -> new PageIterator<>(this::getPerformancePage, Performance::getPerformanceId, pageSize);
+    }
+
     public boolean updatePerformance(Performance performance) {
         String sql = "UPDATE performance SET student_id = ?, semester = ?, gpa = ?, total_credits = ?, " +
                      "remarks = ?, calculated_at = ? WHERE performance_id = ?";
@@ -97,21 +280,12 @@ public class PerformanceDAO {
     }
 
     public Performance getPerformanceById(int performanceId) {
-        String sql = "SELECT * FROM performance WHERE performance_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             stmt.setInt(1, performanceId);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Performance(
-                        rs.getInt("performance_id"),
-                        rs.getInt("student_id"),
-                        rs.getInt("semester"),
-                        rs.getDouble("gpa"),
-                        rs.getInt("total_credits"),
-                        rs.getString("remarks"),
-                        rs.getTimestamp("calculated_at")
-                    );
+                    return RowMappers.PERFORMANCE.mapRow(rs);
                 }
             }
         } catch (SQLException e) {
@@ -0,0 +1,266 @@
+package com.cuea.spm.Dao;
+
+import com.cuea.spm.Controllers.AttendanceController;
+import com.cuea.spm.Controllers.GradeController;
+import com.cuea.spm.Controllers.PerformanceController;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks with {@code EXPLAIN} that the filtered DAO and controller queries are served
+ * by an index. Each query is registered here with sample parameter values; a plan
+ * that reads a whole table is reported as a failure.
+ *
+ * <p>MySQL plans are read from the {@code type} column, where {@code ALL} is a table
+ * scan and {@code index} a scan of a whole index. The embedded database marks a table
+ * scan with {@code .tableScan} in its plan text.</p>
+ *
+ * <p>Each query is registered through the constant it is run from, so an edit to
+ * the statement is checked as made. Queries that deliberately read a whole table,
+ * such as the {@code getAll*} listings, and single-row writes by primary key are not
+ * registered. When adding a filtered query to a DAO, keep it in a constant and add
+ * it here too.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class QueryPlanVerifier {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryPlanVerifier.class.getName());
+
+    /**
+     * A query and the sample values to bind to its parameters.
+     */
+    public static class PlannedQuery {
+        private final String name;
+        private final String sql;
+        private final List<Object> parameters;
+
+        public PlannedQuery(String name, String sql, Object... parameters) {
+            this.name = name;
+            this.sql = sql;
+            this.parameters = Collections.unmodifiableList(Arrays.asList(parameters));
+        }
+
+        public String getName() { return name; }
+        public String getSql() { return sql; }
+        public List<Object> getParameters() { return parameters; }
+    }
+
+    private static final Date DAY = Date.valueOf("2025-01-15");
+    private static final Date MONTH_START = Date.valueOf("2025-01-01");
+    private static final Date MONTH_END = Date.valueOf("2025-02-01");
+
+    private static final List<PlannedQuery> QUERIES = Collections.unmodifiableList(Arrays.asList(
+            // StudentDAO
+            new PlannedQuery("StudentDAO.getStudentById", StudentDAO.SELECT_BY_ID_SQL, 1),
+            new PlannedQuery("StudentDAO.getStudentsPage", StudentDAO.SELECT_PAGE_SQL, 0, 500),
+            new PlannedQuery("StudentDAO.getStudentByRegistrationNumber",
+                    StudentDAO.SELECT_BY_REGISTRATION_NUMBER_SQL, "ABC/21/0001"),
+            new PlannedQuery("StudentDAO.searchStudents", StudentDAO.SEARCH_SQL,
+                    "ABC%", "ABC%", "ABC%", "ABC%", "ABC%", 20),
+            new PlannedQuery("StudentDAO.getStudentsBySemester", StudentDAO.SELECT_BY_SEMESTER_SQL, 1, 100),
+            new PlannedQuery("StudentDAO.getStudentsByEnrollmentDate",
+                    StudentDAO.SELECT_BY_ENROLLMENT_DATE_SQL, MONTH_START, MONTH_END, 100),
+            new PlannedQuery("StudentDAO.getStudentIdsByRegistrationNumbers",
+                    InClause.expand(StudentDAO.SELECT_IDS_BY_REGISTRATION_NUMBERS_SQL, 2),
+                    "ABC/21/0001", "ABC/21/0002"),
+            new PlannedQuery("StudentDAO.getStudentsByIds",
+                    InClause.expand(StudentDAO.SELECT_BY_IDS_SQL, 4), 1, 2, 3, 4),
+
+            // CourseCache and CourseDAO
+            new PlannedQuery("CourseCache.getById", CourseCache.SELECT_BY_ID_SQL, 1),
+            new PlannedQuery("CourseCache.getByCode", CourseCache.SELECT_BY_CODE_SQL, "CS101"),
+            new PlannedQuery("CourseDAO.getCoursesByIds",
+                    InClause.expand(CourseDAO.SELECT_BY_IDS_SQL, 4), 1, 2, 3, 4),
+            new PlannedQuery("CourseDAO.getCourseIdsByCodes",
+                    InClause.expand(CourseDAO.SELECT_IDS_BY_CODES_SQL, 2), "CS101", "CS102"),
+
+            // EnrollmentDAO
+            new PlannedQuery("EnrollmentDAO.getEnrollmentById", EnrollmentDAO.SQL_GET_ENROLLMENT_BY_ID, 1),
+            new PlannedQuery("EnrollmentDAO.getEnrollmentsPage", EnrollmentDAO.SQL_GET_ENROLLMENTS_PAGE, 0, 500),
+            new PlannedQuery("EnrollmentDAO.getEnrollmentsByStudent", EnrollmentDAO.SQL_GET_ENROLLMENTS_BY_STUDENT, 1),
+            new PlannedQuery("EnrollmentDAO.getEnrollmentsByCourse", EnrollmentDAO.SQL_GET_ENROLLMENTS_BY_COURSE, 1),
+            new PlannedQuery("EnrollmentDAO.getEnrollmentsByStatus",
+                    EnrollmentDAO.SQL_GET_ENROLLMENTS_BY_STATUS, "ENROLLED"),
+            new PlannedQuery("EnrollmentDAO.getEnrollmentsByDateRange",
+                    EnrollmentDAO.SQL_GET_ENROLLMENTS_BY_DATE_RANGE, MONTH_START, MONTH_END),
+            new PlannedQuery("EnrollmentDAO.getActiveEnrollments", EnrollmentDAO.SQL_GET_ACTIVE_ENROLLMENTS),
+            new PlannedQuery("EnrollmentDAO.checkEnrollmentExists", EnrollmentDAO.SQL_CHECK_ENROLLMENT_EXISTS, 1, 1),
+            new PlannedQuery("EnrollmentDAO.getStudentEnrollmentCount",
+                    EnrollmentDAO.SQL_GET_STUDENT_ENROLLMENT_COUNT, 1),
+            new PlannedQuery("EnrollmentDAO.getCourseEnrollmentCount", EnrollmentDAO.SQL_GET_COURSE_ENROLLMENT_COUNT, 1),
+            new PlannedQuery("EnrollmentDAO.getActiveEnrollmentCount", EnrollmentDAO.SQL_GET_ACTIVE_ENROLLMENT_COUNT),
+            new PlannedQuery("EnrollmentDAO.transitionEnrolled (course)",
+                    EnrollmentDAO.SQL_TRANSITION_ENROLLED + EnrollmentDAO.TransitionScope.COURSE.condition,
+                    "COMPLETED", 1),
+            new PlannedQuery("EnrollmentDAO.transitionEnrolled (semester)",
+                    EnrollmentDAO.SQL_TRANSITION_ENROLLED + EnrollmentDAO.TransitionScope.SEMESTER.condition,
+                    "COMPLETED", 1),
+            new PlannedQuery("EnrollmentDAO.closeEnrolled (passed, semester)",
+                    EnrollmentDAO.SQL_CLOSE_PASSED + EnrollmentDAO.TransitionScope.SEMESTER.condition, 40, 1),
+            new PlannedQuery("EnrollmentDAO.closeEnrolled (failed, semester)",
+                    EnrollmentDAO.SQL_CLOSE_FAILED + EnrollmentDAO.TransitionScope.SEMESTER.condition, 40, 1),
+            new PlannedQuery("EnrollmentDAO.closeEnrolled (ungraded, course)",
+                    EnrollmentDAO.SQL_COUNT_ENROLLED + EnrollmentDAO.TransitionScope.COURSE.condition, 1),
+
+            // GradeDAO
+            new PlannedQuery("GradeDAO.getGradesPage", GradeDAO.SELECT_PAGE_SQL, 0, 500),
+            new PlannedQuery("GradeDAO.updateGrade (lock)", GradeDAO.SELECT_FOR_UPDATE_SQL, 1),
+
+            // PerformanceDAO
+            new PlannedQuery("PerformanceDAO.getPerformanceById", PerformanceDAO.SELECT_BY_ID_SQL, 1),
+            new PlannedQuery("PerformanceDAO.getPerformancePage", PerformanceDAO.SELECT_PAGE_SQL, 0, 500),
+            new PlannedQuery("PerformanceDAO.replacePerformanceBatch (range)",
+                    PerformanceDAO.SELECT_RANGE_SQL, 1, 2000),
+            new PlannedQuery("PerformanceDAO.replacePerformanceBatch (range, semester)",
+                    PerformanceDAO.SELECT_RANGE_SEMESTER_SQL, 1, 2000, 1),
+            new PlannedQuery("PerformanceDAO.replacePerformanceBatch (delete)", PerformanceDAO.DELETE_ROW_SQL, 1, 1),
+            new PlannedQuery("PerformanceDAO.upsertPerformanceBatch", PerformanceDAO.UPSERT_SQL,
+                    1, 1, 3.5, 12, 3.5, 12, DAY),
+
+            // AttendanceDAO and the dashboard
+            new PlannedQuery("AttendanceDAO.getAttendancePage", AttendanceDAO.SELECT_PAGE_SQL, 0, 500),
+            new PlannedQuery("AttendanceDAO.upsertAttendance", AttendanceDAO.UPSERT_SQL, 1, 1, DAY, "PRESENT"),
+            new PlannedQuery("DashboardDAO.getDashboardStats (enrolled)", DashboardDAO.ENROLLED_COUNT_SQL),
+            new PlannedQuery("DashboardDAO.getDashboardStats (completed)", DashboardDAO.COMPLETED_COUNT_SQL),
+            new PlannedQuery("DashboardDAO.getDashboardStats (sessions)", DashboardDAO.SESSIONS_SQL,
+                    MONTH_START, MONTH_END),
+            new PlannedQuery("DashboardDAO.getDashboardStats (present)", DashboardDAO.PRESENT_SQL,
+                    MONTH_START, MONTH_END),
+
+            // AttendanceController
+            new PlannedQuery("AttendanceController.getAttendanceRecordById", AttendanceController.SELECT_BY_ID_SQL, 1),
+            new PlannedQuery("AttendanceController.getAttendanceRecord",
+                    AttendanceController.SELECT_BY_KEY_SQL, 1, 1, DAY),
+            new PlannedQuery("AttendanceController.getAttendanceRecordsByStudent",
+                    AttendanceController.SELECT_BY_STUDENT_SQL, 1),
+            new PlannedQuery("AttendanceController.getAttendanceRecordsByCourse",
+                    AttendanceController.SELECT_BY_COURSE_SQL, 1),
+            new PlannedQuery("AttendanceController.getAttendanceRecordsByDateRange",
+                    AttendanceController.SELECT_BY_DATE_RANGE_SQL, MONTH_START, MONTH_END),
+            new PlannedQuery("AttendanceController.markAttendance/updateAttendance (lock)",
+                    AttendanceController.LOCK_BY_ID_SQL, 1),
+            new PlannedQuery("AttendanceController.markAttendance/updateAttendance (update)",
+                    AttendanceController.UPDATE_SQL, "PRESENT", "", 1),
+
+            // AttendanceSummaryDAO
+            new PlannedQuery("AttendanceSummaryDAO.getSummary", AttendanceSummaryDAO.SELECT_SQL, 1, 1),
+            new PlannedQuery("AttendanceSummaryDAO.getCourseSummary", AttendanceSummaryDAO.SELECT_COURSE_SQL, 1),
+            new PlannedQuery("AttendanceSummaryDAO.applyChange", AttendanceSummaryDAO.APPLY_SQL, 1, 1, 1, 0, 0, 0),
+
+            // PerformanceController
+            new PlannedQuery("PerformanceController.recomputeSemester (students)",
+                    PerformanceController.SEMESTER_STUDENTS_SQL, 1),
+            new PlannedQuery("PerformanceController (course marks)",
+                    PerformanceController.COURSE_MARKS_SQL, 1, 2000, 2),
+
+            // GradeController and AssessmentWeightDAO
+            new PlannedQuery("GradeController.computeFinalMarks (course grades)",
+                    GradeController.COURSE_GRADES_SQL, 1),
+            new PlannedQuery("GradeController.computeSemesterFinalMarks (semester grades)",
+                    GradeController.SEMESTER_GRADES_SQL, 1),
+            new PlannedQuery("GradeController.computeFinalMarks (clear course)", GradeController.CLEAR_COURSE_SQL, 1),
+            new PlannedQuery("GradeController.computeSemesterFinalMarks (clear ungraded)",
+                    GradeController.CLEAR_UNGRADED_SEMESTER_SQL, 1),
+            new PlannedQuery("GradeController.computeFinalMarks (update)",
+                    GradeController.UPDATE_FINAL_MARK_SQL, 55.5, "C", 1, 1),
+            new PlannedQuery("GradeController.saveWeights (students)", GradeController.STUDENTS_OF_COURSE_SQL, 1),
+            new PlannedQuery("AssessmentWeightDAO.getWeights", AssessmentWeightDAO.SELECT_BY_COURSE_SQL, 1),
+            new PlannedQuery("AssessmentWeightDAO.saveWeights (delete)", AssessmentWeightDAO.DELETE_BY_COURSE_SQL, 1),
+
+            // UserDAO
+            new PlannedQuery("UserDAO.getUserByUsername", UserDAO.SELECT_BY_USERNAME_SQL, "admin")
+    ));
+
+    private QueryPlanVerifier() {
+    }
+
+    /**
+     * @return The registered queries
+     */
+    public static List<PlannedQuery> getQueries() {
+        return QUERIES;
+    }
+
+    /**
+     * Explains every registered query.
+     *
+     * @param conn The connection to explain on; nothing is modified
+     * @return A description of each query whose plan reads a whole table, empty if none do
+     * @throws SQLException If a query cannot be explained, e.g. because it refers to a
+     *         column that no longer exists
+     */
+    public static List<String> verify(Connection conn) throws SQLException {
+        List<String> fullScans = new ArrayList<>();
+        for (PlannedQuery query : QUERIES) {
+            String scan = findFullScan(conn, query);
+            if (scan != null) {
+                fullScans.add(query.getName() + ": " + scan);
+                LOGGER.log(Level.WARNING, "Full scan in {0}: {1}", new Object[]{query.getName(), scan});
+            }
+        }
+        return fullScans;
+    }
+
+    /**
+     * Explains every registered query and fails if any reads a whole table.
+     *
+     * @param conn The connection to explain on
+     * @throws SQLException If a query cannot be explained
+     * @throws IllegalStateException If any plan contains a full scan
+     */
+    public static void verifyOrThrow(Connection conn) throws SQLException {
+        List<String> fullScans = verify(conn);
+        if (!fullScans.isEmpty()) {
+            throw new IllegalStateException(fullScans.size() + " queries use a full scan: " + fullScans);
+        }
+    }
+
+    /**
+     * @return The offending part of the plan, or null if the query uses indexes throughout
+     */
+    private static String findFullScan(Connection conn, PlannedQuery query) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query.getSql())) {
+            for (int i = 0; i < query.getParameters().size(); i++) {
+                stmt.setObject(i + 1, query.getParameters().get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                int typeColumn = findColumn(rs.getMetaData(), "type");
+                while (rs.next()) {
+                    if (typeColumn > 0) {
+                        String type = rs.getString(typeColumn);
+                        if ("ALL".equalsIgnoreCase(type) || "index".equalsIgnoreCase(type)) {
+                            return "table " + rs.getString("table") + " accessed by " + type;
+                        }
+                    } else {
+                        String plan = rs.getString(1);
+                        if (plan != null && plan.toLowerCase(Locale.ROOT).contains(".tablescan")) {
+                            return plan.replaceAll("\\s+", " ");
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int findColumn(ResultSetMetaData meta, String label) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (label.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,126 @@
+package com.cuea.spm.Dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maps result set rows to objects by column position. The column names a mapper needs
+ * are looked up once per {@link ResultSet} when it is {@link #bind(ResultSet) bound};
+ * every row after that is read with index-based getters, avoiding the driver's
+ * per-row, per-column name lookup.
+ *
+ * <p>Subclasses list their columns in the constructor and read them in
+ * {@link #map(ResultSet, int[])} through the matching slot of the index array.
+ * Mappers are stateless and shared; see {@link RowMappers}.</p>
+ *
+ * @param <T> The mapped type
+ * @author StudentManagementSystem
+ */
+public abstract class RowMapper<T> {
+
+    private final String[] columns;
+
+    /**
+     * @param columns The column labels read by {@link #map(ResultSet, int[])}, in the
+     *        order of the index array it receives
+     */
+    protected RowMapper(String... columns) {
+        this.columns = columns.clone();
+    }
+
+    /**
+     * Maps the current row.
+     *
+     * @param rs The result set, positioned on a row
+     * @param index The 1-based column positions, in constructor order
+     * @return The mapped object
+     * @throws SQLException If a column cannot be read
+     */
+    protected abstract T map(ResultSet rs, int[] index) throws SQLException;
+
+    /**
+     * Resolves this mapper's columns against a result set.
+     *
+     * @param rs The result set to read
+     * @return A mapper for the rows of that result set
+     * @throws SQLException If a column is missing from the result set
+     */
+    public Bound<T> bind(ResultSet rs) throws SQLException {
+        int[] index = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            index[i] = rs.findColumn(columns[i]);
+        }
+        return new Bound<>(this, rs, index);
+    }
+
+    /**
+     * Maps the current row on its own. For more than one row, {@link #bind(ResultSet)}
+     * once or use {@link #mapAll(ResultSet, Collection)}.
+     *
+     * @param rs The result set, positioned on a row
+     * @return The mapped object
+     * @throws SQLException If a column is missing or cannot be read
+     */
+    public T mapRow(ResultSet rs) throws SQLException {
+        return bind(rs).map();
+    }
+
+    /**
+     * Maps every remaining row into a collection.
+     *
+     * @param rs The result set, positioned before its next row
+     * @param into The collection the mapped rows are added to
+     * @return The number of rows mapped
+     * @throws SQLException If a column is missing or cannot be read
+     */
+    public int mapAll(ResultSet rs, Collection<? super T> into) throws SQLException {
+        Bound<T> bound = bind(rs);
+        int count = 0;
+        while (rs.next()) {
+            into.add(bound.map());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Maps every remaining row into a new list.
+     *
+     * @param rs The result set, positioned before its next row
+     * @return The mapped rows
+     * @throws SQLException If a column is missing or cannot be read
+     */
+    public List<T> mapAll(ResultSet rs) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        mapAll(rs, rows);
+        return rows;
+    }
+
+    /**
+     * A mapper whose column positions have been resolved for one result set.
+     *
+     * @param <T> The mapped type
+     */
+    public static final class Bound<T> {
+        private final RowMapper<T> mapper;
+        private final ResultSet rs;
+        private final int[] index;
+
+        private Bound(RowMapper<T> mapper, ResultSet rs, int[] index) {
+            this.mapper = mapper;
+            this.rs = rs;
+            this.index = index;
+        }
+
+        /**
+         * @return The current row, mapped
+         * @throws SQLException If a column cannot be read
+         */
+        public T map() throws SQLException {
+            return mapper.map(rs, index);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.cuea.spm.Dao;
+
+import com.cuea.spm.Models.Attendance;
+import com.cuea.spm.Models.Course;
+import com.cuea.spm.Models.Enrollment;
+import com.cuea.spm.Models.Enrollment.EnrollmentStatus;
+import com.cuea.spm.Models.Grade;
+import com.cuea.spm.Models.GradeDetail;
+import com.cuea.spm.Models.Performance;
+import com.cuea.spm.Models.Student;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The shared row mappers for the application's tables, used by both the DAOs and the
+ * controllers that run their own queries.
+ *
+ * @author StudentManagementSystem
+ */
+public final class RowMappers {
+
+    private static final Logger LOGGER = Logger.getLogger(RowMappers.class.getName());
+
+    private RowMappers() {
+    }
+
+    public static final RowMapper<Student> STUDENT = new RowMapper<Student>(
+            "student_id", "user_id", "registration_number", "first_name", "last_name",
+            "email", "phone", "current_semester", "enrollment_date") {
+        @Override
+        protected Student map(ResultSet rs, int[] c) throws SQLException {
+            return new Student(rs.getInt(c[0]), rs.getInt(c[1]), rs.getString(c[2]), rs.getString(c[3]),
+                    rs.getString(c[4]), rs.getString(c[5]), rs.getString(c[6]), rs.getInt(c[7]),
+                    rs.getDate(c[8]));
+        }
+    };
+
+    public static final RowMapper<Course> COURSE = new RowMapper<Course>(
+            "course_id", "course_code", "course_name", "credits", "semester") {
+        @Override
+        protected Course map(ResultSet rs, int[] c) throws SQLException {
+            return new Course(rs.getInt(c[0]), rs.getString(c[1]), rs.getString(c[2]), rs.getInt(c[3]),
+                    rs.getInt(c[4]));
+        }
+    };
+
+    public static final RowMapper<Grade> GRADE = new RowMapper<Grade>(
+            "grade_id", "student_id", "course_id", "assessment_type", "marks", "grade_letter",
+            "semester", "recorded_at") {
+        @Override
+        protected Grade map(ResultSet rs, int[] c) throws SQLException {
+            return new Grade(rs.getInt(c[0]), rs.getInt(c[1]), rs.getInt(c[2]), rs.getString(c[3]),
+                    rs.getDouble(c[4]), rs.getString(c[5]), rs.getInt(c[6]), rs.getTimestamp(c[7]));
+        }
+    };
+
+    /** A grade joined with students.first_name, students.last_name and courses.course_name. */
+    public static final RowMapper<GradeDetail> GRADE_DETAIL = new RowMapper<GradeDetail>(
+            "grade_id", "student_id", "course_id", "assessment_type", "marks", "grade_letter",
+            "semester", "recorded_at", "first_name", "last_name", "course_name") {
+        @Override
+        protected GradeDetail map(ResultSet rs, int[] c) throws SQLException {
+            String firstName = rs.getString(c[8]);
+            String studentName = firstName == null ? null : firstName + " " + rs.getString(c[9]);
+            return new GradeDetail(rs.getInt(c[0]), rs.getInt(c[1]), rs.getInt(c[2]), rs.getString(c[3]),
+                    rs.getDouble(c[4]), rs.getString(c[5]), rs.getInt(c[6]), rs.getTimestamp(c[7]),
+                    studentName, rs.getString(c[10]));
+        }
+    };
+
+    public static final RowMapper<Attendance> ATTENDANCE = new RowMapper<Attendance>(
+            "attendance_id", "student_id", "course_id", "date", "status") {
+        @Override
+        protected Attendance map(ResultSet rs, int[] c) throws SQLException {
+            return new Attendance(rs.getInt(c[0]), rs.getInt(c[1]), rs.getInt(c[2]), rs.getDate(c[3]),
+                    rs.getString(c[4]));
+        }
+    };
+
+    public static final RowMapper<Performance> PERFORMANCE = new RowMapper<Performance>(
+            "performance_id", "student_id", "semester", "gpa", "total_credits", "remarks",
+            "calculated_at", "cumulative_gpa", "cumulative_credits") {
+        @Override
+        protected Performance map(ResultSet rs, int[] c) throws SQLException {
+            Performance performance = new Performance(rs.getInt(c[0]), rs.getInt(c[1]), rs.getInt(c[2]),
+                    rs.getDouble(c[3]), rs.getInt(c[4]), rs.getString(c[5]), rs.getTimestamp(c[6]));
+            performance.setCumulativeGpa(rs.getDouble(c[7]));
+            performance.setCumulativeCredits(rs.getInt(c[8]));
+            return performance;
+        }
+    };
+
+    public static final RowMapper<Enrollment> ENROLLMENT = new RowMapper<Enrollment>(
+            "enrollment_id", "student_id", "course_id", "enrollment_date", "status", "final_mark",
+            "grade_letter") {
+        @Override
+        protected Enrollment map(ResultSet rs, int[] c) throws SQLException {
+            LocalDate enrollmentDate = rs.getDate(c[3]).toLocalDate();
+            String statusStr = rs.getString(c[4]);
+
+            EnrollmentStatus status;
+            try {
+                status = EnrollmentStatus.valueOf(statusStr);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                LOGGER.log(Level.WARNING, "Invalid enrollment status in database: {0}", statusStr);
+                status = EnrollmentStatus.ENROLLED; // Default to ENROLLED if invalid
+            }
+
+            Enrollment enrollment = new Enrollment(rs.getInt(c[0]), rs.getInt(c[1]), rs.getInt(c[2]),
+                    enrollmentDate, status);
+            double finalMark = rs.getDouble(c[5]);
+            enrollment.setFinalMark(rs.wasNull() ? null : finalMark);
+            enrollment.setGradeLetter(rs.getString(c[6]));
+            return enrollment;
+        }
+    };
+}
@@ -11,10 +11,74 @@ import com.cuea.spm.Models.DatabaseConnection;
 import com.cuea.spm.Models.Student;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class StudentDAO {
 
+    static final String SELECT_BY_ID_SQL = "SELECT * FROM students WHERE student_id = ?";
+    static final String SELECT_PAGE_SQL = "SELECT * FROM students WHERE student_id > ? ORDER BY student_id LIMIT ?";
+    static final String SELECT_BY_REGISTRATION_NUMBER_SQL = "SELECT * FROM students WHERE registration_number = ?";
+    static final String SEARCH_SQL = "SELECT * FROM students WHERE registration_number LIKE ? OR first_name LIKE ? "
+            + "OR last_name LIKE ? OR email LIKE ? OR phone LIKE ? ORDER BY student_id LIMIT ?";
+    static final String SELECT_BY_SEMESTER_SQL =
+            "SELECT * FROM students WHERE current_semester = ? ORDER BY student_id LIMIT ?";
+    static final String SELECT_BY_ENROLLMENT_DATE_SQL = "SELECT * FROM students WHERE enrollment_date BETWEEN ? AND ? "
+            + "ORDER BY enrollment_date, student_id LIMIT ?";
+    // IN lists are widened to the chunk size with InClause.expand
+    static final String SELECT_IDS_BY_REGISTRATION_NUMBERS_SQL =
+            "SELECT student_id, registration_number FROM students WHERE registration_number IN (?)";
+    static final String SELECT_BY_IDS_SQL = "SELECT * FROM students WHERE student_id IN (?)";
+
+    private static final ChangeNotifier<Student> NOTIFIER = new ChangeNotifier<>();
+
+    // Students by ID, so re-rendering a roster or enrollment list does not query each row
+    // again; sized by -Dspm.cache.students.maxEntries and -Dspm.cache.students.ttlSeconds
+    private static final BoundedCache<Integer, Student> CACHE = new BoundedCache<>(
+            Integer.getInteger("spm.cache.students.maxEntries", 10000),
+            Long.getLong("spm.cache.students.ttlSeconds", 300), TimeUnit.SECONDS);
+
+    static {
+        // Another client wrote students; any cached one may be out of date
+        TableVersions.getInstance().addListener(TableVersions.STUDENTS, CACHE::invalidateAll);
+    }
+
+    /**
+     * Registers a listener notified after every successful student insert, update or delete.
+     *
+     * @param listener The listener to add
+     */
+    public static void addChangeListener(EntityChangeListener<Student> listener) {
+        NOTIFIER.addListener(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addChangeListener(EntityChangeListener)}.
+     *
+     * @param listener The listener to remove
+     */
+    public static void removeChangeListener(EntityChangeListener<Student> listener) {
+        NOTIFIER.removeListener(listener);
+    }
+
+    /**
+     * @return A snapshot of the student cache counters
+     */
+    public static BoundedCache.Stats getCacheStats() {
+        return CACHE.getStats();
+    }
+
+    /**
+     * Drops every cached student, e.g. after another client changed the table.
+     */
+    public static void invalidateCache() {
+        CACHE.invalidateAll();
+    }
+
     public boolean addStudent(Student student) {
         String sql = "INSERT INTO students (user_id, registration_number, first_name, last_name, email, phone, current_semester, enrollment_date) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
@@ -35,6 +99,8 @@ public class StudentDAO {
                         student.setStudentId(rs.getInt(1));
                     }
                 }
+                TableVersions.bump(conn, TableVersions.STUDENTS);
+                NOTIFIER.fire(EntityChangeListener.ChangeType.INSERT, student.getStudentId(), student);
                 return true;
             }
             return false;
@@ -44,24 +110,23 @@ public class StudentDAO {
         }
     }
 
+    /**
+     * Gets a student, from the cache when possible.
+     *
+     * @param studentId The student ID
+     * @return A copy of the student, or null if there is none or it cannot be loaded
+     */
     public Student getStudentById(int studentId) {
-        String sql = "SELECT * FROM students WHERE student_id = ?";
+        return copy(CACHE.get(studentId, this::loadStudent));
+    }
+
+    private Student loadStudent(int studentId) {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             stmt.setInt(1, studentId);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Student(
-                        rs.getInt("student_id"),
-                        rs.getInt("user_id"),
-                        rs.getString("registration_number"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getString("email"),
-                        rs.getString("phone"),
-                        rs.getInt("current_semester"),
-                        rs.getDate("enrollment_date")
-                    );
+                    return RowMappers.STUDENT.mapRow(rs);
                 }
             }
         } catch (SQLException e) {
@@ -76,18 +141,152 @@ public class StudentDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                students.add(new Student(
-                    rs.getInt("student_id"),
-                    rs.getInt("user_id"),
-                    rs.getString("registration_number"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getInt("current_semester"),
-                    rs.getDate("enrollment_date")
-                ));
+            RowMappers.STUDENT.mapAll(rs, students);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return students;
+    }
+
+    /**
+     * Counts students without loading them.
+     *
+     * @return The number of students, or 0 on error
+     */
+    public int getStudentCount() {
+        String sql = "SELECT COUNT(*) FROM students";
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Gets one page of students in student_id order using keyset pagination.
+     *
+     * @param afterId Only rows with a greater student_id are returned; 0 for the first page
+     * @param limit The maximum number of rows to return
+     * @return The page, empty once the end of the table is reached
+     * @throws PageIterator.PageFetchException If the page cannot be read
+     */
+    public List<Student> getStudentsPage(int afterId, int limit) {
+        List<Student> students = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.STUDENT.mapAll(rs, students);
+            }
+        } catch (SQLException e) {
+            throw new PageIterator.PageFetchException("Failed to read students after ID " + afterId, e);
+        }
+        return students;
+    }
+
+    /**
+     * Lazily iterates over every row, holding one page in memory at a time.
+     *
+     * @param pageSize Rows fetched per query
+     * @return An iterable that starts a fresh scan on each call to iterator()
+     */
+    public Iterable<Student> iterateStudents(int pageSize) {
+        return () -> new PageIterator<>(this::getStudentsPage, Student::getStudentId, pageSize);
+    }
+
+    /**
+     * Looks up a student by registration number using the unique index on that column.
+     *
+     * @param registrationNumber The registration number to look up
+     * @return The student, or null if none matches
+     */
+    public Student getStudentByRegistrationNumber(String registrationNumber) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_REGISTRATION_NUMBER_SQL)) {
+            stmt.setString(1, registrationNumber);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return RowMappers.STUDENT.mapRow(rs);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Finds students whose registration number, first name, last name, email or phone
+     * starts with the search term. Prefix matches can be answered from the indexes on
+     * those columns; case sensitivity follows the column collation.
+     *
+     * @param term The search term; LIKE wildcards in it are matched literally
+     * @param limit The maximum number of students to return
+     * @return The matching students in student_id order
+     */
+    public List<Student> searchStudents(String term, int limit) {
+        List<Student> students = new ArrayList<>();
+        String pattern = escapeLike(term) + "%";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SEARCH_SQL)) {
+            for (int i = 1; i <= 5; i++) {
+                stmt.setString(i, pattern);
+            }
+            stmt.setInt(6, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.STUDENT.mapAll(rs, students);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return students;
+    }
+
+    /**
+     * Gets the students currently in a semester.
+     *
+     * @param semester The semester to filter by
+     * @param limit The maximum number of students to return
+     * @return The students in student_id order
+     */
+    public List<Student> getStudentsBySemester(int semester, int limit) {
+        List<Student> students = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_SEMESTER_SQL)) {
+            stmt.setInt(1, semester);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.STUDENT.mapAll(rs, students);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return students;
+    }
+
+    /**
+     * Gets the students whose enrollment date falls within a range.
+     *
+     * @param startDate The start of the range (inclusive)
+     * @param endDate The end of the range (inclusive)
+     * @param limit The maximum number of students to return
+     * @return The students ordered by enrollment date
+     */
+    public List<Student> getStudentsByEnrollmentDate(java.util.Date startDate, java.util.Date endDate, int limit) {
+        List<Student> students = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ENROLLMENT_DATE_SQL)) {
+            stmt.setDate(1, new java.sql.Date(startDate.getTime()));
+            stmt.setDate(2, new java.sql.Date(endDate.getTime()));
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.STUDENT.mapAll(rs, students);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -109,7 +308,13 @@ public class StudentDAO {
             stmt.setInt(7, student.getCurrentSemester());
             stmt.setDate(8, new java.sql.Date(student.getEnrollmentDate().getTime()));
             stmt.setInt(9, student.getStudentId());
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            CACHE.invalidate(student.getStudentId());
+            if (updated) {
+                TableVersions.bump(conn, TableVersions.STUDENTS);
+                NOTIFIER.fire(EntityChangeListener.ChangeType.UPDATE, student.getStudentId(), student);
+            }
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -121,10 +326,108 @@ public class StudentDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, studentId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            CACHE.invalidate(studentId);
+            if (deleted) {
+                TableVersions.bump(conn, TableVersions.STUDENTS);
+                NOTIFIER.fire(EntityChangeListener.ChangeType.DELETE, studentId, null);
+            }
+            return deleted;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
+
+    /**
+     * Resolves registration numbers to student IDs in bulk, a chunk of numbers per query.
+     * Numbers that match no student are absent from the result.
+     *
+     * @param registrationNumbers The registration numbers to resolve
+     * @return Student IDs keyed by registration number, or null on a database error
+     */
+    public Map<String, Integer> getStudentIdsByRegistrationNumbers(Collection<String> registrationNumbers) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (List<String> chunk : InClause.chunks(registrationNumbers)) {
+            String sql = InClause.expand(SELECT_IDS_BY_REGISTRATION_NUMBERS_SQL, chunk.size());
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString("registration_number"), rs.getInt("student_id"));
+                    }
+                }
+            } catch (SQLException e) {
+                // A partial result would read as "no such student" for the missing chunk
+                e.printStackTrace();
+                return null;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Loads many students by ID, serving cached ones from memory and the rest in a few
+     * {@code IN (...)} queries over one connection, instead of one query per ID. IDs
+     * that match no student are absent from the result.
+     *
+     * @param studentIds The IDs to load; duplicates are fetched once
+     * @return Copies of the students keyed by student ID
+     */
+    public Map<Integer, Student> getStudentsByIds(Collection<Integer> studentIds) {
+        Map<Integer, Student> students = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return students;
+        }
+        Map<Integer, Long> stamps = new HashMap<>();
+        for (Integer studentId : new LinkedHashSet<>(studentIds)) {
+            Student cached = CACHE.getIfPresent(studentId);
+            if (cached != null) {
+                students.put(studentId, copy(cached));
+            } else {
+                stamps.put(studentId, CACHE.writeStamp(studentId));
+            }
+        }
+        if (stamps.isEmpty()) {
+            return students;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<Integer> chunk : InClause.chunks(stamps.keySet())) {
+                int size = InClause.paddedSize(chunk.size());
+                String sql = InClause.expand(SELECT_BY_IDS_SQL, size);
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    InClause.bindInts(stmt, chunk, size);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        RowMapper.Bound<Student> mapper = RowMappers.STUDENT.bind(rs);
+                        while (rs.next()) {
+                            Student student = mapper.map();
+                            CACHE.putIfUnchanged(student.getStudentId(), student, stamps.get(student.getStudentId()));
+                            students.put(student.getStudentId(), copy(student));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return students;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Cached students are shared, so callers get a copy they are free to edit
+    private static Student copy(Student student) {
+        if (student == null) {
+            return null;
+        }
+        return new Student(student.getStudentId(), student.getUserId(), student.getRegistrationNumber(),
+                student.getFirstName(), student.getLastName(), student.getEmail(), student.getPhone(),
+                student.getCurrentSemester(),
+                student.getEnrollmentDate() == null ? null : (java.util.Date) student.getEnrollmentDate().clone());
+    }
 }
@@ -0,0 +1,189 @@
+package com.cuea.spm.Dao;
+
+import com.cuea.spm.Models.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tells this client when another client has written a cached table, so local caches
+ * stay correct when several clients share one database.
+ *
+ * <p>Every write to a cached table calls {@link #bump(Connection, String)}, which
+ * increments the table's row in {@code table_versions}. {@link #start()} polls those
+ * rows every {@code -Dspm.cache.pollSeconds} (default 5; 0 disables polling) and runs
+ * the listeners of each table whose version moved. The client's own writes are
+ * recorded as they are made, so they do not invalidate its caches a second time; the
+ * change listeners have already applied them.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class TableVersions {
+
+    private static final Logger LOGGER = Logger.getLogger(TableVersions.class.getName());
+
+    public static final String STUDENTS = "students";
+    public static final String COURSES = "courses";
+    public static final String USERS = "users";
+
+    private static final long POLL_SECONDS = Long.getLong("spm.cache.pollSeconds", 5);
+
+    private static final String BUMP_SQL = "INSERT INTO table_versions (table_name, version) VALUES (?, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1";
+    private static final String SELECT_ONE_SQL = "SELECT version FROM table_versions WHERE table_name = ?";
+    private static final String SELECT_ALL_SQL = "SELECT table_name, version FROM table_versions";
+
+    private static final TableVersions INSTANCE = new TableVersions();
+
+    private final Map<String, List<Runnable>> listeners = new ConcurrentHashMap<>();
+    // The last version this client has seen of each table, by its own writes or a poll;
+    // absent until the first poll
+    private final Map<String, Long> seen = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private TableVersions() {
+    }
+
+    /**
+     * @return The shared instance
+     */
+    public static TableVersions getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a write to a table. Call it on the connection that made the write, once
+     * the write succeeded. A failure is logged rather than thrown because the write
+     * itself has already been made; other clients then catch up when their cache
+     * entries expire or reload.
+     *
+     * @param conn The writer's connection
+     * @param table The table written, e.g. {@link #STUDENTS}
+     */
+    public static void bump(Connection conn, String table) {
+        try {
+            try (PreparedStatement stmt = conn.prepareStatement(BUMP_SQL)) {
+                stmt.setString(1, table);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ONE_SQL)) {
+                stmt.setString(1, table);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        INSTANCE.recordLocalWrite(table, rs.getLong(1));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to bump the version of " + table, e);
+        }
+    }
+
+    /**
+     * Registers an action run on the polling thread when another client has written a table.
+     *
+     * @param table The table, e.g. {@link #COURSES}
+     * @param onChange The action, typically dropping a cache
+     */
+    public void addListener(String table, Runnable onChange) {
+        listeners.computeIfAbsent(table, t -> new CopyOnWriteArrayList<>()).add(onChange);
+    }
+
+    /**
+     * Starts polling on a daemon thread, unless it is disabled or already started.
+     */
+    public synchronized void start() {
+        if (scheduler != null || POLL_SECONDS <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "spm-table-versions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops polling; a poll already running finishes.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Reads every table version once and runs the listeners of the tables that changed.
+     * On the first poll every table counts as changed, because caches may have loaded
+     * before this client knew the versions.
+     *
+     * @return true if the versions could be read
+     */
+    public boolean poll() {
+        Map<String, Long> versions = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
+            while (rs.next()) {
+                versions.put(rs.getString("table_name"), rs.getLong("version"));
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to poll table versions", e);
+            return false;
+        }
+        for (Map.Entry<String, Long> entry : versions.entrySet()) {
+            if (advance(entry.getKey(), entry.getValue())) {
+                LOGGER.log(Level.FINE, "Table {0} changed elsewhere; invalidating local caches", entry.getKey());
+                runListeners(entry.getKey());
+            }
+        }
+        return true;
+    }
+
+    // Our own write moved the version by exactly one from what we had seen; anything
+    // else means another client wrote too, and the next poll must notice it
+    private synchronized void recordLocalWrite(String table, long version) {
+        Long last = seen.get(table);
+        if (last != null && last == version - 1) {
+            seen.put(table, version);
+        }
+    }
+
+    private synchronized boolean advance(String table, long version) {
+        Long last = seen.get(table);
+        if (last != null && version <= last) {
+            return false;
+        }
+        seen.put(table, version);
+        return true;
+    }
+
+    private void runListeners(String table) {
+        List<Runnable> actions = listeners.get(table);
+        if (actions == null) {
+            return;
+        }
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; an exception would cancel later polls
+                LOGGER.log(Level.WARNING, "Table version listener failed for " + table, e);
+            }
+        }
+    }
+}
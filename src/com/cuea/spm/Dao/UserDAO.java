@@ -12,9 +12,29 @@ import com.cuea.spm.Models.User;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class UserDAO {
 
+    static final String SELECT_BY_USERNAME_SQL = "SELECT * FROM users WHERE username = ?";
+
+    // Users by username for a short while, so logins and role checks in quick
+    // succession do not query users again; -Dspm.auth.userCacheSeconds, default 60
+    private static final BoundedCache<String, User> CACHE = new BoundedCache<>(256,
+            Long.getLong("spm.auth.userCacheSeconds", 60), TimeUnit.SECONDS);
+
+    static {
+        // Another client changed users, e.g. a password; drop what we hold
+        TableVersions.getInstance().addListener(TableVersions.USERS, CACHE::invalidateAll);
+    }
+
+    /**
+     * Adds a user. The password is stored as given, so hash it first with
+     * {@code PasswordHasher.hash}.
+     *
+     * @param user The user; its ID is set from the generated key
+     * @return true if the user was added
+     */
     public boolean addUser(User user) {
         String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -29,6 +49,8 @@ public class UserDAO {
                         user.setUserId(rs.getInt(1));
                     }
                 }
+                CACHE.invalidate(user.getUsername());
+                TableVersions.bump(conn, TableVersions.USERS);
                 return true;
             }
             return false;
@@ -38,10 +60,22 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Gets a user, from the cache when possible.
+     *
+     * @param username The username
+     * @return A copy of the user, or null if there is none or it cannot be loaded
+     */
     public User getUserByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
+        if (username == null) {
+            return null;
+        }
+        return copy(CACHE.get(username, this::loadUser));
+    }
+
+    private User loadUser(String username) {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_USERNAME_SQL)) {
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -80,4 +114,39 @@ public class UserDAO {
         }
         return users;
     }
+
+    /**
+     * Replaces a user's stored password, e.g. with a hash at a new cost factor.
+     *
+     * @param userId The user ID
+     * @param passwordHash The new hash
+     * @return true if the user was updated
+     */
+    public boolean updatePassword(int userId, String passwordHash) {
+        String sql = "UPDATE users SET password = ? WHERE user_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, passwordHash);
+            stmt.setInt(2, userId);
+            boolean updated = stmt.executeUpdate() > 0;
+            // Keyed by username, which we do not have here; the cache is small
+            CACHE.invalidateAll();
+            if (updated) {
+                TableVersions.bump(conn, TableVersions.USERS);
+            }
+            return updated;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Cached users are shared, so callers get a copy they are free to edit
+    private static User copy(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new User(user.getUserId(), user.getUsername(), user.getPassword(), user.getRole(),
+                user.getCreatedAt() == null ? null : (java.util.Date) user.getCreatedAt().clone());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.cuea.spm.Models;
+
+import com.cuea.spm.Models.AttendanceRecord.AttendanceStatus;
+
+/**
+ * Attendance counts by status for one student in one course, or summed over a
+ * course, as kept in the {@code attendance_summary} table.
+ *
+ * @author StudentManagementSystem
+ */
+public class AttendanceSummary {
+    private final int studentId;
+    private final int courseId;
+    private final int presentCount;
+    private final int absentCount;
+    private final int lateCount;
+    private final int excusedCount;
+    private final int studentCount;
+
+    public AttendanceSummary(int studentId, int courseId, int presentCount, int absentCount,
+                             int lateCount, int excusedCount, int studentCount) {
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.presentCount = presentCount;
+        this.absentCount = absentCount;
+        this.lateCount = lateCount;
+        this.excusedCount = excusedCount;
+        this.studentCount = studentCount;
+    }
+
+    /**
+     * @param studentId The student
+     * @param courseId The course
+     * @return A summary with every count at zero
+     */
+    public static AttendanceSummary empty(int studentId, int courseId) {
+        return new AttendanceSummary(studentId, courseId, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * @return The student ID, or 0 for a course-wide summary
+     */
+    public int getStudentId() { return studentId; }
+    public int getCourseId() { return courseId; }
+    public int getPresentCount() { return presentCount; }
+    public int getAbsentCount() { return absentCount; }
+    public int getLateCount() { return lateCount; }
+    public int getExcusedCount() { return excusedCount; }
+
+    /**
+     * @return The number of students with records: 1 for a student's summary, or
+     *         the students recorded in the course for a course-wide summary
+     */
+    public int getStudentCount() { return studentCount; }
+
+    /**
+     * @param status The status to count
+     * @return The number of records with that status
+     */
+    public int getCount(AttendanceStatus status) {
+        switch (status) {
+            case PRESENT: return presentCount;
+            case ABSENT: return absentCount;
+            case LATE: return lateCount;
+            case EXCUSED: return excusedCount;
+            default: return 0;
+        }
+    }
+
+    /**
+     * @return The number of records of any status
+     */
+    public int getTotal() {
+        return presentCount + absentCount + lateCount + excusedCount;
+    }
+
+    /**
+     * Percentage of records where the student attended, counting late arrivals as
+     * attended, rounded to two decimal places.
+     *
+     * @return The rate, or 0 if there are no records
+     */
+    public double getAttendanceRate() {
+        int total = getTotal();
+        if (total == 0) {
+            return 0;
+        }
+        double rate = (double) (presentCount + lateCount) / total * 100;
+        return Math.round(rate * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,553 @@
+package com.cuea.spm.Models;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * A bounded JDBC connection pool exposed as a {@link DataSource}.
+ * Connections handed out by {@link #getConnection()} are proxies whose
+ * {@code close()} returns the physical connection to the pool instead of
+ * closing it, so the existing try-with-resources code in the DAOs works unchanged.
+ * Each physical connection also carries a {@link StatementCache}, so the constant
+ * SQL the DAOs prepare on every call is only parsed once per connection.
+ *
+ * @author StudentManagementSystem
+ */
+public class ConnectionPool implements DataSource {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    // How long a borrower waits at a time for a connection the evictor is opening
+    private static final long SLOT_WAIT_MILLIS = 50;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    // Idle connections, most recently returned first so hot connections are reused
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    // One permit per connection that may be checked out
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ScheduledExecutorService evictor;
+
+    private int loginTimeout;
+
+    /**
+     * Creates a new pool. No physical connection is opened until the first borrow
+     * or the first eviction run.
+     *
+     * @param url The JDBC URL
+     * @param user The database user
+     * @param password The database password
+     * @param minIdle The number of idle connections the evictor keeps warm
+     * @param maxSize The maximum number of connections, idle plus checked out
+     * @param idleTimeoutMillis How long a connection may sit idle before being closed
+     * @param borrowTimeoutMillis How long a caller waits for a free connection
+     * @param validationIntervalMillis Connections idle for longer than this are validated on borrow
+     * @param validationTimeoutSeconds Timeout passed to {@link Connection#isValid(int)}
+     * @param statementCacheSize Prepared statements cached per connection; 0 disables the cache
+     */
+    public ConnectionPool(String url, String user, String password, int minIdle, int maxSize,
+            long idleTimeoutMillis, long borrowTimeoutMillis, long validationIntervalMillis,
+            int validationTimeoutSeconds, int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool max size must be positive: " + maxSize);
+        }
+        if (minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Pool min idle must be between 0 and " + maxSize + ": " + minIdle);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "spm-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictAndRefill, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout for one to become free.
+     *
+     * @return A pooled connection; closing it returns it to the pool
+     * @throws SQLException If the pool is closed, the wait times out or a connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        waiters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLException("Timed out after " + borrowTimeoutMillis
+                    + " ms waiting for a database connection (" + getStats() + ")");
+        }
+
+        try {
+            PooledEntry entry = takeIdleOrCreate();
+            active.incrementAndGet();
+            recordBorrow(System.nanoTime() - start);
+            return wrap(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool connections use the configured credentials");
+    }
+
+    /**
+     * Takes the most recently used idle connection, validating it if it has been idle
+     * for a while, or opens a new one when the pool has nothing usable.
+     */
+    private PooledEntry takeIdleOrCreate() throws SQLException {
+        long deadline = System.currentTimeMillis() + borrowTimeoutMillis;
+        while (true) {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                long idleFor = System.currentTimeMillis() - entry.lastReturned;
+                if (idleFor < validationIntervalMillis || isUsable(entry.connection)) {
+                    return entry;
+                }
+                LOGGER.log(Level.FINE, "Discarding stale pooled connection after {0} ms idle", idleFor);
+                closePhysical(entry);
+            }
+            if (reserveSlot()) {
+                return openPhysical();
+            }
+            // Every slot is taken, yet this caller holds a permit, so a connection is idle
+            // or being opened by the evictor; wait for it rather than exceed the max size.
+            // The wait is short so a slot freed by a failed open is claimed again.
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                timeoutCount.increment();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (" + getStats() + ")");
+            }
+            try {
+                entry = idle.pollFirst(Math.min(remaining, SLOT_WAIT_MILLIS), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (entry != null) {
+                // Put back so the loop validates it like any other idle connection
+                idle.offerFirst(entry);
+            }
+        }
+    }
+
+    /**
+     * Claims room for one more physical connection, so concurrent borrowers and the
+     * evictor can never open more than the max size between them.
+     *
+     * @return true if a slot was claimed; the caller must then call {@link #openPhysical()}
+     */
+    private boolean reserveSlot() {
+        int total;
+        do {
+            total = totalConnections.get();
+            if (total >= maxSize) {
+                return false;
+            }
+        } while (!totalConnections.compareAndSet(total, total + 1));
+        return true;
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a physical connection in a slot claimed by {@link #reserveSlot()}. The slot
+     * is given back if the connection cannot be opened.
+     */
+    private PooledEntry openPhysical() throws SQLException {
+        Connection connection;
+        try {
+            connection = DriverManager.getConnection(url, user, password);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+        StatementCache cache = statementCacheSize > 0
+                ? new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses)
+                : null;
+        return new PooledEntry(connection, cache);
+    }
+
+    private void closePhysical(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        if (entry.statementCache != null) {
+            entry.statementCache.closeAll();
+        }
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing pooled connection: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a connection to the pool, resetting any statement and transaction state the
+     * caller left behind.
+     */
+    private void release(PooledEntry entry) {
+        active.decrementAndGet();
+        try {
+            if (entry.statementCache != null) {
+                int leaked = entry.statementCache.checkinAll();
+                if (leaked > 0) {
+                    LOGGER.log(Level.WARNING, "Connection returned with {0} statement(s) still open", leaked);
+                }
+            }
+            boolean reusable = !closed.get() && !entry.connection.isClosed();
+            if (reusable && !entry.connection.getAutoCommit()) {
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            if (reusable) {
+                entry.lastReturned = System.currentTimeMillis();
+                idle.offerFirst(entry);
+            } else {
+                closePhysical(entry);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Discarding connection that failed to reset: {0}", e.getMessage());
+            closePhysical(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections idle for longer than the idle timeout (down to the minimum idle
+     * count) and opens new ones to keep the minimum idle count warm.
+     */
+    private void evictAndRefill() {
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledEntry entry = it.next();
+                if (now - entry.lastReturned > idleTimeoutMillis && idle.remove(entry)) {
+                    closePhysical(entry);
+                }
+            }
+
+            while (!closed.get() && idle.size() < minIdle && reserveSlot()) {
+                PooledEntry entry = openPhysical();
+                entry.lastReturned = System.currentTimeMillis();
+                idle.offerLast(entry);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Could not refill connection pool: {0}", e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unexpected error in connection pool evictor", e);
+        }
+    }
+
+    private void recordBorrow(long nanos) {
+        borrowCount.increment();
+        borrowNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxBorrowNanos.get())) {
+            if (maxBorrowNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Wraps a physical connection in a proxy that returns it to the pool on close.
+     */
+    protected Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(entry));
+    }
+
+    /**
+     * Gets a snapshot of the pool counters.
+     *
+     * @return The current pool statistics
+     */
+    public Stats getStats() {
+        long borrows = borrowCount.sum();
+        double avgMillis = borrows > 0 ? borrowNanos.sum() / (double) borrows / 1_000_000.0 : 0.0;
+        return new Stats(active.get(), idle.size(), waiters.get(), totalConnections.get(), maxSize,
+                borrows, timeoutCount.sum(), avgMillis, maxBorrowNanos.get() / 1_000_000.0,
+                statementCacheHits.sum(), statementCacheMisses.sum());
+    }
+
+    /**
+     * Closes every idle connection and stops the evictor. Connections still checked out
+     * are closed when they are returned.
+     */
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            evictor.shutdownNow();
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                closePhysical(entry);
+            }
+            LOGGER.log(Level.INFO, "Connection pool closed");
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // Logging goes through java.util.logging
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    protected static class PooledEntry {
+        final Connection connection;
+        final StatementCache statementCache;
+        volatile long lastReturned;
+
+        PooledEntry(Connection connection, StatementCache statementCache) {
+            this.connection = connection;
+            this.statementCache = statementCache;
+            this.lastReturned = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Proxy handler that intercepts {@code close()} and forwards everything else
+     * to the physical connection.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned;
+
+        PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.connection + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (entry.statementCache != null && name.equals("prepareStatement")) {
+                PreparedStatement cached = prepareCached(proxy, args);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Serves {@code prepareStatement(sql)}, {@code prepareStatement(sql, autoGeneratedKeys)}
+         * and the forward-only, read-only {@code prepareStatement(sql, type, concurrency)},
+         * which is the same statement as the first, from the statement cache; other
+         * overloads return null and go to the driver.
+         */
+        private PreparedStatement prepareCached(Object proxy, Object[] args) throws SQLException {
+            if (args.length == 1) {
+                return entry.statementCache.prepare((Connection) proxy, entry.connection,
+                        (String) args[0], Statement.NO_GENERATED_KEYS);
+            }
+            if (args.length == 2 && args[1] instanceof Integer) {
+                return entry.statementCache.prepare((Connection) proxy, entry.connection,
+                        (String) args[0], (Integer) args[1]);
+            }
+            if (args.length == 3 && ResultSet.TYPE_FORWARD_ONLY == (Integer) args[1]
+                    && ResultSet.CONCUR_READ_ONLY == (Integer) args[2]) {
+                return entry.statementCache.prepare((Connection) proxy, entry.connection,
+                        (String) args[0], Statement.NO_GENERATED_KEYS);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Immutable snapshot of pool counters.
+     */
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final int waiters;
+        private final int total;
+        private final int maxSize;
+        private final long borrowCount;
+        private final long timeoutCount;
+        private final double averageBorrowMillis;
+        private final double maxBorrowMillis;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        public Stats(int active, int idle, int waiters, int total, int maxSize, long borrowCount,
+                long timeoutCount, double averageBorrowMillis, double maxBorrowMillis,
+                long statementCacheHits, long statementCacheMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.waiters = waiters;
+            this.total = total;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.timeoutCount = timeoutCount;
+            this.averageBorrowMillis = averageBorrowMillis;
+            this.maxBorrowMillis = maxBorrowMillis;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getWaiters() { return waiters; }
+        public int getTotal() { return total; }
+        public int getMaxSize() { return maxSize; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public double getAverageBorrowMillis() { return averageBorrowMillis; }
+        public double getMaxBorrowMillis() { return maxBorrowMillis; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        public double getStatementCacheHitRate() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups > 0 ? (double) statementCacheHits / lookups : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{active=%d, idle=%d, waiters=%d, total=%d/%d, borrows=%d, timeouts=%d, "
+                    + "avgBorrow=%.3fms, maxBorrow=%.3fms, stmtCacheHits=%d, stmtCacheMisses=%d}",
+                    active, idle, waiters, total, maxSize, borrowCount, timeoutCount,
+                    averageBorrowMillis, maxBorrowMillis, statementCacheHits, statementCacheMisses);
+        }
+    }
+}
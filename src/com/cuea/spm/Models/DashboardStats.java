@@ -0,0 +1,67 @@
+package com.cuea.spm.Models;
+
+/**
+ * The figures shown on the dashboard's summary cards, as loaded in one query by
+ * {@link com.cuea.spm.Dao.DashboardDAO}.
+ *
+ * @author StudentManagementSystem
+ */
+public class DashboardStats {
+    private final int totalStudents;
+    private final int totalCourses;
+    private final int activeEnrollments;
+    private final int completedEnrollments;
+    private final double averageGrade;
+    private final int attendanceSessions;
+    private final int attendancePresent;
+    private final int previousAttendanceSessions;
+    private final int previousAttendancePresent;
+
+    public DashboardStats(int totalStudents, int totalCourses, int activeEnrollments,
+                          int completedEnrollments, double averageGrade,
+                          int attendanceSessions, int attendancePresent,
+                          int previousAttendanceSessions, int previousAttendancePresent) {
+        this.totalStudents = totalStudents;
+        this.totalCourses = totalCourses;
+        this.activeEnrollments = activeEnrollments;
+        this.completedEnrollments = completedEnrollments;
+        this.averageGrade = averageGrade;
+        this.attendanceSessions = attendanceSessions;
+        this.attendancePresent = attendancePresent;
+        this.previousAttendanceSessions = previousAttendanceSessions;
+        this.previousAttendancePresent = previousAttendancePresent;
+    }
+
+    public int getTotalStudents() { return totalStudents; }
+    public int getTotalCourses() { return totalCourses; }
+    public int getActiveEnrollments() { return activeEnrollments; }
+    public int getCompletedEnrollments() { return completedEnrollments; }
+    public double getAverageGrade() { return averageGrade; }
+    public int getAttendanceSessions() { return attendanceSessions; }
+    public int getAttendancePresent() { return attendancePresent; }
+    public int getPreviousAttendanceSessions() { return previousAttendanceSessions; }
+    public int getPreviousAttendancePresent() { return previousAttendancePresent; }
+
+    /**
+     * @return This month's attendance rate as a percentage to one decimal place,
+     *         or 0 if no attendance has been recorded
+     */
+    public double getAttendanceRate() {
+        return rate(attendancePresent, attendanceSessions);
+    }
+
+    /**
+     * @return Last month's attendance rate as a percentage to one decimal place,
+     *         or 0 if no attendance was recorded
+     */
+    public double getPreviousAttendanceRate() {
+        return rate(previousAttendancePresent, previousAttendanceSessions);
+    }
+
+    private static double rate(int present, int sessions) {
+        if (sessions == 0) {
+            return 0.0;
+        }
+        return Math.round((double) present / sessions * 1000) / 10.0;
+    }
+}
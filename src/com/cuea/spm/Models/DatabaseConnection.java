@@ -7,20 +7,188 @@ package com.cuea.spm.Models;
 
 
 
+import com.cuea.spm.Dao.QueryPlanVerifier;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/student_db";
+    private static final Logger LOGGER = Logger.getLogger(DatabaseConnection.class.getName());
+
+    private static final String URL = "jdbc:mysql://localhost:3306/student_db?useServerPrepStmts=true&rewriteBatchedStatements=true";
     private static final String USER = "root"; // Replace with your DB user
     private static final String PASSWORD = ""; // Replace with your DB pass
 
+    // Embedded mode (-Dspm.db.mode=embedded) runs an in-process H2 database in MySQL
+    // compatibility mode; set -Dspm.db.embedded.path=./data/student_db to keep it on disk.
+    // IGNORECASE makes string comparisons case-insensitive like MySQL's default collation
+    private static final String MODE_EMBEDDED = "embedded";
+    private static final String EMBEDDED_OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String EMBEDDED_USER = "sa";
+
+    // Pool sizing, overridable with -Dspm.db.pool.<name>=<value>
+    private static final int POOL_MIN_IDLE = Integer.getInteger("spm.db.pool.minIdle", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("spm.db.pool.maxSize", 10);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("spm.db.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("spm.db.pool.borrowTimeoutMs", 10_000L);
+    private static final long POOL_VALIDATION_INTERVAL_MS = Long.getLong("spm.db.pool.validationIntervalMs", 5_000L);
+    private static final int POOL_VALIDATION_TIMEOUT_S = Integer.getInteger("spm.db.pool.validationTimeoutS", 2);
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("spm.db.pool.statementCacheSize", 64);
+
+    private static volatile ConnectionPool pool;
+
+    /**
+     * Gets the shared pooled data source, creating it on first use.
+     *
+     * @return The application-wide connection pool
+     */
+    public static ConnectionPool getDataSource() {
+        ConnectionPool result = pool;
+        if (result == null) {
+            synchronized (DatabaseConnection.class) {
+                result = pool;
+                if (result == null) {
+                    boolean embedded = isEmbedded();
+                    String url = embedded ? embeddedUrl() : URL;
+                    String user = embedded ? EMBEDDED_USER : USER;
+                    String password = embedded ? "" : PASSWORD;
+                    result = new ConnectionPool(url, user, password, POOL_MIN_IDLE, POOL_MAX_SIZE,
+                            POOL_IDLE_TIMEOUT_MS, POOL_BORROW_TIMEOUT_MS, POOL_VALIDATION_INTERVAL_MS,
+                            POOL_VALIDATION_TIMEOUT_S, POOL_STATEMENT_CACHE_SIZE);
+                    if (embedded || Boolean.getBoolean("spm.db.migrate")) {
+                        migrateSchema(result);
+                    }
+                    pool = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Borrows a connection from the shared pool. Closing the returned connection
+     * hands it back to the pool.
+     *
+     * @return A pooled connection
+     */
     public static Connection getConnection() {
         try {
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("Database connected successfully");
-            return conn;
+            return getDataSource().getConnection();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to database", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets a snapshot of the shared pool's counters.
+     *
+     * @return The pool statistics
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return getDataSource().getStats();
+    }
+
+    /**
+     * Checks whether the application is configured to use the embedded database.
+     *
+     * @return true if {@code spm.db.mode} is {@code embedded}
+     */
+    public static boolean isEmbedded() {
+        return MODE_EMBEDDED.equalsIgnoreCase(System.getProperty("spm.db.mode"));
+    }
+
+    private static String embeddedUrl() {
+        String path = System.getProperty("spm.db.embedded.path");
+        String location = path != null && !path.trim().isEmpty() ? path.trim() : "mem:student_db";
+        return "jdbc:h2:" + location + EMBEDDED_OPTIONS;
+    }
+
+    /**
+     * Brings a database up to the current schema version, see {@link SchemaMigrator}.
+     * The embedded database is always migrated; a server database only when
+     * {@code -Dspm.db.migrate=true} is set.
+     */
+    private static void migrateSchema(ConnectionPool dataSource) {
+        try (Connection conn = dataSource.getConnection()) {
+            int applied = SchemaMigrator.migrate(conn);
+            LOGGER.log(Level.INFO, "Database schema ready, applied {0} migrations", applied);
+            if (Boolean.getBoolean("spm.db.verifyPlans")) {
+                QueryPlanVerifier.verifyOrThrow(conn);
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            dataSource.close();
+            throw new RuntimeException("Failed to migrate database schema", e);
+        }
+    }
+
+    /**
+     * Executes a semicolon-separated SQL script from the classpath. Lines starting
+     * with {@code --} are treated as comments.
+     *
+     * @param conn The connection to run the script on
+     * @param resource The classpath resource holding the script
+     * @return The number of statements executed
+     * @throws SQLException If a statement fails
+     * @throws IOException If the script cannot be read
+     */
+    public static int runScript(Connection conn, String resource) throws SQLException, IOException {
+        List<String> statements = readScript(resource);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+        return statements.size();
+    }
+
+    /**
+     * Splits a classpath SQL script into statements, without their trailing semicolons.
+     * Lines starting with {@code --} are treated as comments.
+     *
+     * @param resource The classpath resource holding the script
+     * @return The statements in order
+     * @throws IOException If the script cannot be read
+     */
+    static List<String> readScript(String resource) throws IOException {
+        InputStream in = DatabaseConnection.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("SQL script not found on classpath: " + resource);
+        }
+
+        List<String> statements = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Closes the shared pool, if one was created.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+}
@@ -17,6 +17,8 @@ public class Enrollment {
     private int courseId;
     private LocalDate enrollmentDate;
     private EnrollmentStatus status;
+    private Double finalMark;
+    private String gradeLetter;
 
     public Object getEnrollmentId() {
         throw new UnsupportedOperationException("Not supported yet."); // Generated from nbfs://nbhost/SystemFileSystem/Templates/Classes/Code/GeneratedMethodBody
@@ -197,6 +199,42 @@ public class Enrollment {
         this.status = status;
     }
     
+    /**
+     * Gets the weighted final mark computed from the student's grades in the course.
+     *
+     * @return the final mark out of 100, or null if it has not been computed
+     */
+    public Double getFinalMark() {
+        return finalMark;
+    }
+
+    /**
+     * Sets the weighted final mark.
+     *
+     * @param finalMark the final mark out of 100, or null
+     */
+    public void setFinalMark(Double finalMark) {
+        this.finalMark = finalMark;
+    }
+
+    /**
+     * Gets the letter grade of the final mark.
+     *
+     * @return the letter grade, or null if no final mark has been computed
+     */
+    public String getGradeLetter() {
+        return gradeLetter;
+    }
+
+    /**
+     * Sets the letter grade of the final mark.
+     *
+     * @param gradeLetter the letter grade, or null
+     */
+    public void setGradeLetter(String gradeLetter) {
+        this.gradeLetter = gradeLetter;
+    }
+
     /**
      * Validates if the enrollment date is valid.
      * A valid enrollment date is not null and not in the future.
@@ -295,6 +333,8 @@ public class Enrollment {
                 ", courseId=" + courseId +
                 ", enrollmentDate=" + enrollmentDate +
                 ", status=" + status +
+                ", finalMark=" + finalMark +
+                ", gradeLetter='" + gradeLetter + '\'' +
                 '}';
     }
     
@@ -313,7 +353,9 @@ public class Enrollment {
                 studentId == that.studentId &&
                 courseId == that.courseId &&
                 Objects.equals(enrollmentDate, that.enrollmentDate) &&
-                status == that.status;
+                status == that.status &&
+                Objects.equals(finalMark, that.finalMark) &&
+                Objects.equals(gradeLetter, that.gradeLetter);
     }
     
     /**
@@ -323,6 +365,6 @@ public class Enrollment {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(id, studentId, courseId, enrollmentDate, status);
+        return Objects.hash(id, studentId, courseId, enrollmentDate, status, finalMark, gradeLetter);
     }
 }
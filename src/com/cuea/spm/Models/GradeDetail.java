@@ -0,0 +1,29 @@
+package com.cuea.spm.Models;
+
+
+
+import java.util.Date;
+
+/**
+ * A grade together with the display names of its student and course, as loaded by
+ * a single joined query for grade listings.
+ */
+public class GradeDetail extends Grade {
+    private String studentName; // null if the student no longer exists
+    private String courseName;  // null if the course no longer exists
+
+    public GradeDetail() {}
+
+    public GradeDetail(int gradeId, int studentId, int courseId, String assessmentType, double marks,
+                       String gradeLetter, int semester, Date dateRecorded, String studentName, String courseName) {
+        super(gradeId, studentId, courseId, assessmentType, marks, gradeLetter, semester, dateRecorded);
+        this.studentName = studentName;
+        this.courseName = courseName;
+    }
+
+    // Getters and Setters
+    public String getStudentName() { return studentName; }
+    public void setStudentName(String studentName) { this.studentName = studentName; }
+    public String getCourseName() { return courseName; }
+    public void setCourseName(String courseName) { this.courseName = courseName; }
+}
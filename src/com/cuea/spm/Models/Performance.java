@@ -16,6 +16,8 @@ public class Performance {
     private int totalCredits;
     private String remarks;     // Nullable TEXT field
     private Date calculatedAt;
+    private double cumulativeGpa;   // Over every semester up to this one; 0 for rows entered by hand
+    private int cumulativeCredits;
 
     // Constructors
     public Performance() {}
@@ -46,6 +48,10 @@ public class Performance {
     public void setRemarks(String remarks) { this.remarks = remarks; }
     public Date getCalculatedAt() { return calculatedAt; }
     public void setCalculatedAt(Date calculatedAt) { this.calculatedAt = calculatedAt; }
+    public double getCumulativeGpa() { return cumulativeGpa; }
+    public void setCumulativeGpa(double cumulativeGpa) { this.cumulativeGpa = cumulativeGpa; }
+    public int getCumulativeCredits() { return cumulativeCredits; }
+    public void setCumulativeCredits(int cumulativeCredits) { this.cumulativeCredits = cumulativeCredits; }
 
     // Overrides
     @Override
@@ -59,12 +65,15 @@ public class Performance {
                Double.compare(that.gpa, gpa) == 0 &&
                totalCredits == that.totalCredits &&
                Objects.equals(remarks, that.remarks) &&
-               Objects.equals(calculatedAt, that.calculatedAt);
+               Objects.equals(calculatedAt, that.calculatedAt) &&
+               Double.compare(that.cumulativeGpa, cumulativeGpa) == 0 &&
+               cumulativeCredits == that.cumulativeCredits;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(performanceId, studentId, semester, gpa, totalCredits, remarks, calculatedAt);
+        return Objects.hash(performanceId, studentId, semester, gpa, totalCredits, remarks, calculatedAt,
+                cumulativeGpa, cumulativeCredits);
     }
 
     @Override
@@ -77,6 +86,8 @@ public class Performance {
                ", totalCredits=" + totalCredits +
                ", remarks='" + remarks + '\'' +
                ", calculatedAt=" + calculatedAt +
+               ", cumulativeGpa=" + cumulativeGpa +
+               ", cumulativeCredits=" + cumulativeCredits +
                '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.cuea.spm.Models;
+
+import com.cuea.spm.Dao.QueryPlanVerifier;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Versioned schema migrations. Each migration is a SQL script on the classpath,
+ * applied once in version order and recorded in the {@code schema_version} table.
+ *
+ * <p>Scripts must be safe to re-run, because MySQL commits DDL as it goes and a
+ * migration that fails half-way is retried from the start: tables use
+ * {@code CREATE TABLE IF NOT EXISTS}, and a {@code CREATE INDEX} whose index name
+ * already exists on the table, or an {@code ALTER TABLE ... ADD COLUMN} whose column
+ * already exists, is skipped, which MySQL has no syntax for.</p>
+ *
+ * <p>Run {@code java com.cuea.spm.Models.SchemaMigrator --verify} to migrate the
+ * configured database and then check query plans with {@link QueryPlanVerifier}.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+    private static final String CREATE_VERSION_TABLE =
+            "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT PRIMARY KEY, "
+            + "description VARCHAR(200) NOT NULL, "
+            + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String SELECT_VERSIONS = "SELECT version FROM schema_version";
+    private static final String INSERT_VERSION =
+            "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final String CONSTRAINT_EXISTS = "SELECT 1 FROM information_schema.table_constraints "
+            + "WHERE table_schema IN (?, ?) AND LOWER(table_name) = LOWER(?) AND LOWER(constraint_name) = LOWER(?)";
+    private static final Pattern ADD_COLUMN = Pattern.compile(
+            "^ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+COLUMN\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * One schema change, identified by a version number that is never reused.
+     */
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final String resource;
+
+        public Migration(int version, String description, String resource) {
+            this.version = version;
+            this.description = description;
+            this.resource = resource;
+        }
+
+        public int getVersion() { return version; }
+        public String getDescription() { return description; }
+        public String getResource() { return resource; }
+    }
+
+    // Append new migrations at the end with the next version number; never edit one
+    // that has shipped
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new Migration(1, "Baseline schema", "/resources/schema.sql"),
+            new Migration(2, "Secondary indexes for DAO queries", "/resources/migrations/V2__query_indexes.sql"),
+            new Migration(3, "Attendance summary counters", "/resources/migrations/V3__attendance_summary.sql"),
+            new Migration(4, "Table versions for cache invalidation", "/resources/migrations/V4__table_versions.sql"),
+            new Migration(5, "Derived semester and cumulative GPA", "/resources/migrations/V5__performance_gpa.sql"),
+            new Migration(6, "Assessment weights and final marks", "/resources/migrations/V6__assessment_weights.sql"),
+            new Migration(7, "Attendance unique keys on older databases", "/resources/migrations/V7__attendance_unique_keys.sql")
+    ));
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * @return The known migrations in version order
+     */
+    public static List<Migration> getMigrations() {
+        return MIGRATIONS;
+    }
+
+    /**
+     * Applies every migration not yet recorded in {@code schema_version}.
+     *
+     * @param conn The connection to migrate; its auto-commit setting is restored
+     * @return The number of migrations applied
+     * @throws SQLException If a statement fails; earlier migrations stay applied
+     * @throws IOException If a script cannot be read
+     */
+    public static int migrate(Connection conn) throws SQLException, IOException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE);
+        }
+        Set<Integer> applied = getAppliedVersions(conn);
+
+        int count = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            conn.setAutoCommit(false);
+            for (Migration migration : MIGRATIONS) {
+                if (applied.contains(migration.getVersion())) {
+                    continue;
+                }
+                apply(conn, migration);
+                count++;
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return count;
+    }
+
+    /**
+     * @param conn The connection to read from
+     * @return The highest applied version, or 0 for an unmigrated database
+     * @throws SQLException If the version table cannot be read
+     */
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        int current = 0;
+        for (int version : getAppliedVersions(conn)) {
+            current = Math.max(current, version);
+        }
+        return current;
+    }
+
+    private static Set<Integer> getAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_VERSIONS)) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        int executed = 0;
+        int skipped = 0;
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : DatabaseConnection.readScript(migration.getResource())) {
+                Matcher index = CREATE_INDEX.matcher(sql.trim());
+                if (index.find() && indexExists(conn, index.group(2), index.group(1))) {
+                    skipped++;
+                    continue;
+                }
+                Matcher column = ADD_COLUMN.matcher(sql.trim());
+                if (column.find() && columnExists(conn, column.group(1), column.group(2))) {
+                    skipped++;
+                    continue;
+                }
+                stmt.execute(sql);
+                executed++;
+            }
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_VERSION)) {
+                insert.setInt(1, migration.getVersion());
+                insert.setString(2, migration.getDescription());
+                insert.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | IOException e) {
+            conn.rollback();
+            throw e;
+        }
+        LOGGER.log(Level.INFO, "Applied migration {0} ({1}): {2} statements, {3} existing indexes or columns skipped, {4} ms",
+                new Object[]{migration.getVersion(), migration.getDescription(), executed, skipped,
+                    System.currentTimeMillis() - start});
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        // Identifiers are stored lower case by MySQL on most platforms and by the
+        // embedded database (DATABASE_TO_LOWER), upper case by default elsewhere
+        for (String name : new String[]{table, table.toLowerCase(), table.toUpperCase()}) {
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, name, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        // The embedded database names the index behind a UNIQUE KEY after the key with a
+        // suffix, so look the key up as a constraint too
+        try (PreparedStatement stmt = conn.prepareStatement(CONSTRAINT_EXISTS)) {
+            stmt.setString(1, conn.getCatalog());
+            stmt.setString(2, conn.getSchema());
+            stmt.setString(3, table);
+            stmt.setString(4, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : new String[]{table, table.toLowerCase(), table.toUpperCase()}) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, name, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Migrates the configured database, and with {@code --verify} also checks the
+     * registered query plans. Exits with status 1 on any failure.
+     *
+     * @param args {@code --verify} to run {@link QueryPlanVerifier} afterwards
+     */
+    public static void main(String[] args) {
+        boolean verify = Arrays.asList(args).contains("--verify");
+        int status = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int applied = migrate(conn);
+            System.out.println("Applied " + applied + " migrations, schema version "
+                    + getCurrentVersion(conn));
+            if (verify) {
+                List<String> fullScans = QueryPlanVerifier.verify(conn);
+                for (String failure : fullScans) {
+                    System.out.println("FULL SCAN: " + failure);
+                }
+                System.out.println(QueryPlanVerifier.getQueries().size() + " queries checked, "
+                        + fullScans.size() + " full scans");
+                status = fullScans.isEmpty() ? 0 : 1;
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Schema migration failed", e);
+            status = 1;
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+        System.exit(status);
+    }
+}
@@ -0,0 +1,269 @@
+package com.cuea.spm.Models;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded LRU cache of prepared statements for a single pooled connection.
+ * Statements are keyed by SQL text plus the generated-keys flag. A cached statement
+ * is handed out wrapped in a proxy whose {@code close()} closes its open result set,
+ * clears its parameters, restores the fetch size, row limit and query timeout it was
+ * prepared with, and returns it to the cache instead of closing it.
+ *
+ * <p>Every statement handed out, cached or not, reports the pooled connection proxy
+ * from {@code getConnection()}. Statements the borrower never closed are checked in by
+ * {@link #checkinAll()} when the connection goes back to the pool.</p>
+ *
+ * <p>A pooled connection is only used by one thread at a time, so the cache itself
+ * is not synchronized.</p>
+ *
+ * @author StudentManagementSystem
+ */
+class StatementCache {
+
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, CachedStatement> statements;
+    // Checkouts not closed yet, cached or not
+    private final Set<CheckoutHandler> outstanding = new LinkedHashSet<>();
+
+    /**
+     * Creates a cache holding at most {@code maxSize} statements.
+     *
+     * @param maxSize The maximum number of cached statements
+     * @param hits Shared counter incremented on every cache hit
+     * @param misses Shared counter incremented on every cache miss
+     */
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a cached statement for the SQL, preparing and caching one on a miss.
+     * If the cached statement is still open from an earlier call on the same connection,
+     * a fresh uncached statement is prepared instead.
+     *
+     * @param owner The connection proxy that callers see via {@code getConnection()}
+     * @param physical The physical connection the statement is prepared on
+     * @param sql The SQL text
+     * @param autoGeneratedKeys {@link java.sql.Statement#RETURN_GENERATED_KEYS} or
+     *        {@link java.sql.Statement#NO_GENERATED_KEYS}
+     * @return A prepared statement; closing it returns it to the cache
+     * @throws SQLException If the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection owner, Connection physical, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse && cached.statement.isClosed()) {
+            // Closed by the driver or by a failed checkin; prepare it again
+            statements.remove(key);
+            cached = null;
+        }
+        if (cached != null) {
+            if (cached.inUse) {
+                // Same SQL already open on this connection; don't share the cursor
+                misses.increment();
+                return checkout(physical.prepareStatement(sql, autoGeneratedKeys), null, owner);
+            }
+            hits.increment();
+        } else {
+            misses.increment();
+            cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, cached);
+            evictIfNeeded();
+        }
+        cached.inUse = true;
+        return checkout(cached.statement, cached, owner);
+    }
+
+    private PreparedStatement checkout(PreparedStatement statement, CachedStatement cached, Connection owner) {
+        CheckoutHandler handler = new CheckoutHandler(statement, cached, owner);
+        outstanding.add(handler);
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                handler);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next().getValue();
+            it.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                closeQuietly(eldest.statement);
+            }
+        }
+    }
+
+    /**
+     * Checks in every statement its borrower has not closed, as if it had been. Their
+     * proxies then behave as closed, so a leaked reference cannot reach a statement
+     * the next borrower is using.
+     *
+     * @return The number of statements that were still checked out
+     */
+    int checkinAll() {
+        int count = outstanding.size();
+        for (CheckoutHandler handler : new ArrayList<>(outstanding)) {
+            try {
+                handler.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error checking in statement: {0}", e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Closes every cached statement. Called when the physical connection is discarded.
+     */
+    void closeAll() {
+        checkinAll();
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing cached statement: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * A cached physical statement and its checkout state.
+     */
+    private static class CachedStatement {
+        final PreparedStatement statement;
+        // Driver defaults, restored on checkin so one caller's settings don't leak to the next
+        final int defaultFetchSize;
+        final int defaultMaxRows;
+        final int defaultQueryTimeout;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+        }
+
+        void checkin() throws SQLException {
+            inUse = false;
+            if (evicted || statement.isClosed()) {
+                closeQuietly(statement);
+                return;
+            }
+            try {
+                // An open streaming result would block the next statement on the connection
+                ResultSet rs = statement.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                // Row limit first: some drivers reject a fetch size above a non-zero limit
+                if (statement.getMaxRows() != defaultMaxRows) {
+                    statement.setMaxRows(defaultMaxRows);
+                }
+                if (statement.getFetchSize() != defaultFetchSize) {
+                    statement.setFetchSize(defaultFetchSize);
+                }
+                if (statement.getQueryTimeout() != defaultQueryTimeout) {
+                    statement.setQueryTimeout(defaultQueryTimeout);
+                }
+            } catch (SQLException e) {
+                // Not reusable in an unknown state; prepare() replaces a closed statement
+                closeQuietly(statement);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Proxy handler for one checkout of a statement. A cached statement goes back to
+     * the cache on close; an uncached one is closed.
+     */
+    private class CheckoutHandler implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed;
+
+        CheckoutHandler(PreparedStatement statement, CachedStatement cached, Connection owner) {
+            this.statement = statement;
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            outstanding.remove(this);
+            if (cached != null) {
+                cached.checkin();
+            } else {
+                statement.close();
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return (cached != null ? "CachedStatement[" : "PooledStatement[") + statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
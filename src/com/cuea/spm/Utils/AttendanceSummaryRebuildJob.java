@@ -0,0 +1,76 @@
+package com.cuea.spm.Utils;
+
+import com.cuea.spm.Controllers.AttendanceController;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically rebuilds the attendance summary counters from the attendance records,
+ * so any drift, e.g. from records edited directly in the database, does not persist.
+ *
+ * <p>The interval is {@code -Dspm.attendance.summaryRebuildMinutes}, default once a
+ * day; 0 disables the job. The first rebuild runs a few minutes after start-up to
+ * keep it out of the way of the login screen and the first dashboard load.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class AttendanceSummaryRebuildJob {
+
+    private static final Logger LOGGER = Logger.getLogger(AttendanceSummaryRebuildJob.class.getName());
+
+    private static final long INTERVAL_MINUTES = Long.getLong("spm.attendance.summaryRebuildMinutes", 24 * 60);
+    private static final long INITIAL_DELAY_MINUTES = 10;
+
+    private static ScheduledExecutorService scheduler;
+
+    private AttendanceSummaryRebuildJob() {
+    }
+
+    /**
+     * Schedules the rebuild on a daemon thread, unless it is disabled or already scheduled.
+     */
+    public static synchronized void start() {
+        if (scheduler != null || INTERVAL_MINUTES <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "spm-attendance-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(AttendanceSummaryRebuildJob::runOnce,
+                Math.min(INITIAL_DELAY_MINUTES, INTERVAL_MINUTES), INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Cancels future rebuilds; one already running finishes.
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Rebuilds the summary on the calling thread.
+     *
+     * @return true if the rebuild succeeded
+     */
+    public static boolean runOnce() {
+        try {
+            AttendanceController.Result<Integer> result = new AttendanceController().rebuildAttendanceSummary();
+            if (!result.isSuccess()) {
+                LOGGER.log(Level.WARNING, "Scheduled attendance summary rebuild failed: {0}", result.getMessage());
+            }
+            return result.isSuccess();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; an exception would cancel later runs
+            LOGGER.log(Level.SEVERE, "Scheduled attendance summary rebuild failed", e);
+            return false;
+        }
+    }
+}
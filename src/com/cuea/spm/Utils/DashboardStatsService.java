@@ -0,0 +1,244 @@
+package com.cuea.spm.Utils;
+
+import com.cuea.spm.Controllers.CourseController;
+import com.cuea.spm.Dao.AttendanceDAO;
+import com.cuea.spm.Dao.DashboardDAO;
+import com.cuea.spm.Dao.EnrollmentDAO;
+import com.cuea.spm.Dao.EntityChangeListener;
+import com.cuea.spm.Dao.GradeDAO;
+import com.cuea.spm.Dao.StudentDAO;
+import com.cuea.spm.Dao.TableVersions;
+import com.cuea.spm.Models.Attendance;
+import com.cuea.spm.Models.Course;
+import com.cuea.spm.Models.DashboardStats;
+import com.cuea.spm.Models.Enrollment;
+import com.cuea.spm.Models.Grade;
+import com.cuea.spm.Models.Student;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the dashboard figures in memory so opening the dashboard does not wait for
+ * the database.
+ *
+ * <p>{@link #getStats()} returns the last snapshot at once, even if it is out of date,
+ * and starts a refresh in the background when it is; listeners receive each new
+ * snapshot. The snapshot is refreshed every
+ * {@code -Dspm.dashboard.refreshSeconds} (default 60) once {@link #start()} is called,
+ * and shortly after any write reported through {@link #markStale()} or the student,
+ * course, grade, enrollment and attendance change listeners. Writes arriving close together share one refresh.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class DashboardStatsService {
+
+    private static final Logger LOGGER = Logger.getLogger(DashboardStatsService.class.getName());
+
+    private static final long REFRESH_SECONDS = Long.getLong("spm.dashboard.refreshSeconds", 60);
+    // Lets a burst of writes, e.g. marking a whole class, settle before recounting
+    private static final long WRITE_DELAY_MILLIS = 2000;
+
+    private static volatile DashboardStatsService instance;
+
+    private final DashboardDAO dashboardDAO;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "spm-dashboard-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Consumer<DashboardStats>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private boolean started;
+
+    // Written only on the executor thread
+    private volatile DashboardStats stats;
+    private volatile long refreshedAt;
+    // Set by writes, cleared when a refresh starts
+    private volatile boolean stale = true;
+
+    private final EntityChangeListener<Student> studentListener = (type, id, student) -> {
+        if (type != EntityChangeListener.ChangeType.UPDATE) {
+            markStale();
+        }
+    };
+
+    private final EntityChangeListener<Course> courseListener = (type, id, course) -> {
+        if (type != EntityChangeListener.ChangeType.UPDATE) {
+            markStale();
+        }
+    };
+
+    // Every grade write moves the average grade
+    private final EntityChangeListener<Grade> gradeListener = (type, id, grade) -> markStale();
+
+    // Enrollment and attendance writes made through the DAOs directly, e.g. by the
+    // attendance and enrollment forms, move the enrollment and attendance figures
+    private final EntityChangeListener<Enrollment> enrollmentListener = (type, id, enrollment) -> markStale();
+    private final EntityChangeListener<Attendance> attendanceListener = (type, id, attendance) -> markStale();
+
+    /**
+     * Gets the application-wide service, registering it for student, course, grade,
+     * enrollment and attendance changes on first use. Student and course changes made
+     * by other clients are included.
+     *
+     * @return The shared service
+     */
+    public static DashboardStatsService getInstance() {
+        DashboardStatsService result = instance;
+        if (result == null) {
+            synchronized (DashboardStatsService.class) {
+                result = instance;
+                if (result == null) {
+                    result = new DashboardStatsService(new DashboardDAO());
+                    StudentDAO.addChangeListener(result.studentListener);
+                    CourseController.addChangeListener(result.courseListener);
+                    GradeDAO.addChangeListener(result.gradeListener);
+                    EnrollmentDAO.addChangeListener(result.enrollmentListener);
+                    AttendanceDAO.addChangeListener(result.attendanceListener);
+                    TableVersions.getInstance().addListener(TableVersions.STUDENTS, result::markStale);
+                    TableVersions.getInstance().addListener(TableVersions.COURSES, result::markStale);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param dashboardDAO The DAO the figures are loaded from
+     */
+    private DashboardStatsService(DashboardDAO dashboardDAO) {
+        this.dashboardDAO = dashboardDAO;
+    }
+
+    /**
+     * Loads the first snapshot in the background and schedules the periodic refresh,
+     * unless already started. With a refresh interval of 0 only reads and writes
+     * trigger refreshes.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        if (REFRESH_SECONDS > 0) {
+            executor.scheduleWithFixedDelay(this::scheduledRefresh, 0, REFRESH_SECONDS, TimeUnit.SECONDS);
+        } else {
+            requestRefresh(0);
+        }
+    }
+
+    /**
+     * Gets the latest snapshot without waiting. If it is out of date a refresh is
+     * started, and listeners receive its result.
+     *
+     * @return The latest figures, or null if none have been loaded yet
+     */
+    public DashboardStats getStats() {
+        if (stale || isExpired()) {
+            requestRefresh(0);
+        }
+        return stats;
+    }
+
+    /**
+     * @return When the current snapshot was loaded, in epoch milliseconds, or 0 if none has been
+     */
+    public long getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * Reports a write that changes the dashboard figures, such as an enrollment or an
+     * attendance record. The snapshot is refreshed shortly afterwards.
+     */
+    public void markStale() {
+        stale = true;
+        requestRefresh(WRITE_DELAY_MILLIS);
+    }
+
+    /**
+     * Registers a listener called on a background thread with each new snapshot, or
+     * with null if a refresh fails before any snapshot has been loaded.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(Consumer<DashboardStats> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener(Consumer)}.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeListener(Consumer<DashboardStats> listener) {
+        listeners.remove(listener);
+    }
+
+    private boolean isExpired() {
+        return REFRESH_SECONDS > 0
+                && System.currentTimeMillis() - refreshedAt > TimeUnit.SECONDS.toMillis(REFRESH_SECONDS);
+    }
+
+    // At most one refresh is queued; later requests are served by it
+    private void requestRefresh(long delayMillis) {
+        if (refreshPending.compareAndSet(false, true)) {
+            executor.schedule(this::refresh, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduledRefresh() {
+        // Skip the tick if a read or write has only just refreshed the figures
+        if (System.currentTimeMillis() - refreshedAt >= WRITE_DELAY_MILLIS) {
+            stale = true;
+        }
+        refresh();
+    }
+
+    private void refresh() {
+        // Cleared before querying so a write during the query queues another refresh
+        refreshPending.set(false);
+        if (!stale && !isExpired()) {
+            return;
+        }
+        stale = false;
+        DashboardStats fresh;
+        try {
+            fresh = dashboardDAO.getDashboardStats(LocalDate.now());
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; an exception would cancel later runs
+            LOGGER.log(Level.SEVERE, "Dashboard statistics refresh failed", e);
+            fresh = null;
+        }
+        if (fresh == null) {
+            stale = true;
+            LOGGER.log(Level.WARNING, "Dashboard statistics could not be loaded; keeping the previous figures");
+            if (stats == null) {
+                notifyListeners(null);
+            }
+            return;
+        }
+        stats = fresh;
+        refreshedAt = System.currentTimeMillis();
+        notifyListeners(fresh);
+    }
+
+    private void notifyListeners(DashboardStats snapshot) {
+        for (Consumer<DashboardStats> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Dashboard statistics listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.cuea.spm.Utils;
+
+import com.cuea.spm.Controllers.GradeController;
+import com.cuea.spm.Dao.BatchResult;
+import com.cuea.spm.Dao.CourseDAO;
+import com.cuea.spm.Dao.GradeDAO;
+import com.cuea.spm.Dao.StudentDAO;
+import com.cuea.spm.Models.Grade;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams grades from a CSV file into the database.
+ *
+ * <p>The file is read a line at a time, so memory use depends on the chunk size rather
+ * than the file size. Each chunk of valid rows has its registration numbers and course
+ * codes resolved in bulk and is then written as one batched transaction through
+ * {@link GradeDAO#addGradeBatch(List)}. Rows that fail validation, reference an unknown
+ * student or course, or are rejected by the database are skipped and written to the
+ * error report together with their line number and the reason.</p>
+ *
+ * <p>The first line must be a header naming at least the columns
+ * {@code registration_number, course_code, assessment_type, marks, semester};
+ * an optional {@code grade_letter} column is used when present and otherwise the
+ * letter is derived from the marks.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class GradeCsvImporter {
+
+    /**
+     * Receives progress updates while an import runs. Called on the importing thread
+     * after every chunk.
+     */
+    public interface ProgressListener {
+        void onProgress(long rowsRead, long imported, long rejected);
+    }
+
+    /**
+     * Totals for a finished import.
+     */
+    public static class ImportSummary {
+        private final long rowsRead;
+        private final long imported;
+        private final long rejected;
+        private final long elapsedMillis;
+        private final Path errorReport;
+
+        public ImportSummary(long rowsRead, long imported, long rejected, long elapsedMillis, Path errorReport) {
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+            this.errorReport = errorReport;
+        }
+
+        public long getRowsRead() { return rowsRead; }
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public Path getErrorReport() { return errorReport; }
+
+        /**
+         * @return Rows read per second over the whole import
+         */
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "ImportSummary{" +
+                   "rowsRead=" + rowsRead +
+                   ", imported=" + imported +
+                   ", rejected=" + rejected +
+                   ", elapsedMillis=" + elapsedMillis +
+                   '}';
+        }
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 2000;
+
+    private static final String COL_REGISTRATION_NUMBER = "registration_number";
+    private static final String COL_COURSE_CODE = "course_code";
+    private static final String COL_ASSESSMENT_TYPE = "assessment_type";
+    private static final String COL_MARKS = "marks";
+    private static final String COL_SEMESTER = "semester";
+    private static final String COL_GRADE_LETTER = "grade_letter";
+    private static final List<String> REQUIRED_COLUMNS = Arrays.asList(
+            COL_REGISTRATION_NUMBER, COL_COURSE_CODE, COL_ASSESSMENT_TYPE, COL_MARKS, COL_SEMESTER);
+    private static final Set<String> ASSESSMENT_TYPES = new HashSet<>(Arrays.asList("ASSIGNMENT", "CAT", "EXAM"));
+
+    private final GradeDAO gradeDAO;
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final int chunkSize;
+
+    // Resolved ids for the lifetime of one import, keyed by key(); a null value records a key the database does not know
+    private final Map<String, Integer> studentIds = new HashMap<>();
+    private final Map<String, Integer> courseIds = new HashMap<>();
+
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private BufferedWriter errorWriter;
+
+    public GradeCsvImporter() {
+        this(new GradeDAO(), new StudentDAO(), new CourseDAO(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public GradeCsvImporter(GradeDAO gradeDAO, StudentDAO studentDAO, CourseDAO courseDAO, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.gradeDAO = gradeDAO;
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every row of a CSV file. Valid rows are committed chunk by chunk, so rows
+     * imported before a failure stay in the database.
+     *
+     * @param csvFile The CSV file to read
+     * @param errorReport The file rejected rows are written to, or null for no report
+     * @param listener Receives progress after every chunk; may be null
+     * @return The import totals
+     * @throws IOException If the file cannot be read, the header is invalid, or the
+     *         error report cannot be written
+     */
+    public synchronized ImportSummary importFile(Path csvFile, Path errorReport, ProgressListener listener)
+            throws IOException {
+        long startTime = System.currentTimeMillis();
+        rowsRead = 0;
+        imported = 0;
+        rejected = 0;
+        studentIds.clear();
+        courseIds.clear();
+
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             BufferedWriter writer = errorReport != null
+                     ? Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8) : null) {
+            errorWriter = writer;
+            if (errorWriter != null) {
+                errorWriter.write("line,reason,row");
+                errorWriter.newLine();
+            }
+
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("CSV file is empty: " + csvFile);
+            }
+            if (headerLine.startsWith("\uFEFF")) {
+                headerLine = headerLine.substring(1);
+            }
+            Map<String, Integer> columns = readHeader(headerLine);
+
+            Date recordedAt = new Date();
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                rowsRead++;
+                PendingRow row = parseRow(lineNumber, line, columns, recordedAt);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk);
+                    chunk.clear();
+                    fireProgress(listener);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk);
+            }
+            fireProgress(listener);
+        } finally {
+            errorWriter = null;
+        }
+
+        return new ImportSummary(rowsRead, imported, rejected, System.currentTimeMillis() - startTime, errorReport);
+    }
+
+    private Map<String, Integer> readHeader(String headerLine) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(headerLine);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("CSV header is missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Validates one line and turns it into a pending grade. Invalid lines are reported
+     * and null is returned.
+     */
+    private PendingRow parseRow(long lineNumber, String line, Map<String, Integer> columns, Date recordedAt)
+            throws IOException {
+        List<String> fields = parseCsvLine(line);
+        String registrationNumber = field(fields, columns, COL_REGISTRATION_NUMBER);
+        String courseCode = field(fields, columns, COL_COURSE_CODE);
+        String assessmentType = field(fields, columns, COL_ASSESSMENT_TYPE).toUpperCase(Locale.ROOT);
+        String marksText = field(fields, columns, COL_MARKS);
+        String semesterText = field(fields, columns, COL_SEMESTER);
+        String gradeLetter = field(fields, columns, COL_GRADE_LETTER);
+
+        if (registrationNumber.isEmpty()) {
+            reject(lineNumber, line, "Missing registration number");
+            return null;
+        }
+        if (courseCode.isEmpty()) {
+            reject(lineNumber, line, "Missing course code");
+            return null;
+        }
+        if (!ASSESSMENT_TYPES.contains(assessmentType)) {
+            reject(lineNumber, line, "Assessment type must be one of " + ASSESSMENT_TYPES);
+            return null;
+        }
+        if (!ValidationUtils.isValidGrade(marksText, 0, 100)) {
+            reject(lineNumber, line, "Marks must be a number between 0 and 100");
+            return null;
+        }
+        int semester;
+        try {
+            semester = Integer.parseInt(semesterText);
+        } catch (NumberFormatException e) {
+            semester = 0;
+        }
+        if (semester <= 0) {
+            reject(lineNumber, line, "Semester must be a positive whole number");
+            return null;
+        }
+        double marks = Double.parseDouble(marksText);
+        if (gradeLetter.isEmpty()) {
+            gradeLetter = GradeController.calculateGradeLetter(marks);
+        } else if (gradeLetter.length() > 2) {
+            reject(lineNumber, line, "Grade letter must be at most 2 characters");
+            return null;
+        }
+
+        Grade grade = new Grade(0, 0, 0, assessmentType, marks, gradeLetter, semester, recordedAt);
+        return new PendingRow(lineNumber, line, registrationNumber, courseCode, grade);
+    }
+
+    /**
+     * Resolves the chunk's keys and writes its grades in one transaction. If the database
+     * rejects specific rows the batch is retried once without them.
+     */
+    private void writeChunk(List<PendingRow> chunk) throws IOException {
+        if (!resolveIds(chunk)) {
+            for (PendingRow row : chunk) {
+                reject(row.lineNumber, row.line,
+                        "Database error: failed to look up registration numbers and course codes");
+            }
+            return;
+        }
+
+        List<PendingRow> ready = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            Integer studentId = studentIds.get(key(row.registrationNumber));
+            Integer courseId = courseIds.get(key(row.courseCode));
+            if (studentId == null) {
+                reject(row.lineNumber, row.line, "Unknown registration number: " + row.registrationNumber);
+            } else if (courseId == null) {
+                reject(row.lineNumber, row.line, "Unknown course code: " + row.courseCode);
+            } else {
+                row.grade.setStudentId(studentId);
+                row.grade.setCourseId(courseId);
+                ready.add(row);
+            }
+        }
+
+        for (int attempt = 0; attempt < 2 && !ready.isEmpty(); attempt++) {
+            List<Grade> grades = new ArrayList<>(ready.size());
+            for (PendingRow row : ready) {
+                grades.add(row.grade);
+            }
+            BatchResult result = gradeDAO.addGradeBatch(grades);
+            if (result.isSuccess()) {
+                imported += result.getWritten();
+                return;
+            }
+
+            Map<Integer, String> failures = result.getFailures();
+            if (attempt == 1 || failures.containsKey(BatchResult.BATCH_ERROR)) {
+                String reason = failures.containsKey(BatchResult.BATCH_ERROR)
+                        ? failures.get(BatchResult.BATCH_ERROR) : "Batch rolled back after a database error";
+                for (PendingRow row : ready) {
+                    reject(row.lineNumber, row.line, "Database error: " + reason);
+                }
+                return;
+            }
+
+            // The batch was rolled back; drop the rejected rows and send the rest again
+            List<PendingRow> retry = new ArrayList<>(ready.size());
+            for (int i = 0; i < ready.size(); i++) {
+                String failure = failures.get(i);
+                if (failure != null) {
+                    reject(ready.get(i).lineNumber, ready.get(i).line, "Database error: " + failure);
+                } else {
+                    retry.add(ready.get(i));
+                }
+            }
+            ready = retry;
+        }
+    }
+
+    /**
+     * Looks up the chunk's keys not resolved yet. Nothing is recorded for a lookup that
+     * failed, so a later chunk with the same keys tries again.
+     *
+     * @return false if a lookup failed
+     */
+    private boolean resolveIds(List<PendingRow> chunk) {
+        Set<String> newRegistrationNumbers = new LinkedHashSet<>();
+        Set<String> newCourseCodes = new LinkedHashSet<>();
+        for (PendingRow row : chunk) {
+            if (!studentIds.containsKey(key(row.registrationNumber))) {
+                newRegistrationNumbers.add(row.registrationNumber);
+            }
+            if (!courseIds.containsKey(key(row.courseCode))) {
+                newCourseCodes.add(row.courseCode);
+            }
+        }
+        if (!newRegistrationNumbers.isEmpty()) {
+            Map<String, Integer> found = studentDAO.getStudentIdsByRegistrationNumbers(newRegistrationNumbers);
+            if (found == null) {
+                return false;
+            }
+            for (String registrationNumber : newRegistrationNumbers) {
+                studentIds.put(key(registrationNumber), null);
+            }
+            for (Map.Entry<String, Integer> entry : found.entrySet()) {
+                studentIds.put(key(entry.getKey()), entry.getValue());
+            }
+        }
+        if (!newCourseCodes.isEmpty()) {
+            Map<String, Integer> found = courseDAO.getCourseIdsByCodes(newCourseCodes);
+            if (found == null) {
+                return false;
+            }
+            for (String courseCode : newCourseCodes) {
+                courseIds.put(key(courseCode), null);
+            }
+            for (Map.Entry<String, Integer> entry : found.entrySet()) {
+                courseIds.put(key(entry.getKey()), entry.getValue());
+            }
+        }
+        return true;
+    }
+
+    // The database may return a key in different case from the file, so both sides are normalised
+    private static String key(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private void reject(long lineNumber, String line, String reason) throws IOException {
+        rejected++;
+        if (errorWriter != null) {
+            errorWriter.write(lineNumber + "," + quote(reason) + "," + quote(line));
+            errorWriter.newLine();
+        }
+    }
+
+    private void fireProgress(ProgressListener listener) {
+        if (listener != null) {
+            listener.onProgress(rowsRead, imported, rejected);
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return "";
+        }
+        return fields.get(index).trim();
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Splits one CSV line into fields. Supports double-quoted fields containing commas
+     * and doubled quotes; quoted fields spanning lines are not supported.
+     *
+     * @param line The line to split
+     * @return The unquoted field values
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * A validated row waiting for its student and course IDs.
+     */
+    private static class PendingRow {
+        final long lineNumber;
+        final String line;
+        final String registrationNumber;
+        final String courseCode;
+        final Grade grade;
+
+        PendingRow(long lineNumber, String line, String registrationNumber, String courseCode, Grade grade) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.registrationNumber = registrationNumber;
+            this.courseCode = courseCode;
+            this.grade = grade;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.cuea.spm.Utils;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * BCrypt password hashing.
+ *
+ * <p>The cost factor is {@code -Dspm.auth.bcryptCost}, default 12. Hashes made with a
+ * different cost still verify; {@link #needsRehash(String)} reports them so they can
+ * be replaced at the next successful login. Passwords stored in plain text by older
+ * versions are accepted the same way until then.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public final class PasswordHasher {
+
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 31;
+    private static final int COST = Math.max(MIN_COST, Math.min(MAX_COST,
+            Integer.getInteger("spm.auth.bcryptCost", 12)));
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * @return The cost factor new hashes are made with
+     */
+    public static int getCost() {
+        return COST;
+    }
+
+    /**
+     * @param password The password
+     * @return A BCrypt hash of the password with the configured cost and a random salt
+     */
+    public static String hash(char[] password) {
+        return BCrypt.withDefaults().hashToString(COST, password);
+    }
+
+    /**
+     * Checks a password against a stored hash, or against a plain-text password left
+     * by an older version.
+     *
+     * @param password The password entered
+     * @param stored The stored hash or plain-text password
+     * @return true if they match
+     */
+    public static boolean verify(char[] password, String stored) {
+        if (stored == null) {
+            return false;
+        }
+        if (isHash(stored)) {
+            return BCrypt.verifyer().verify(password, stored.toCharArray()).verified;
+        }
+        // Constant time, like the BCrypt comparison
+        return MessageDigest.isEqual(toBytes(password), stored.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param stored The stored hash or plain-text password
+     * @return true if it is plain text or a hash with a cost other than the configured one
+     */
+    public static boolean needsRehash(String stored) {
+        return !isHash(stored) || costOf(stored) != COST;
+    }
+
+    /**
+     * @param stored A stored password
+     * @return true if it is a BCrypt hash, e.g. {@code $2a$12$...}
+     */
+    public static boolean isHash(String stored) {
+        return stored != null && stored.length() == 60 && stored.charAt(0) == '$' && stored.charAt(1) == '2'
+                && stored.charAt(3) == '$' && stored.charAt(6) == '$'
+                && Character.isDigit(stored.charAt(4)) && Character.isDigit(stored.charAt(5));
+    }
+
+    private static int costOf(String hash) {
+        return Integer.parseInt(hash.substring(4, 6));
+    }
+
+    private static byte[] toBytes(char[] password) {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
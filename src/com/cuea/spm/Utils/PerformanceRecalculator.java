@@ -0,0 +1,129 @@
+package com.cuea.spm.Utils;
+
+import com.cuea.spm.Controllers.PerformanceController;
+import com.cuea.spm.Dao.EntityChangeListener;
+import com.cuea.spm.Dao.GradeDAO;
+import com.cuea.spm.Models.Grade;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps performance rows in step with grades by recomputing only the students whose
+ * grades were added, changed or deleted.
+ *
+ * <p>Grade writes mark their student dirty; shortly afterwards the dirty students are
+ * recomputed together on a background thread with
+ * {@link PerformanceController#recomputeStudents(java.util.Collection)}. A burst of
+ * writes, such as a bulk edit of one course or a CSV import, therefore costs one
+ * recompute per student rather than one per grade.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class PerformanceRecalculator {
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceRecalculator.class.getName());
+
+    // Lets a burst of grade writes settle before recomputing
+    private static final long WRITE_DELAY_MILLIS = 2000;
+
+    private static volatile PerformanceRecalculator instance;
+
+    private final PerformanceController performanceController;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "spm-performance-recalc");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Integer> dirtyStudents = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recomputePending = new AtomicBoolean();
+
+    private final EntityChangeListener<Grade> gradeListener = (type, id, grade) -> {
+        if (grade != null) {
+            markDirty(grade.getStudentId());
+        }
+    };
+
+    /**
+     * Gets the application-wide recalculator, registering it for grade changes on first use.
+     *
+     * @return The shared recalculator
+     */
+    public static PerformanceRecalculator getInstance() {
+        PerformanceRecalculator result = instance;
+        if (result == null) {
+            synchronized (PerformanceRecalculator.class) {
+                result = instance;
+                if (result == null) {
+                    result = new PerformanceRecalculator(new PerformanceController());
+                    GradeDAO.addChangeListener(result.gradeListener);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param performanceController The controller that writes the rows
+     */
+    private PerformanceRecalculator(PerformanceController performanceController) {
+        this.performanceController = performanceController;
+    }
+
+    /**
+     * Queues a student for recomputation. Students queued close together are
+     * recomputed in one pass shortly afterwards.
+     *
+     * @param studentId The student whose grades changed
+     */
+    public void markDirty(int studentId) {
+        if (studentId <= 0) {
+            return;
+        }
+        dirtyStudents.add(studentId);
+        if (recomputePending.compareAndSet(false, true)) {
+            executor.schedule(this::recompute, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return The number of students waiting to be recomputed
+     */
+    public int getPendingCount() {
+        return dirtyStudents.size();
+    }
+
+    private void recompute() {
+        // Cleared before draining so a write during the recompute queues another pass
+        recomputePending.set(false);
+        List<Integer> studentIds = new ArrayList<>(dirtyStudents.size());
+        for (Iterator<Integer> it = dirtyStudents.iterator(); it.hasNext(); ) {
+            studentIds.add(it.next());
+            it.remove();
+        }
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        try {
+            PerformanceController.Result<Integer> result = performanceController.recomputeStudents(studentIds);
+            if (!result.isSuccess()) {
+                // Not requeued, so a broken database does not retry forever; the next
+                // grade write or a full recalculation repairs the rows
+                LOGGER.log(Level.WARNING, "Performance recompute for {0} students failed: {1}",
+                        new Object[]{studentIds.size(), result.getMessage()});
+            }
+        } catch (RuntimeException e) {
+            // Keep the executor usable; an exception would be lost with the task
+            LOGGER.log(Level.SEVERE, "Performance recompute failed", e);
+        }
+    }
+}
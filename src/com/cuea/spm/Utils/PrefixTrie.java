@@ -0,0 +1,253 @@
+package com.cuea.spm.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Compressed prefix trie (radix tree) mapping string keys to any number of values.
+ * Chains of single-child nodes are collapsed into one edge label, so the tree has at
+ * most one internal node per branching point rather than one per character.
+ *
+ * <p>{@link #collect(String, int, Predicate)} walks the subtree under a prefix best-first,
+ * shortest completion first and alphabetically among equal lengths, and stops as soon
+ * as enough values are found. The cost of a lookup therefore depends on the number of
+ * results asked for, not on how many keys share the prefix.</p>
+ *
+ * <p>Not thread-safe; callers synchronize externally.</p>
+ *
+ * @param <V> The value type
+ * @author StudentManagementSystem
+ */
+public class PrefixTrie<V> {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private final Node<V> root = new Node<>("");
+    private int size;
+
+    /**
+     * @return The number of key/value pairs stored
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a value under a key. Adding the same value twice under one key has no effect.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public void put(String key, V value) {
+        Node<V> node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            char c = key.charAt(pos);
+            int slot = node.find(c);
+            if (slot < 0) {
+                node.insertChild(-slot - 1, new Node<>(key.substring(pos)));
+                node = node.children[-slot - 1];
+                pos = key.length();
+                break;
+            }
+            Node<V> child = node.children[slot];
+            int common = commonPrefix(child.edge, key, pos);
+            if (common < child.edge.length()) {
+                // Split the edge where the key diverges
+                Node<V> split = new Node<>(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                split.insertChild(0, child);
+                node.children[slot] = split;
+                child = split;
+            }
+            node = child;
+            pos += common;
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        if (!node.values.contains(value)) {
+            node.values.add(value);
+            size++;
+        }
+    }
+
+    /**
+     * Removes a value from a key, pruning nodes that no longer lead anywhere.
+     *
+     * @param key The key
+     * @param value The value
+     * @return true if the value was present
+     */
+    public boolean remove(String key, V value) {
+        return remove(root, key, 0, value);
+    }
+
+    private boolean remove(Node<V> node, String key, int pos, V value) {
+        if (pos == key.length()) {
+            if (node.values == null || !node.values.remove(value)) {
+                return false;
+            }
+            if (node.values.isEmpty()) {
+                node.values = null;
+            }
+            size--;
+            return true;
+        }
+        int slot = node.find(key.charAt(pos));
+        if (slot < 0) {
+            return false;
+        }
+        Node<V> child = node.children[slot];
+        if (!key.startsWith(child.edge, pos) || !remove(child, key, pos + child.edge.length(), value)) {
+            return false;
+        }
+        if (child.values == null) {
+            if (child.children.length == 0) {
+                node.removeChild(slot);
+            } else if (child.children.length == 1) {
+                // Merge the now pass-through node with its only child
+                Node<V> grandchild = child.children[0];
+                grandchild.edge = child.edge + grandchild.edge;
+                node.children[slot] = grandchild;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects values stored under keys starting with the prefix, shortest keys first.
+     *
+     * @param prefix The prefix to complete
+     * @param limit The maximum number of values to return
+     * @param accept Filter applied to each value before it counts towards the limit,
+     *        e.g. to drop duplicates reachable through several keys; may be null
+     * @return Up to {@code limit} values
+     */
+    public List<V> collect(String prefix, int limit, Predicate<V> accept) {
+        List<V> result = new ArrayList<>(Math.min(limit, 16));
+        if (limit <= 0) {
+            return result;
+        }
+
+        // Find the node covering the prefix; the prefix may end part-way along its edge
+        Node<V> node = root;
+        StringBuilder path = new StringBuilder(prefix.length() + 16);
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int slot = node.find(prefix.charAt(pos));
+            if (slot < 0) {
+                return result;
+            }
+            Node<V> child = node.children[slot];
+            int common = commonPrefix(child.edge, prefix, pos);
+            if (common < child.edge.length() && pos + common < prefix.length()) {
+                return result;
+            }
+            node = child;
+            path.append(child.edge);
+            pos += child.edge.length();
+        }
+
+        PriorityQueue<Frontier<V>> queue = new PriorityQueue<>();
+        queue.add(new Frontier<>(node, path.toString()));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Frontier<V> next = queue.poll();
+            if (next.node.values != null) {
+                for (V value : next.node.values) {
+                    if (accept == null || accept.test(value)) {
+                        result.add(value);
+                        if (result.size() == limit) {
+                            return result;
+                        }
+                    }
+                }
+            }
+            for (Node<V> child : next.node.children) {
+                queue.add(new Frontier<>(child, next.path + child.edge));
+            }
+        }
+        return result;
+    }
+
+    private static int commonPrefix(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * A trie node. Children are kept in arrays sorted by the first character of their
+     * edge, which is far smaller than a map per node and is binary searched on lookup.
+     */
+    private static class Node<V> {
+        String edge;
+        char[] labels = NO_LABELS;
+        @SuppressWarnings("unchecked")
+        Node<V>[] children = (Node<V>[]) NO_CHILDREN;
+        List<V> values;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        int find(char c) {
+            return Arrays.binarySearch(labels, c);
+        }
+
+        void insertChild(int index, Node<V> child) {
+            char[] newLabels = new char[labels.length + 1];
+            @SuppressWarnings("unchecked")
+            Node<V>[] newChildren = (Node<V>[]) new Node<?>[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newLabels[index] = child.edge.charAt(0);
+            newChildren[index] = child;
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        void removeChild(int index) {
+            char[] newLabels = new char[labels.length - 1];
+            @SuppressWarnings("unchecked")
+            Node<V>[] newChildren = (Node<V>[]) new Node<?>[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+
+    /**
+     * A node waiting to be visited during best-first collection, ordered by the length
+     * of the key it spells and then alphabetically.
+     */
+    private static class Frontier<V> implements Comparable<Frontier<V>> {
+        final Node<V> node;
+        final String path;
+
+        Frontier(Node<V> node, String path) {
+            this.node = node;
+            this.path = path;
+        }
+
+        @Override
+        public int compareTo(Frontier<V> other) {
+            if (path.length() != other.path.length()) {
+                return Integer.compare(path.length(), other.path.length());
+            }
+            return path.compareTo(other.path);
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package com.cuea.spm.Utils;
+
+import com.cuea.spm.Dao.EntityChangeListener;
+import com.cuea.spm.Dao.PageIterator;
+import com.cuea.spm.Dao.StudentDAO;
+import com.cuea.spm.Dao.TableVersions;
+import com.cuea.spm.Models.Student;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory trigram index over student registration number, names, email and phone,
+ * answering case-insensitive substring searches without touching the database.
+ *
+ * <p>Every lowercased field is split into overlapping three-character grams, and each
+ * gram maps to a sorted list of the student IDs containing it. A query of three or more
+ * characters intersects the posting lists of its own trigrams, starting from the shortest,
+ * and then confirms each candidate really contains the query (trigrams can match out of
+ * order). Queries of one or two characters are answered by scanning the indexed fields.
+ * Matches are ranked by where and in which field the term was found.</p>
+ *
+ * <p>The index is built in the background from a paged scan of {@link StudentDAO} and
+ * kept current through {@link StudentDAO#addChangeListener(EntityChangeListener)}.
+ * When {@link TableVersions} reports that another client wrote students the index is
+ * rebuilt. Until a build finishes {@link #isReady()} is false and callers should fall
+ * back to SQL.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class StudentSearchIndex implements EntityChangeListener<Student> {
+
+    private static final Logger LOGGER = Logger.getLogger(StudentSearchIndex.class.getName());
+
+    private static final int GRAM = 3;
+    private static final char SEPARATOR = '\u0000';
+
+    // Field order for the normalized values kept per student, with their ranking weights
+    private static final int FIELD_REGISTRATION_NUMBER = 0;
+    private static final int FIELD_FIRST_NAME = 1;
+    private static final int FIELD_LAST_NAME = 2;
+    private static final int FIELD_EMAIL = 3;
+    private static final int FIELD_PHONE = 4;
+    private static final int[] FIELD_WEIGHTS = {5, 4, 4, 2, 2};
+
+    // Match-position scores: whole field, start of field, start of a word, anywhere
+    private static final int SCORE_EXACT = 8;
+    private static final int SCORE_PREFIX = 4;
+    private static final int SCORE_WORD = 2;
+    private static final int SCORE_SUBSTRING = 1;
+
+    private static volatile StudentSearchIndex instance;
+
+    private final StudentDAO studentDAO;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Students live in dense slots so a posting list is an int[] and scoring a candidate
+    // touches one joined text string rather than a map entry and five field strings
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private String[] texts = new String[1024];
+    private Student[] students = new Student[1024];
+    private int slotCount;
+
+    // IDs written through the DAO while a build is scanning; the scan's copy of them is stale
+    private final Set<Integer> changedDuringBuild = new HashSet<>();
+    private boolean building;
+    private volatile boolean ready;
+    private Thread buildThread;
+    private boolean rebuildPending;
+
+    /**
+     * Gets the application-wide index, registering it for student changes made here
+     * and by other clients on first use.
+     * The index starts empty; call {@link #buildAsync()} to populate it.
+     *
+     * @return The shared index
+     */
+    public static StudentSearchIndex getInstance() {
+        StudentSearchIndex result = instance;
+        if (result == null) {
+            synchronized (StudentSearchIndex.class) {
+                result = instance;
+                if (result == null) {
+                    result = new StudentSearchIndex(new StudentDAO());
+                    StudentDAO.addChangeListener(result);
+                    TableVersions.getInstance().addListener(TableVersions.STUDENTS, result::rebuildAsync);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param studentDAO The DAO the index is built from
+     */
+    private StudentSearchIndex(StudentDAO studentDAO) {
+        this.studentDAO = studentDAO;
+    }
+
+    /**
+     * @return true once the index has been fully built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return The number of indexed students
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts building the index on a daemon thread, unless a build is already running
+     * or has finished.
+     */
+    public synchronized void buildAsync() {
+        if (ready || (buildThread != null && buildThread.isAlive())) {
+            return;
+        }
+        buildThread = new Thread(this::buildUntilCurrent, "spm-student-index");
+        buildThread.setDaemon(true);
+        buildThread.start();
+    }
+
+    /**
+     * Rebuilds the index in the background, e.g. after another client wrote students.
+     * Searches fall back to SQL until it finishes. Does nothing if the index was never
+     * built.
+     */
+    public synchronized void rebuildAsync() {
+        if (buildThread == null) {
+            return;
+        }
+        ready = false;
+        if (buildThread.isAlive()) {
+            // The running scan may already be past the changed rows
+            rebuildPending = true;
+        } else {
+            buildAsync();
+        }
+    }
+
+    private void buildUntilCurrent() {
+        do {
+            build();
+        } while (takeRebuildPending());
+    }
+
+    private synchronized boolean takeRebuildPending() {
+        boolean pending = rebuildPending;
+        rebuildPending = false;
+        if (pending) {
+            ready = false;
+        }
+        return pending;
+    }
+
+    /**
+     * Rebuilds the index from the database on the calling thread, one page at a time.
+     * Searches keep being served from the old contents while the scan runs.
+     */
+    public void build() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            building = true;
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        try {
+            List<Student> page = new ArrayList<>(PageIterator.DEFAULT_PAGE_SIZE);
+            for (Student student : studentDAO.iterateStudents(PageIterator.DEFAULT_PAGE_SIZE)) {
+                page.add(student);
+                seen.add(student.getStudentId());
+                if (page.size() == PageIterator.DEFAULT_PAGE_SIZE) {
+                    indexPage(page);
+                    page.clear();
+                }
+            }
+            indexPage(page);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                building = false;
+                changedDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOGGER.log(Level.SEVERE, "Failed to build student search index", e);
+            return;
+        }
+
+        int indexed;
+        int grams;
+        lock.writeLock().lock();
+        try {
+            // Drop students deleted before the scan reached them and not re-added since
+            for (Integer id : new ArrayList<>(slotById.keySet())) {
+                if (!seen.contains(id) && !changedDuringBuild.contains(id)) {
+                    remove(id);
+                }
+            }
+            building = false;
+            changedDuringBuild.clear();
+            ready = true;
+            indexed = slotById.size();
+            grams = postings.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.log(Level.INFO, "Indexed {0} students ({1} trigrams) in {2} ms",
+                new Object[]{indexed, grams, System.currentTimeMillis() - start});
+    }
+
+    private void indexPage(List<Student> page) {
+        lock.writeLock().lock();
+        try {
+            for (Student student : page) {
+                if (!changedDuringBuild.contains(student.getStudentId())) {
+                    put(student);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void entityChanged(ChangeType type, int id, Student entity) {
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                changedDuringBuild.add(id);
+            }
+            if (type == ChangeType.DELETE) {
+                remove(id);
+            } else {
+                put(entity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds students with a field containing the term, best matches first. Ties are
+     * broken by student ID.
+     *
+     * @param term The text to look for, case-insensitive
+     * @param limit The maximum number of students to return
+     * @return Copies of the matching students
+     */
+    public List<Student> search(String term, int limit) {
+        String query = normalize(term);
+        if (query.isEmpty() || limit <= 0 || query.indexOf(SEPARATOR) >= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<ScoredSlot> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+            if (query.length() < GRAM) {
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (texts[slot] != null) {
+                        offer(best, slot, query, limit);
+                    }
+                }
+            } else {
+                for (int slot : candidates(query)) {
+                    offer(best, slot, query, limit);
+                }
+            }
+
+            List<ScoredSlot> ranked = new ArrayList<>(best);
+            ranked.sort(WORST_FIRST.reversed());
+            List<Student> result = new ArrayList<>(ranked.size());
+            for (ScoredSlot scored : ranked) {
+                result.add(copy(students[scored.slot]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersects the posting lists of the query's trigrams, shortest list first.
+     */
+    private int[] candidates(String query) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            grams.add(query.substring(i, i + GRAM));
+        }
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        int[] result = Arrays.copyOf(lists.get(0).slots, lists.get(0).size);
+        int count = result.length;
+        for (int l = 1; l < lists.size() && count > 0; l++) {
+            count = lists.get(l).retainAll(result, count);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void offer(PriorityQueue<ScoredSlot> best, int slot, String query, int limit) {
+        int score = score(texts[slot], query);
+        if (score == 0) {
+            return;
+        }
+        int studentId = students[slot].getStudentId();
+        if (best.size() == limit) {
+            // Only allocate for candidates that beat the current worst of the top results
+            ScoredSlot worst = best.peek();
+            if (score < worst.score || (score == worst.score && studentId > worst.studentId)) {
+                return;
+            }
+            best.poll();
+        }
+        best.add(new ScoredSlot(slot, studentId, score));
+    }
+
+    /**
+     * Scores where the query occurs in each field of a joined document text.
+     */
+    private static int score(String text, String query) {
+        int score = 0;
+        int start = 0;
+        for (int f = 0; f < FIELD_WEIGHTS.length && start <= text.length(); f++) {
+            int end = text.indexOf(SEPARATOR, start);
+            if (end < 0) {
+                end = text.length();
+            }
+            int index = text.indexOf(query, start);
+            if (index < 0) {
+                break;
+            }
+            if (index + query.length() <= end) {
+                int position;
+                if (index == start) {
+                    position = end - start == query.length() ? SCORE_EXACT : SCORE_PREFIX;
+                } else if (!Character.isLetterOrDigit(text.charAt(index - 1))) {
+                    position = SCORE_WORD;
+                } else {
+                    position = SCORE_SUBSTRING;
+                }
+                score += FIELD_WEIGHTS[f] * position;
+            }
+            start = end + 1;
+        }
+        return score;
+    }
+
+    // Stores a copy, so a caller editing its student does not change the index behind
+    // the trigrams it was indexed under
+    private void put(Student student) {
+        student = copy(student);
+        remove(student.getStudentId());
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        if (slot == texts.length) {
+            texts = Arrays.copyOf(texts, slot * 2);
+            students = Arrays.copyOf(students, slot * 2);
+        }
+        String text = documentText(student);
+        texts[slot] = text;
+        students[slot] = student;
+        slotById.put(student.getStudentId(), slot);
+        for (String gram : grams(text)) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                list = new Postings();
+                postings.put(gram, list);
+            }
+            list.add(slot);
+        }
+    }
+
+    private void remove(int studentId) {
+        Integer slot = slotById.remove(studentId);
+        if (slot == null) {
+            return;
+        }
+        for (String gram : grams(texts[slot])) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                list.remove(slot);
+                if (list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        texts[slot] = null;
+        students[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    /**
+     * Joins the normalized searchable fields into one string, in field order, so scoring
+     * a candidate reads a single object.
+     */
+    private static String documentText(Student student) {
+        String[] fields = new String[FIELD_WEIGHTS.length];
+        fields[FIELD_REGISTRATION_NUMBER] = normalize(student.getRegistrationNumber());
+        fields[FIELD_FIRST_NAME] = normalize(student.getFirstName());
+        fields[FIELD_LAST_NAME] = normalize(student.getLastName());
+        fields[FIELD_EMAIL] = normalize(student.getEmail());
+        fields[FIELD_PHONE] = normalize(student.getPhone());
+        return String.join(String.valueOf(SEPARATOR), fields);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            if (gram.indexOf(SEPARATOR) < 0) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Indexed students are shared, so callers get a copy they are free to edit
+    private static Student copy(Student student) {
+        return new Student(student.getStudentId(), student.getUserId(), student.getRegistrationNumber(),
+                student.getFirstName(), student.getLastName(), student.getEmail(), student.getPhone(),
+                student.getCurrentSemester(),
+                student.getEnrollmentDate() == null ? null : (java.util.Date) student.getEnrollmentDate().clone());
+    }
+
+    private static final Comparator<ScoredSlot> WORST_FIRST = (a, b) -> {
+        if (a.score != b.score) {
+            return Integer.compare(a.score, b.score);
+        }
+        // Among equal scores the higher ID is worse, so lower IDs come first in results
+        return Integer.compare(b.studentId, a.studentId);
+    };
+
+    private static class ScoredSlot {
+        final int slot;
+        final int studentId;
+        final int score;
+
+        ScoredSlot(int slot, int studentId, int score) {
+            this.slot = slot;
+            this.studentId = studentId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Sorted, growable list of document slots. Slots are mostly handed out in ascending
+     * order during a build, which makes the common insert an append.
+     */
+    private static class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, index, slots, index + 1, size - index);
+            slots[index] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+            size--;
+        }
+
+        /**
+         * Keeps the first {@code count} sorted values of {@code values} that are also in
+         * this list, compacting them to the front. Walks both lists in step when they are
+         * of similar length and binary-searches this one when it is much longer.
+         *
+         * @return The number of values kept
+         */
+        int retainAll(int[] values, int count) {
+            boolean gallop = size > count * 8;
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < count && j < size; i++) {
+                int value = values[i];
+                if (gallop) {
+                    int index = Arrays.binarySearch(slots, j, size, value);
+                    j = index >= 0 ? index : -index - 1;
+                } else {
+                    while (j < size && slots[j] < value) {
+                        j++;
+                    }
+                }
+                if (j < size && slots[j] == value) {
+                    values[kept++] = value;
+                }
+            }
+            return kept;
+        }
+    }
+}
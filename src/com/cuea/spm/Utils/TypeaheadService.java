@@ -0,0 +1,456 @@
+package com.cuea.spm.Utils;
+
+import com.cuea.spm.Controllers.CourseController;
+import com.cuea.spm.Dao.CourseDAO;
+import com.cuea.spm.Dao.EntityChangeListener;
+import com.cuea.spm.Dao.PageIterator;
+import com.cuea.spm.Dao.StudentDAO;
+import com.cuea.spm.Dao.TableVersions;
+import com.cuea.spm.Models.Course;
+import com.cuea.spm.Models.Student;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prefix suggestions for the dashboard search box, served from a {@link PrefixTrie}
+ * over student names and registration numbers and course codes and names.
+ *
+ * <p>Each name is indexed from the start of every word, so "smi" finds "John Smith"
+ * as well as "Smith Jones". Shorter completions rank first, which puts an exact code
+ * or registration number ahead of longer keys sharing its prefix.</p>
+ *
+ * <p>Lookups run on a single background thread through
+ * {@link #suggestAsync(String, int, Consumer)}; starting a new lookup cancels the
+ * previous one, so a fast typist only pays for the query that is still on screen.
+ * The trie is loaded in the background and then kept current through the student and
+ * course change listeners, and reloaded when {@link TableVersions} reports that another
+ * client wrote students or courses.</p>
+ *
+ * @author StudentManagementSystem
+ */
+public class TypeaheadService {
+
+    private static final Logger LOGGER = Logger.getLogger(TypeaheadService.class.getName());
+
+    private static volatile TypeaheadService instance;
+
+    /**
+     * What a suggestion refers to.
+     */
+    public enum SuggestionType {
+        STUDENT, COURSE
+    }
+
+    /**
+     * One entry in the suggestion list.
+     */
+    public static class Suggestion {
+        private final SuggestionType type;
+        private final int id;
+        private final String label;
+
+        public Suggestion(SuggestionType type, int id, String label) {
+            this.type = type;
+            this.id = id;
+            this.label = label;
+        }
+
+        public SuggestionType getType() { return type; }
+        public int getId() { return id; }
+        public String getLabel() { return label; }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixTrie<Suggestion> trie = new PrefixTrie<>();
+
+    // Entries currently in the trie and the keys they were stored under, so an update
+    // or delete can take the old keys out
+    private final Map<Integer, Suggestion> students = new HashMap<>();
+    private final Map<Integer, Suggestion> courses = new HashMap<>();
+    private final Map<Suggestion, Set<String>> keysBySuggestion = new HashMap<>();
+
+    private final ExecutorService queryExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "spm-typeahead");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pendingQuery;
+
+    // IDs written through the listeners while a load is scanning; the scan's copy is stale
+    private final Set<Integer> studentsChangedDuringLoad = new HashSet<>();
+    private final Set<Integer> coursesChangedDuringLoad = new HashSet<>();
+    private boolean loading;
+    private volatile boolean ready;
+    private Thread loadThread;
+    private boolean reloadPending;
+
+    private final EntityChangeListener<Student> studentListener = (type, id, student) -> {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                studentsChangedDuringLoad.add(id);
+            }
+            unindex(students.remove(id));
+            if (type != EntityChangeListener.ChangeType.DELETE && student != null) {
+                index(students, id, studentSuggestion(student), studentKeys(student));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    };
+
+    private final EntityChangeListener<Course> courseListener = (type, id, course) -> {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                coursesChangedDuringLoad.add(id);
+            }
+            unindex(courses.remove(id));
+            if (type != EntityChangeListener.ChangeType.DELETE && course != null) {
+                index(courses, id, courseSuggestion(course), courseKeys(course));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    };
+
+    /**
+     * Gets the application-wide service, registering it for student and course changes
+     * made here and by other clients on first use. It starts empty; call
+     * {@link #loadAsync()} to populate it.
+     *
+     * @return The shared service
+     */
+    public static TypeaheadService getInstance() {
+        TypeaheadService result = instance;
+        if (result == null) {
+            synchronized (TypeaheadService.class) {
+                result = instance;
+                if (result == null) {
+                    result = new TypeaheadService(new StudentDAO(), new CourseDAO());
+                    StudentDAO.addChangeListener(result.studentListener);
+                    CourseController.addChangeListener(result.courseListener);
+                    TableVersions.getInstance().addListener(TableVersions.STUDENTS, result::reloadAsync);
+                    TableVersions.getInstance().addListener(TableVersions.COURSES, result::reloadAsync);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param studentDAO The DAO students are loaded from
+     * @param courseDAO The DAO courses are loaded from
+     */
+    private TypeaheadService(StudentDAO studentDAO, CourseDAO courseDAO) {
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+    }
+
+    /**
+     * @return true once students and courses have been loaded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Starts loading the trie on a daemon thread, unless a load is already running or
+     * has finished.
+     */
+    public synchronized void loadAsync() {
+        if (ready || (loadThread != null && loadThread.isAlive())) {
+            return;
+        }
+        startLoadThread();
+    }
+
+    /**
+     * Reloads the trie in the background, e.g. after another client wrote students or
+     * courses. Suggestions keep being served from the old contents meanwhile. Does
+     * nothing if the trie was never loaded.
+     */
+    public synchronized void reloadAsync() {
+        if (loadThread == null) {
+            return;
+        }
+        if (loadThread.isAlive()) {
+            // The running scan may already be past the changed rows
+            reloadPending = true;
+        } else {
+            startLoadThread();
+        }
+    }
+
+    private void startLoadThread() {
+        loadThread = new Thread(this::loadUntilCurrent, "spm-typeahead-load");
+        loadThread.setDaemon(true);
+        loadThread.start();
+    }
+
+    private void loadUntilCurrent() {
+        do {
+            load();
+        } while (takeReloadPending());
+    }
+
+    private synchronized boolean takeReloadPending() {
+        boolean pending = reloadPending;
+        reloadPending = false;
+        return pending;
+    }
+
+    /**
+     * Loads every student and course into the trie on the calling thread and drops
+     * entries no longer in the database. Suggestions keep being served from what is
+     * already loaded while the scan runs, and entries written through the listeners
+     * meanwhile are not overwritten by the scan.
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        setLoading(true);
+        try {
+            Set<Integer> seenStudents = new HashSet<>();
+            List<Student> page = new ArrayList<>(PageIterator.DEFAULT_PAGE_SIZE);
+            for (Student student : studentDAO.iterateStudents(PageIterator.DEFAULT_PAGE_SIZE)) {
+                page.add(student);
+                seenStudents.add(student.getStudentId());
+                if (page.size() == PageIterator.DEFAULT_PAGE_SIZE) {
+                    indexStudents(page);
+                    page.clear();
+                }
+            }
+            indexStudents(page);
+
+            List<Course> allCourses = courseDAO.getAllCourses();
+            lock.writeLock().lock();
+            try {
+                for (Course course : allCourses) {
+                    if (coursesChangedDuringLoad.contains(course.getId())) {
+                        continue;
+                    }
+                    unindex(courses.remove(course.getId()));
+                    index(courses, course.getId(), courseSuggestion(course), courseKeys(course));
+                }
+                removeMissing(students, seenStudents, studentsChangedDuringLoad);
+                // An empty listing is also what a failed course load returns, so it
+                // keeps the courses already indexed
+                if (!allCourses.isEmpty()) {
+                    Set<Integer> seenCourses = new HashSet<>();
+                    for (Course course : allCourses) {
+                        seenCourses.add(course.getId());
+                    }
+                    removeMissing(courses, seenCourses, coursesChangedDuringLoad);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to load search suggestions", e);
+            return;
+        } finally {
+            setLoading(false);
+        }
+        ready = true;
+        LOGGER.log(Level.INFO, "Loaded {0} search suggestion keys in {1} ms",
+                new Object[]{keyCount(), System.currentTimeMillis() - start});
+    }
+
+    private void setLoading(boolean value) {
+        lock.writeLock().lock();
+        try {
+            loading = value;
+            studentsChangedDuringLoad.clear();
+            coursesChangedDuringLoad.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops entries deleted before the scan reached them and not re-added since
+    private void removeMissing(Map<Integer, Suggestion> byId, Set<Integer> seen, Set<Integer> changed) {
+        for (Integer id : new ArrayList<>(byId.keySet())) {
+            if (!seen.contains(id) && !changed.contains(id)) {
+                unindex(byId.remove(id));
+            }
+        }
+    }
+
+    private void indexStudents(List<Student> page) {
+        lock.writeLock().lock();
+        try {
+            for (Student student : page) {
+                if (studentsChangedDuringLoad.contains(student.getStudentId())) {
+                    continue;
+                }
+                unindex(students.remove(student.getStudentId()));
+                index(students, student.getStudentId(), studentSuggestion(student), studentKeys(student));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of keys in the trie
+     */
+    public int keyCount() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds suggestions with a name, code or registration number starting with the text,
+     * shortest completions first.
+     *
+     * @param text The text typed so far, case-insensitive
+     * @param limit The maximum number of suggestions
+     * @return The suggestions, each listed once
+     */
+    public List<Suggestion> suggest(String text, int limit) {
+        String prefix = normalize(text);
+        if (prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // A student matching on both first and last name is reachable through two keys
+        Set<Suggestion> seen = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            return trie.collect(prefix, limit, seen::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@link #suggest(String, int)} on the background query thread and hands the
+     * result to the callback on that thread. Any lookup still queued or running from an
+     * earlier call is cancelled and its callback is not invoked.
+     *
+     * @param text The text typed so far
+     * @param limit The maximum number of suggestions
+     * @param callback Receives the suggestions; callers on the EDT should hop back with
+     *        {@code SwingUtilities.invokeLater}
+     * @return The pending lookup, which may be cancelled
+     */
+    public synchronized Future<?> suggestAsync(String text, int limit, Consumer<List<Suggestion>> callback) {
+        if (pendingQuery != null) {
+            pendingQuery.cancel(true);
+        }
+        final Future<?>[] self = new Future<?>[1];
+        Runnable query = () -> {
+            List<Suggestion> result = suggest(text, limit);
+            synchronized (TypeaheadService.this) {
+                // Superseded while running; the newer lookup will answer instead
+                if (pendingQuery != self[0]) {
+                    return;
+                }
+            }
+            callback.accept(result);
+        };
+        // Holding the lock until self[0] is set keeps the query from checking it too early
+        pendingQuery = queryExecutor.submit(query);
+        self[0] = pendingQuery;
+        return pendingQuery;
+    }
+
+    private void index(Map<Integer, Suggestion> byId, int id, Suggestion suggestion, Set<String> keys) {
+        byId.put(id, suggestion);
+        keysBySuggestion.put(suggestion, keys);
+        for (String key : keys) {
+            trie.put(key, suggestion);
+        }
+    }
+
+    private void unindex(Suggestion suggestion) {
+        if (suggestion == null) {
+            return;
+        }
+        Set<String> keys = keysBySuggestion.remove(suggestion);
+        if (keys != null) {
+            for (String key : keys) {
+                trie.remove(key, suggestion);
+            }
+        }
+    }
+
+    private static Suggestion studentSuggestion(Student student) {
+        String label = "Student: " + student.getFirstName() + " " + student.getLastName()
+                + " (" + student.getRegistrationNumber() + ")";
+        return new Suggestion(SuggestionType.STUDENT, student.getStudentId(), label);
+    }
+
+    private static Suggestion courseSuggestion(Course course) {
+        return new Suggestion(SuggestionType.COURSE, course.getId(),
+                "Course: " + course.getCode() + " - " + course.getName());
+    }
+
+    private static Set<String> studentKeys(Student student) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordKeys(keys, student.getFirstName() + " " + student.getLastName());
+        addKey(keys, student.getRegistrationNumber());
+        return keys;
+    }
+
+    private static Set<String> courseKeys(Course course) {
+        Set<String> keys = new LinkedHashSet<>();
+        addKey(keys, course.getCode());
+        addWordKeys(keys, course.getName());
+        return keys;
+    }
+
+    /**
+     * Adds the text from the start of each word, e.g. "john smith" and "smith".
+     */
+    private static void addWordKeys(Set<String> keys, String text) {
+        String normalized = normalize(text);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) != ' ' && (i == 0 || normalized.charAt(i - 1) == ' ')) {
+                keys.add(normalized.substring(i));
+            }
+        }
+    }
+
+    private static void addKey(Set<String> keys, String text) {
+        String normalized = normalize(text);
+        if (!normalized.isEmpty()) {
+            keys.add(normalized);
+        }
+    }
+
+    /**
+     * Lowercases and collapses runs of whitespace so keys and queries compare alike.
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,6 +2,7 @@ package com.cuea.spm.Views;
 
 import com.cuea.spm.Models.Enrollment;
 import com.cuea.spm.Dao.AttendanceDAO;
+import com.cuea.spm.Dao.BatchResult;
 import com.cuea.spm.Dao.CourseDAO;
 import com.cuea.spm.Dao.StudentDAO;
 import com.cuea.spm.Dao.EnrollmentDAO;
@@ -14,7 +15,9 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.Date;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -281,8 +284,10 @@ public class AttendanceForm extends JFrame {
         if (selectedCourse == null) return;
 
         List<Enrollment> enrollments = enrollmentDAO.getEnrollmentsByCourse(selectedCourse.getId());
+        Map<Integer, Student> students = studentDAO.getStudentsByIds(
+            enrollments.stream().map(Enrollment::getStudentId).collect(Collectors.toList()));
         for (Enrollment e : enrollments) {
-            Student s = studentDAO.getStudentById(e.getStudentId());
+            Student s = students.get(e.getStudentId());
             if (s != null) {
                 model.addRow(new Object[]{s.getStudentId(), s.getFirstName() + " " + s.getLastName(), false, false});
             }
@@ -357,8 +362,10 @@ public class AttendanceForm extends JFrame {
             model.addRow(new Object[]{"No records", "found", "for selected", "date"});
             return;
         }
+        Map<Integer, Student> students = studentDAO.getStudentsByIds(
+            attendances.stream().map(Attendance::getStudentId).collect(Collectors.toList()));
         for (Attendance a : attendances) {
-            Student s = studentDAO.getStudentById(a.getStudentId());
+            Student s = students.get(a.getStudentId());
             String studentName = s != null ? s.getFirstName() + " " + s.getLastName() : "Unknown";
             model.addRow(new Object[]{a.getStudentId(), studentName, a.getDate(), a.getStatus()});
         }
@@ -373,16 +380,25 @@ public class AttendanceForm extends JFrame {
         java.util.Date selectedDate = (java.util.Date) dateSpinner.getValue();
         DefaultTableModel model = (DefaultTableModel) attendanceTable.getModel();
 
+        List<Attendance> attendances = new ArrayList<>();
         for (int i = 0; i < model.getRowCount(); i++) {
             int studentId = (int) model.getValueAt(i, 0);
             boolean present = (boolean) model.getValueAt(i, 2);
             boolean absent = (boolean) model.getValueAt(i, 3);
             String status = present ? "PRESENT" : absent ? "ABSENT" : "EXCUSED";
-            Attendance attendance = new Attendance(0, studentId, selectedCourse.getId(), selectedDate, status);
-            if (!attendanceDAO.addAttendance(attendance)) {
-                JOptionPane.showMessageDialog(this, "Failed to save attendance record for Student ID: " + studentId + " in Course: " + selectedCourse.getName());
-                return;
-            }
+            attendances.add(new Attendance(0, studentId, selectedCourse.getId(), selectedDate, status));
+        }
+
+        // Whole roster goes in as one batched transaction; nothing is saved if any row fails.
+        // Saving the same course and date again updates the existing rows in place
+        BatchResult result = attendanceDAO.upsertAttendanceBatch(attendances);
+        if (!result.isSuccess()) {
+            String failedStudents = result.getFailures().keySet().stream()
+                .map(i -> i >= 0 && i < attendances.size() ? String.valueOf(attendances.get(i).getStudentId()) : "-")
+                .collect(Collectors.joining(", "));
+            JOptionPane.showMessageDialog(this, "Failed to save attendance for Student ID(s): " + failedStudents
+                + " in Course: " + selectedCourse.getName() + ". No records were saved.");
+            return;
         }
         JOptionPane.showMessageDialog(this, "Attendance saved successfully!");
         refreshAttendanceTable();
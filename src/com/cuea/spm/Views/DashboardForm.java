@@ -4,6 +4,9 @@ import com.cuea.spm.Models.User;
 import com.cuea.spm.Controllers.CourseController;
 import com.cuea.spm.Controllers.EnrollmentController;
 import com.cuea.spm.Controllers.StudentController;
+import com.cuea.spm.Models.DashboardStats;
+import com.cuea.spm.Utils.DashboardStatsService;
+import com.cuea.spm.Utils.TypeaheadService;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -19,22 +22,26 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.awt.geom.RoundRectangle2D;
-import java.util.Arrays;
 import javax.swing.Timer;
-import javax.swing.SwingWorker;
 import java.awt.image.BufferedImage;
-import java.util.Calendar;
 
 public class DashboardForm extends JFrame {
     private static final Logger LOGGER = Logger.getLogger(DashboardForm.class.getName());
+    private static final int SUGGESTION_DELAY_MS = 150;
+    private static final int MAX_SUGGESTIONS = 5;
     private User loggedInUser;
     
     // Controllers for data access
     private CourseController courseController;
     private EnrollmentController enrollmentController;
     private StudentController studentController;
+    private final DashboardStatsService statsService = DashboardStatsService.getInstance();
+    // Snapshots arrive on the service's thread; the cards are updated on the EDT
+    private final Consumer<DashboardStats> statsListener =
+            stats -> SwingUtilities.invokeLater(() -> showStatistics(stats));
     
     // Map to store animation timers
     private final Map<ImageIcon, Timer> iconAnimationTimers = new HashMap<>();
@@ -42,6 +49,9 @@ public class DashboardForm extends JFrame {
     // UI components for new features
     private JTextField searchField;
     private JButton searchButton;
+    private final TypeaheadService typeaheadService = TypeaheadService.getInstance();
+    private final Timer suggestionDebounce = new Timer(SUGGESTION_DELAY_MS, null);
+    private Future<?> pendingSuggestions;
     private JButton notificationButton;
     private JPopupMenu notificationMenu;
     private int notificationCount = 0;
@@ -614,6 +624,9 @@ public class DashboardForm extends JFrame {
         JPopupMenu suggestionsPopup = new JPopupMenu();
         suggestionsPopup.setBackground(Color.WHITE);
         suggestionsPopup.setBorder(BorderFactory.createLineBorder(new Color(0, 0, 0, 40)));
+        suggestionDebounce.setRepeats(false);
+        // No-op when LoginForm already started the load
+        typeaheadService.loadAsync();
         
         // Add document listener for real-time suggestions
         searchField.getDocument().addDocumentListener(new DocumentListener() {
@@ -633,48 +646,30 @@ public class DashboardForm extends JFrame {
             }
             
             private void updateSuggestions() {
-                String text = searchField.getText();
-                suggestionsPopup.removeAll();
-                
-                if (!text.equals("Search students, courses, etc.") && !text.isEmpty()) {
-                    // Simulate fetching suggestions based on input
-                    // In real implementation, you'd query the database for matches
-                    String[] demoSuggestions = {
-                        "Student: John Smith", 
-                        "Student: Jane Doe",
-                        "Course: Introduction to Programming",
-                        "Course: Database Systems",
-                        "Enrollment: Spring 2023",
-                        "Report: Attendance Summary"
-                    };
-                    
-                    Arrays.stream(demoSuggestions)
-                        .filter(suggestion -> suggestion.toLowerCase().contains(text.toLowerCase()))
-                        .limit(5)
-                        .forEach(suggestion -> {
-                            JMenuItem item = new JMenuItem(suggestion);
-                            item.setFont(REGULAR_FONT);
-                            item.setBackground(Color.WHITE);
-                            item.addActionListener(e -> {
-                                searchField.setText(suggestion);
-                                suggestionsPopup.setVisible(false);
-                                // Here you'd navigate to the selected item
-                            });
-                            suggestionsPopup.add(item);
-                        });
-                    
-                    if (suggestionsPopup.getComponentCount() > 0) {
-                        suggestionsPopup.show(searchField, 0, searchField.getHeight());
-                        suggestionsPopup.setPopupSize(searchField.getWidth(), suggestionsPopup.getPreferredSize().height);
-                    } else {
-                        suggestionsPopup.setVisible(false);
-                    }
-                } else {
-                    suggestionsPopup.setVisible(false);
-                }
+                // Wait for a pause in typing rather than querying on every keystroke
+                suggestionDebounce.restart();
             }
         });
         
+        suggestionDebounce.addActionListener(e -> {
+            String text = searchField.getText();
+            if (pendingSuggestions != null) {
+                pendingSuggestions.cancel(true);
+            }
+            if (text.equals("Search students, courses, etc.") || text.trim().isEmpty()) {
+                suggestionsPopup.setVisible(false);
+                return;
+            }
+            
+            // Look up off the EDT; drop the answer if the text changed while it ran
+            pendingSuggestions = typeaheadService.suggestAsync(text, MAX_SUGGESTIONS,
+                    suggestions -> SwingUtilities.invokeLater(() -> {
+                        if (text.equals(searchField.getText())) {
+                            showSuggestions(suggestionsPopup, suggestions);
+                        }
+                    }));
+        });
+        
         // Create search button
         searchButton = new JButton();
         try {
@@ -703,6 +698,34 @@ public class DashboardForm extends JFrame {
         
         return searchPanel;
     }
+
+    /**
+     * Fills the suggestions popup with the given entries, hiding it if there are none
+     * @param suggestionsPopup The popup under the search field
+     * @param suggestions The suggestions to show
+     */
+    private void showSuggestions(JPopupMenu suggestionsPopup, List<TypeaheadService.Suggestion> suggestions) {
+        suggestionsPopup.removeAll();
+        for (TypeaheadService.Suggestion suggestion : suggestions) {
+            JMenuItem item = new JMenuItem(suggestion.getLabel());
+            item.setFont(REGULAR_FONT);
+            item.setBackground(Color.WHITE);
+            item.addActionListener(e -> {
+                searchField.setText(suggestion.getLabel());
+                suggestionDebounce.stop();
+                suggestionsPopup.setVisible(false);
+                // Here you'd navigate to the selected item
+            });
+            suggestionsPopup.add(item);
+        }
+        
+        if (suggestionsPopup.getComponentCount() > 0) {
+            suggestionsPopup.show(searchField, 0, searchField.getHeight());
+            suggestionsPopup.setPopupSize(searchField.getWidth(), suggestionsPopup.getPreferredSize().height);
+        } else {
+            suggestionsPopup.setVisible(false);
+        }
+    }
     
     /**
      * Creates a notification bell with dropdown menu
@@ -969,68 +992,45 @@ public class DashboardForm extends JFrame {
     }
     
     /**
-     * Loads statistics data asynchronously using SwingWorker
+     * Shows the latest statistics from {@link DashboardStatsService} straight away and
+     * keeps the cards current as the service refreshes them in the background.
      */
+    private void loadStatisticsAsync() {
+        statsService.addListener(statsListener);
+        DashboardStats current = statsService.getStats();
+        if (current != null) {
+            showStatistics(current);
+        }
+    }
+
     /**
-     * Loads statistics data asynchronously using SwingWorker
+     * Updates the stats cards from a snapshot
+     * @param dashboardStats the snapshot, or null if the statistics could not be loaded
      */
-    private void loadStatisticsAsync() {
-        // Create and execute SwingWorker to load stats asynchronously
-        new SwingWorker<StatsData, Void>() {
-            @Override
-            protected StatsData doInBackground() throws Exception {
-                // Simulating network/database delay
-                Thread.sleep(1500);
-                
-                StatsData stats = new StatsData();
-                
-                try {
-                    // Get real data from controllers
-                    stats.totalStudents = studentController.getTotalStudentCount();
-                    stats.totalCourses = courseController.getTotalCourseCount();
-                    stats.activeEnrollments = enrollmentController.getActiveEnrollmentCount();
-                    stats.attendanceRate = calculateAttendanceRate();
-                    // Additional stats can be fetched here
-                    stats.trend = calculateTrend();
-                }catch (Exception e) {
-                    LOGGER.log(Level.SEVERE, "Error loading stats data", e);
-                    
-                    // Use fallback data if real data fails
-                    stats.totalStudents = 235;
-                    stats.totalCourses = 42;
-                    stats.activeEnrollments = 189;
-                    stats.attendanceRate = 88.5;
-                    stats.trend = "↑ 5% from last month";
-                }
-                // Use fallback data if real data fails
-                
-                return stats;
+    private void showStatistics(DashboardStats dashboardStats) {
+        if (dashboardStats == null) {
+            LOGGER.log(Level.SEVERE, "Error loading stats data");
+            // Show error in UI
+            for (int i = 0; i < statsCards.size(); i++) {
+                updateStatisticsCard(i, "Error", "Failed to load data");
             }
-            
-            @Override
-            protected void done() {
-                try {
-                    // Get the result and update UI
-                    StatsData stats = get();
-                    
-                    // Update the stats cards with real data
-                    updateStatisticsCard(0, String.valueOf(stats.totalStudents), stats.trend);
-                    updateStatisticsCard(1, String.valueOf(stats.totalCourses), "");
-                    updateStatisticsCard(2, String.valueOf(stats.activeEnrollments), "");
-                    updateStatisticsCard(3, stats.attendanceRate + "%", stats.trend);
-                    
-                } catch (InterruptedException | ExecutionException e) {
-                    // Handle errors in UI update
-                    System.err.println("Error updating statistics UI: " + e.getMessage());
-                    e.printStackTrace();
-                    
-                    // Show error in UI
-                    for (int i = 0; i < statsCards.size(); i++) {
-                        updateStatisticsCard(i, "Error", "Failed to load data");
-                    }
-                }
-            }
-        }.execute();
+            return;
+        }
+        StatsData stats = new StatsData();
+        stats.totalStudents = dashboardStats.getTotalStudents();
+        stats.totalCourses = dashboardStats.getTotalCourses();
+        stats.activeEnrollments = dashboardStats.getActiveEnrollments();
+        stats.completedCourses = dashboardStats.getCompletedEnrollments();
+        stats.averageGrade = dashboardStats.getAverageGrade();
+        stats.attendanceRate = dashboardStats.getAttendanceRate();
+        stats.trend = calculateTrend(dashboardStats.getAttendanceRate(),
+                dashboardStats.getPreviousAttendanceRate());
+
+        // Update the stats cards with real data
+        updateStatisticsCard(0, String.valueOf(stats.totalStudents), stats.trend);
+        updateStatisticsCard(1, String.valueOf(stats.totalCourses), "");
+        updateStatisticsCard(2, String.valueOf(stats.activeEnrollments), "");
+        updateStatisticsCard(3, stats.attendanceRate + "%", stats.trend);
     }
     
     /**
@@ -1174,72 +1174,24 @@ public class DashboardForm extends JFrame {
         }
     }
     
-    /**
-     * Calculates attendance rate based on attendance records
-     * @return attendance rate percentage
-     */
-    private double calculateAttendanceRate() {
-        try {
-            // Get current month and year
-            Calendar cal = Calendar.getInstance();
-            int currentMonth = cal.get(Calendar.MONTH) + 1; // Calendar months are 0-based
-            int currentYear = cal.get(Calendar.YEAR);
-            
-            // Get total attendance count
-            int totalSessions = enrollmentController.getTotalSessionsCount(currentMonth, currentYear);
-            if (totalSessions == 0) {
-                return 0.0;
-            }
-            
-            // Get present count
-            int presentCount = enrollmentController.getPresentAttendanceCount(currentMonth, currentYear);
-            
-            // Calculate percentage
-            return Math.round((double) presentCount / totalSessions * 1000) / 10.0;
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error calculating attendance rate", e);
-            return 0.0;
-        }
-    }
-    
     /**
      * Calculates trend compared to previous period (month)
-     * @return formatted trend string with arrow indicator
+     * @param currentRate this month's attendance rate
+     * @param previousRate last month's attendance rate
+     * @return formatted trend string
      */
-    private String calculateTrend() {
-        try {
-            // Get current and previous month's data for comparison
-            Calendar cal = Calendar.getInstance();
-            int currentMonth = cal.get(Calendar.MONTH) + 1;
-            int currentYear = cal.get(Calendar.YEAR);
-            
-            // Handle previous month (handle December of previous year)
-            int previousMonth = currentMonth - 1;
-            int previousYear = currentYear;
-            if (previousMonth == 0) {
-                previousMonth = 12;
-                previousYear--;
-            }
-            
-            // Get current and previous attendance rates
-            double currentRate = enrollmentController.getAttendanceRate(currentMonth, currentYear);
-            double previousRate = enrollmentController.getAttendanceRate(previousMonth, previousYear);
-            
-            if (previousRate == 0) {
-                return ""; // No trend data available
-            }
-            
-            // Calculate difference
-            double difference = currentRate - previousRate;
-            double percentChange = Math.round((difference / previousRate) * 1000) / 10.0;
-            
-            // Format trend string
-            String arrow = difference >= 0 ? "↑" : "↓";
-            return arrow + " " + Math.abs(percentChange) + "% from last month";
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error calculating attendance trend", e);
-            return "";
+    private String calculateTrend(double currentRate, double previousRate) {
+        if (previousRate == 0) {
+            return ""; // No trend data available
         }
+        
+        // Calculate difference
+        double difference = currentRate - previousRate;
+        double percentChange = Math.round((difference / previousRate) * 1000) / 10.0;
+        
+        // Format trend string
+        String arrow = difference >= 0 ? "↑" : "↓";
+        return arrow + " " + Math.abs(percentChange) + "% from last month";
     }
     
     /**
@@ -1397,6 +1349,12 @@ public class DashboardForm extends JFrame {
      */
     @Override
     public void dispose() {
+        statsService.removeListener(statsListener);
+        // A pending suggestion lookup would otherwise fire against the closed form
+        suggestionDebounce.stop();
+        if (pendingSuggestions != null) {
+            pendingSuggestions.cancel(true);
+        }
         // Stop all animation timers
         for (Timer timer : iconAnimationTimers.values()) {
             timer.stop();
@@ -14,6 +14,8 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class EnrollmentForm extends JFrame {
     private final EnrollmentDAO enrollmentDAO;
@@ -123,9 +125,14 @@ public class EnrollmentForm extends JFrame {
         DefaultTableModel model = (DefaultTableModel) enrollmentTable.getModel();
         model.setRowCount(0);
         List<Enrollment> enrollments = enrollmentDAO.getAllEnrollments();
+        // Load the names for all rows up front rather than two queries per enrollment
+        Map<Integer, Student> students = studentDAO.getStudentsByIds(
+            enrollments.stream().map(Enrollment::getStudentId).collect(Collectors.toList()));
+        Map<Integer, Course> courses = courseDAO.getCoursesByIds(
+            enrollments.stream().map(Enrollment::getCourseId).collect(Collectors.toList()));
         for (Enrollment e : enrollments) {
-            Student s = studentDAO.getStudentById(e.getStudentId());
-            Course c = courseDAO.getCourseById(e.getCourseId());
+            Student s = students.get(e.getStudentId());
+            Course c = courses.get(e.getCourseId());
             String studentName = s != null ? s.getFirstName() + " " + s.getLastName() : "Unknown";
             String courseName = c != null ? c.getName(): "Unknown";
             
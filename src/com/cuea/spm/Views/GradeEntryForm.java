@@ -1,16 +1,20 @@
 package com.cuea.spm.Views;
 
+import com.cuea.spm.Controllers.GradeController;
 import com.cuea.spm.Dao.GradeDAO;
 import com.cuea.spm.Dao.StudentDAO;
 import com.cuea.spm.Dao.CourseDAO;
 import com.cuea.spm.Models.Grade;
+import com.cuea.spm.Models.GradeDetail;
 import com.cuea.spm.Models.Student;
 import com.cuea.spm.Models.Course;
 import com.cuea.spm.Models.User;
+import com.cuea.spm.Utils.GradeCsvImporter;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
@@ -18,6 +22,7 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.File;
 import java.util.Date;
 import java.util.List;
 
@@ -254,7 +259,9 @@ public class GradeEntryForm extends JFrame {
         JButton addButton = createStyledButton("Add Grade", "/icons/add.png");
         JButton updateButton = createStyledButton("Update", "/icons/update.png");
         JButton deleteButton = createStyledButton("Delete", "/icons/delete.png");
+        JButton importButton = createStyledButton("Import CSV", "/icons/import.png");
         
+        buttonPanel.add(importButton);
         buttonPanel.add(clearButton);
         buttonPanel.add(addButton);
         buttonPanel.add(updateButton);
@@ -269,6 +276,8 @@ public class GradeEntryForm extends JFrame {
         
         deleteButton.addActionListener(e -> deleteGrade());
         
+        importButton.addActionListener(e -> importGrades(importButton));
+        
         formPanel.add(inputPanel, BorderLayout.CENTER);
         formPanel.add(buttonPanel, BorderLayout.SOUTH);
         
@@ -332,26 +341,12 @@ public class GradeEntryForm extends JFrame {
     
     private void loadData() {
         tableModel.setRowCount(0);
-        List<Grade> grades = gradeDAO.getAllGrades();
+        // One joined query instead of reloading students and courses for every grade
+        List<GradeDetail> grades = gradeDAO.getAllGradeDetails();
         
-        for (Grade g : grades) {
-            // Get student and course names
-            String studentName = "Unknown";
-            String courseName = "Unknown";
-            
-            for (Student s : studentDAO.getAllStudents()) {
-                if (s.getStudentId() == g.getStudentId()) {
-                    studentName = s.getFirstName() + " " + s.getLastName();
-                    break;
-                }
-            }
-            
-            for (Course c : courseDAO.getAllCourses()) {
-       if (c.getId() == g.getCourseId()) {
-           courseName = c.getName();
-                    break;
-                }
-            }
+        for (GradeDetail g : grades) {
+            String studentName = g.getStudentName() != null ? g.getStudentName() : "Unknown";
+            String courseName = g.getCourseName() != null ? g.getCourseName() : "Unknown";
             
             tableModel.addRow(new Object[]{
                 g.getGradeId(),
@@ -435,18 +430,7 @@ public class GradeEntryForm extends JFrame {
     }
     
     private String calculateGrade(double marks) {
-        if (marks >= 90) return "A+";
-        else if (marks >= 85) return "A";
-        else if (marks >= 80) return "A-";
-        else if (marks >= 75) return "B+";
-        else if (marks >= 70) return "B";
-        else if (marks >= 65) return "B-";
-        else if (marks >= 60) return "C+";
-        else if (marks >= 55) return "C";
-        else if (marks >= 50) return "C-";
-        else if (marks >= 45) return "D+";
-        else if (marks >= 40) return "D";
-        else return "F";
+        return GradeController.calculateGradeLetter(marks);
     }
     
     private void addGrade() {
@@ -547,6 +531,58 @@ public class GradeEntryForm extends JFrame {
         }
     }
     
+    private void importGrades(JButton importButton) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Grades from CSV");
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV files (*.csv)", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File csvFile = chooser.getSelectedFile();
+        File errorReport = new File(csvFile.getParentFile(), csvFile.getName().replaceFirst("(?i)\\.csv$", "") + "_errors.csv");
+        
+        importButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        // Run the import off the EDT; progress is published after every chunk
+        new SwingWorker<GradeCsvImporter.ImportSummary, String>() {
+            @Override
+            protected GradeCsvImporter.ImportSummary doInBackground() throws Exception {
+                return new GradeCsvImporter().importFile(csvFile.toPath(), errorReport.toPath(),
+                    (rowsRead, imported, rejected) -> publish(
+                        "Importing grades... " + rowsRead + " rows read, " + imported + " imported, " + rejected + " rejected"));
+            }
+            
+            @Override
+            protected void process(List<String> chunks) {
+                setTitle(chunks.get(chunks.size() - 1));
+            }
+            
+            @Override
+            protected void done() {
+                setTitle("Academic Grade Management System");
+                setCursor(Cursor.getDefaultCursor());
+                importButton.setEnabled(true);
+                try {
+                    GradeCsvImporter.ImportSummary summary = get();
+                    String message = String.format("Imported %d of %d grades in %.1f seconds.",
+                        summary.getImported(), summary.getRowsRead(), summary.getElapsedMillis() / 1000.0);
+                    if (summary.getRejected() > 0) {
+                        showWarningMessage(message + "\n" + summary.getRejected()
+                            + " rows were rejected; see " + errorReport.getAbsolutePath());
+                    } else {
+                        showSuccessMessage(message);
+                    }
+                    loadData();
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showErrorMessage("Grade import failed: " + cause.getMessage());
+                    loadData();
+                }
+            }
+        }.execute();
+    }
+    
     private boolean validateForm() {
         if (studentCombo.getSelectedIndex() == -1) {
             showWarningMessage("Please select a student.");
@@ -1,7 +1,13 @@
 package com.cuea.spm.Views;
 
-import com.cuea.spm.Dao.UserDAO;
+import com.cuea.spm.Controllers.LoginController;
+import com.cuea.spm.Dao.TableVersions;
 import com.cuea.spm.Models.User;
+import com.cuea.spm.Utils.AttendanceSummaryRebuildJob;
+import com.cuea.spm.Utils.DashboardStatsService;
+import com.cuea.spm.Utils.PerformanceRecalculator;
+import com.cuea.spm.Utils.StudentSearchIndex;
+import com.cuea.spm.Utils.TypeaheadService;
 
 import javax.swing.*;
 import javax.swing.border.AbstractBorder;
@@ -14,7 +20,7 @@ import java.awt.geom.RoundRectangle2D;
 
 public class LoginForm extends JFrame {
 
-    private UserDAO userDAO;
+    private LoginController loginController;
     private JTextField usernameField;
     private JPasswordField passwordField;
     private static final int CORNER_RADIUS = 15; // Slightly smaller for a sharper look
@@ -30,7 +36,7 @@ public class LoginForm extends JFrame {
     private static final Font MAIN_FONT = new Font("Roboto", Font.PLAIN, 14);
 
     public LoginForm() {
-        userDAO = new UserDAO();
+        loginController = new LoginController();
 
         setTitle("Login - SPM");
         setSize(400, 500); // Slightly reduced for a tighter layout
@@ -109,22 +115,37 @@ public class LoginForm extends JFrame {
         mainPanel.add(loginButton);
 
         loginButton.addActionListener(e -> {
-            String username = usernameField.getText();
-            String password = new String(passwordField.getPassword());
-            User user = userDAO.getUserByUsername(username);
-            if (user != null && user.getPassword().equals(password)) {
-                dispose();
-                new DashboardForm(user).setVisible(true);
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid username or password!", "Login Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // The check runs on a worker thread; keep the button from queuing more
+            loginButton.setEnabled(false);
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            loginController.loginAsync(usernameField.getText(), passwordField.getPassword(),
+                    result -> SwingUtilities.invokeLater(() -> finishLogin(result, loginButton)));
         });
 
         setContentPane(mainPanel);
         setShape(new RoundRectangle2D.Double(0, 0, getWidth(), getHeight(), CORNER_RADIUS, CORNER_RADIUS));
     }
 
+    private void finishLogin(LoginController.Result<User> result, JButton loginButton) {
+        setCursor(Cursor.getDefaultCursor());
+        loginButton.setEnabled(true);
+        if (result.isSuccess()) {
+            dispose();
+            new DashboardForm(result.getData()).setVisible(true);
+        } else {
+            JOptionPane.showMessageDialog(this, result.getMessage(), "Login Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     public static void main(String[] args) {
+        // Warm the student search index, dashboard suggestions and figures while the user is logging in
+        StudentSearchIndex.getInstance().buildAsync();
+        TypeaheadService.getInstance().loadAsync();
+        AttendanceSummaryRebuildJob.start();
+        DashboardStatsService.getInstance().start();
+        TableVersions.getInstance().start();
+        // Keeps GPAs current as grades are entered from any form or import
+        PerformanceRecalculator.getInstance();
         SwingUtilities.invokeLater(() -> new LoginForm().setVisible(true));
     }
 }
@@ -5,6 +5,7 @@
  */
 package com.cuea.spm.Views;
 
+import com.cuea.spm.Controllers.PerformanceController;
 import com.cuea.spm.Dao.PerformanceDAO;
 import com.cuea.spm.Dao.StudentDAO;
 import com.cuea.spm.Models.Performance;
@@ -18,6 +19,7 @@ import java.awt.event.WindowEvent;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class PerformanceForm extends JFrame {
@@ -27,7 +29,7 @@ public class PerformanceForm extends JFrame {
     private JTable performanceTable;
     private DefaultTableModel tableModel;
     private JTextField studentIdField, semesterField, gpaField, creditsField, remarksField;
-    private JButton addButton, updateButton, deleteButton, clearButton, refreshButton;
+    private JButton addButton, updateButton, deleteButton, clearButton, refreshButton, recalculateButton;
 
     public PerformanceForm(User user) {
         this.loggedInUser = user;
@@ -67,7 +69,8 @@ public class PerformanceForm extends JFrame {
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Initialize table with column names
-        String[] columns = {"ID", "Student ID", "Semester", "GPA", "Total Credits", "Remarks", "Calculated At"};
+        String[] columns = {"ID", "Student ID", "Semester", "GPA", "Total Credits", "Remarks", "Calculated At",
+                "Cumulative GPA"};
         tableModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -142,6 +145,7 @@ public class PerformanceForm extends JFrame {
         deleteButton = new JButton("Delete Selected");
         clearButton = new JButton("Clear Fields");
         refreshButton = new JButton("Refresh Data");
+        recalculateButton = new JButton("Recalculate GPA");
 
         // Add icons to buttons if available
         try {
@@ -157,12 +161,14 @@ public class PerformanceForm extends JFrame {
         buttonPanel.add(deleteButton);
         buttonPanel.add(clearButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(recalculateButton);
 
         // Disable CRUD buttons for non-admin users
         boolean isAdmin = loggedInUser.getRole().equals("ADMIN");
         addButton.setEnabled(isAdmin);
         updateButton.setEnabled(isAdmin);
         deleteButton.setEnabled(isAdmin);
+        recalculateButton.setEnabled(isAdmin);
 
         // Add form and button panels to the south region
         JPanel southPanel = new JPanel(new BorderLayout());
@@ -344,6 +350,35 @@ public class PerformanceForm extends JFrame {
                 JOptionPane.INFORMATION_MESSAGE);
         });
 
+        // Recalculate button: derive every student's GPA from their grades
+        recalculateButton.addActionListener(e -> {
+            recalculateButton.setEnabled(false);
+            new SwingWorker<PerformanceController.Result<Integer>, Void>() {
+                @Override
+                protected PerformanceController.Result<Integer> doInBackground() {
+                    return new PerformanceController().recomputeAll();
+                }
+
+                @Override
+                protected void done() {
+                    recalculateButton.setEnabled(true);
+                    try {
+                        PerformanceController.Result<Integer> result = get();
+                        loadPerformanceData();
+                        JOptionPane.showMessageDialog(PerformanceForm.this,
+                            result.getMessage(),
+                            "Recalculate GPA",
+                            result.isSuccess() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE);
+                    } catch (Exception ex) {
+                        JOptionPane.showMessageDialog(PerformanceForm.this,
+                            "Error recalculating GPA: " + ex.getMessage(),
+                            "Recalculate GPA",
+                            JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        });
+
         // Table selection listener
         performanceTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -368,9 +403,12 @@ public class PerformanceForm extends JFrame {
             List<Performance> performances;
             if (loggedInUser.getRole().equals("STUDENT")) {
                 // For students, show only their own performance records
-                performances = performanceDAO.getAllPerformance().stream()
+                List<Performance> all = performanceDAO.getAllPerformance();
+                Map<Integer, Student> students = studentDAO.getStudentsByIds(
+                    all.stream().map(Performance::getStudentId).collect(Collectors.toList()));
+                performances = all.stream()
                     .filter(p -> {
-                        Student s = studentDAO.getStudentById(p.getStudentId());
+                        Student s = students.get(p.getStudentId());
                         return s != null && s.getUserId() == loggedInUser.getUserId();
                     })
                     .collect(Collectors.toList());
@@ -391,7 +429,8 @@ public class PerformanceForm extends JFrame {
                     p.getGpa(),
                     p.getTotalCredits(),
                     p.getRemarks(),
-                    dateFormat.format(p.getCalculatedAt())
+                    dateFormat.format(p.getCalculatedAt()),
+                    p.getCumulativeCredits() > 0 ? p.getCumulativeGpa() : ""
                 };
                 tableModel.addRow(rowData);
             }
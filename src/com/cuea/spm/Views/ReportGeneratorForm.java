@@ -20,6 +20,7 @@ import org.jfree.data.category.DefaultCategoryDataset;
 import javax.swing.*;
 import java.awt.*;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ReportGeneratorForm extends JFrame {
@@ -50,10 +51,11 @@ public class ReportGeneratorForm extends JFrame {
         // Table
         String[] columns = {"Student ID", "Name", "Semester", "GPA", "Total Credits", "Remarks"};
         List<Performance> performances = getFilteredPerformances();
+        Map<Integer, Student> students = getStudents(performances);
         Object[][] data = new Object[performances.size()][6];
         for (int i = 0; i < performances.size(); i++) {
             Performance p = performances.get(i);
-            Student s = studentDAO.getStudentById(p.getStudentId());
+            Student s = students.get(p.getStudentId());
             String studentName = s != null ? s.getFirstName() + " " + s.getLastName() : "Unknown";
             data[i] = new Object[]{p.getStudentId(), studentName, p.getSemester(), p.getGpa(), 
                                    p.getTotalCredits(), p.getRemarks()};
@@ -63,7 +65,7 @@ public class ReportGeneratorForm extends JFrame {
         tableScrollPane.setPreferredSize(new Dimension(0, 200));
 
         // Chart
-        chartPanel = createChartPanel(performances);
+        chartPanel = createChartPanel(performances, students);
         chartPanel.setPreferredSize(new Dimension(0, 300));
 
         JPanel centerPanel = new JPanel(new BorderLayout());
@@ -80,18 +82,29 @@ public class ReportGeneratorForm extends JFrame {
     }
 
     private List<Performance> getFilteredPerformances() {
-        return (loggedInUser.getRole().equals("STUDENT")) ? 
-            performanceDAO.getAllPerformance().stream().filter(p -> {
-                Student s = studentDAO.getStudentById(p.getStudentId());
+        List<Performance> performances = performanceDAO.getAllPerformance();
+        if (!loggedInUser.getRole().equals("STUDENT")) {
+            return performances;
+        }
+        Map<Integer, Student> students = getStudents(performances);
+        return performances.stream().filter(p -> {
+                Student s = students.get(p.getStudentId());
                 return s != null && s.getUserId() == loggedInUser.getUserId();
-            }).collect(Collectors.toList()) : 
-            performanceDAO.getAllPerformance();
+            }).collect(Collectors.toList());
+    }
+
+    /**
+     * Loads the students referenced by the performance rows in bulk, keyed by student ID
+     */
+    private Map<Integer, Student> getStudents(List<Performance> performances) {
+        return studentDAO.getStudentsByIds(
+            performances.stream().map(Performance::getStudentId).collect(Collectors.toList()));
     }
 
-    private JPanel createChartPanel(List<Performance> performances) {
+    private JPanel createChartPanel(List<Performance> performances, Map<Integer, Student> students) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         for (Performance p : performances) {
-            Student s = studentDAO.getStudentById(p.getStudentId());
+            Student s = students.get(p.getStudentId());
             String studentName = s != null ? s.getFirstName() + " " + s.getLastName() : "Unknown " + p.getStudentId();
             dataset.addValue(p.getGpa(), studentName, "Sem " + p.getSemester());
         }
@@ -109,17 +122,18 @@ public class ReportGeneratorForm extends JFrame {
 
     private void refreshReport() {
         List<Performance> performances = getFilteredPerformances();
+        Map<Integer, Student> students = getStudents(performances);
         Object[][] data = new Object[performances.size()][6];
         for (int i = 0; i < performances.size(); i++) {
             Performance p = performances.get(i);
-            Student s = studentDAO.getStudentById(p.getStudentId());
+            Student s = students.get(p.getStudentId());
             String studentName = s != null ? s.getFirstName() + " " + s.getLastName() : "Unknown";
             data[i] = new Object[]{p.getStudentId(), studentName, p.getSemester(), p.getGpa(), 
                                    p.getTotalCredits(), p.getRemarks()};
         }
         reportTable.setModel(new javax.swing.table.DefaultTableModel(data, new String[]{"Student ID", "Name", "Semester", "GPA", "Total Credits", "Remarks"}));
         chartPanel.removeAll();
-        chartPanel.add(createChartPanel(performances));
+        chartPanel.add(createChartPanel(performances, students));
         chartPanel.revalidate();
         chartPanel.repaint();
     }
@@ -0,0 +1,33 @@
+-- Secondary indexes for the filtered DAO and controller queries.
+-- Indexes that already exist, by name, are skipped by SchemaMigrator, so this also
+-- brings databases created from an older schema.sql up to date. Every query these
+-- serve is registered in QueryPlanVerifier, which fails on a full table scan.
+
+-- students: name, contact and date lookups in StudentDAO
+CREATE INDEX idx_students_first_name ON students (first_name);
+CREATE INDEX idx_students_last_name ON students (last_name);
+CREATE INDEX idx_students_email ON students (email);
+CREATE INDEX idx_students_phone ON students (phone);
+CREATE INDEX idx_students_semester ON students (current_semester);
+CREATE INDEX idx_students_enrollment_date ON students (enrollment_date);
+
+-- courses: semester listing and the SEMESTER transition scope
+CREATE INDEX idx_courses_semester ON courses (semester, course_code);
+
+-- enrollments: by student (with the duplicate and active checks), by course,
+-- by status and by enrollment date
+CREATE INDEX idx_enrollments_student_course ON enrollments (student_id, course_id, status);
+CREATE INDEX idx_enrollments_course_status ON enrollments (course_id, status);
+CREATE INDEX idx_enrollments_status ON enrollments (status);
+CREATE INDEX idx_enrollments_date ON enrollments (enrollment_date);
+
+-- grades: per student and course averages
+CREATE INDEX idx_grades_student_course ON grades (student_id, course_id);
+
+-- attendance: monthly dashboard counts
+CREATE INDEX idx_attendance_date_status ON attendance (date, status);
+
+-- attendance_records: per course listings and summaries, and date range reports.
+-- Lookups by student are served by uk_attendance_records_student_course_date
+CREATE INDEX idx_attendance_records_course_date ON attendance_records (course_id, date, student_id);
+CREATE INDEX idx_attendance_records_date ON attendance_records (date, course_id, student_id);
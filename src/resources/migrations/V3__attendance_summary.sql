@@ -0,0 +1,27 @@
+-- Per student and course attendance counters, kept in step with attendance_records
+-- by AttendanceController in the same transaction as each mark, update and delete.
+-- AttendanceSummaryDAO.rebuild() recomputes the table from attendance_records.
+
+CREATE TABLE IF NOT EXISTS attendance_summary (
+    student_id INT NOT NULL,
+    course_id INT NOT NULL,
+    present_count INT NOT NULL DEFAULT 0,
+    absent_count INT NOT NULL DEFAULT 0,
+    late_count INT NOT NULL DEFAULT 0,
+    excused_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (student_id, course_id)
+);
+
+CREATE INDEX idx_attendance_summary_course ON attendance_summary (course_id);
+
+-- Populate from existing records; clearing first keeps a retried migration safe
+DELETE FROM attendance_summary;
+
+INSERT INTO attendance_summary (student_id, course_id, present_count, absent_count, late_count, excused_count)
+SELECT student_id, course_id,
+       SUM(CASE WHEN status = 'PRESENT' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'ABSENT' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'LATE' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'EXCUSED' THEN 1 ELSE 0 END)
+FROM attendance_records
+GROUP BY student_id, course_id;
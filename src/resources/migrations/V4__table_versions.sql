@@ -0,0 +1,11 @@
+-- One row per cached table, bumped by every write to that table through the DAOs.
+-- Each client polls these rows and drops its local cache of a table whose version
+-- moved, so a write made by one client reaches the caches of the others.
+
+CREATE TABLE IF NOT EXISTS table_versions (
+    table_name VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO table_versions (table_name, version) VALUES ('students', 0), ('courses', 0)
+ON DUPLICATE KEY UPDATE version = version;
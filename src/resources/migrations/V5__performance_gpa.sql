@@ -0,0 +1,18 @@
+-- Performance rows are now derived from grades by PerformanceController, one row
+-- per student and semester, with the cumulative GPA up to that semester alongside
+-- the semester's own.
+
+-- Keep the newest of any duplicate rows so the unique key can be added
+DELETE FROM performance WHERE performance_id NOT IN (
+    SELECT performance_id FROM (
+        SELECT MAX(performance_id) AS performance_id FROM performance GROUP BY student_id, semester
+    ) newest
+);
+
+CREATE UNIQUE INDEX uk_performance_student_semester ON performance (student_id, semester);
+
+ALTER TABLE performance ADD COLUMN cumulative_gpa DECIMAL(3,2);
+ALTER TABLE performance ADD COLUMN cumulative_credits INT;
+
+-- grades: the students graded in a semester, for recomputing that semester
+CREATE INDEX idx_grades_semester_student ON grades (semester, student_id);
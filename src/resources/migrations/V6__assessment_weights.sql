@@ -0,0 +1,14 @@
+-- Courses weight their assessment types, e.g. CAT 30 and EXAM 70; GradeController
+-- combines each student's grades with those weights into the enrollment's final mark.
+CREATE TABLE IF NOT EXISTS assessment_weights (
+    course_id INT NOT NULL,
+    assessment_type VARCHAR(20) NOT NULL,
+    weight DECIMAL(5,2) NOT NULL,
+    PRIMARY KEY (course_id, assessment_type)
+);
+
+ALTER TABLE enrollments ADD COLUMN final_mark DECIMAL(5,2);
+ALTER TABLE enrollments ADD COLUMN grade_letter VARCHAR(2);
+
+-- grades: a course's grades in student order, covering so the cursor reads only the index
+CREATE INDEX idx_grades_course_student ON grades (course_id, student_id, assessment_type, marks);
@@ -0,0 +1,32 @@
+-- Databases created before the baseline schema had the attendance unique keys still
+-- lack them, and CREATE TABLE IF NOT EXISTS never adds them; without the keys the
+-- ON DUPLICATE KEY UPDATE writes in AttendanceDAO and AttendanceController insert
+-- duplicate rows. The keys are skipped where they already exist.
+
+-- Keep the newest of any duplicate rows so the unique keys can be added
+DELETE FROM attendance WHERE attendance_id NOT IN (
+    SELECT attendance_id FROM (
+        SELECT MAX(attendance_id) AS attendance_id FROM attendance GROUP BY student_id, course_id, date
+    ) newest
+);
+
+DELETE FROM attendance_records WHERE id NOT IN (
+    SELECT id FROM (
+        SELECT MAX(id) AS id FROM attendance_records GROUP BY student_id, course_id, date
+    ) newest
+);
+
+CREATE UNIQUE INDEX uk_attendance_student_course_date ON attendance (student_id, course_id, date);
+CREATE UNIQUE INDEX uk_attendance_records_student_course_date ON attendance_records (student_id, course_id, date);
+
+-- The summary counted any duplicates removed above; recount it
+DELETE FROM attendance_summary;
+
+INSERT INTO attendance_summary (student_id, course_id, present_count, absent_count, late_count, excused_count)
+SELECT student_id, course_id,
+       SUM(CASE WHEN status = 'PRESENT' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'ABSENT' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'LATE' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'EXCUSED' THEN 1 ELSE 0 END)
+FROM attendance_records
+GROUP BY student_id, course_id;
@@ -0,0 +1,105 @@
+-- Student Performance Management System schema.
+-- Written in MySQL syntax; also runs on H2 in MySQL compatibility mode,
+-- which is how the embedded database is created on startup.
+-- This is migration 1 in SchemaMigrator; later changes, including most secondary
+-- indexes, are in resources/migrations.
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS students (
+    student_id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT,
+    registration_number VARCHAR(30) NOT NULL UNIQUE,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    email VARCHAR(100),
+    phone VARCHAR(20),
+    current_semester INT,
+    enrollment_date DATE,
+    INDEX idx_students_first_name (first_name),
+    INDEX idx_students_last_name (last_name),
+    INDEX idx_students_email (email),
+    INDEX idx_students_phone (phone),
+    INDEX idx_students_semester (current_semester),
+    INDEX idx_students_enrollment_date (enrollment_date)
+);
+
+CREATE TABLE IF NOT EXISTS courses (
+    course_id INT AUTO_INCREMENT PRIMARY KEY,
+    course_code VARCHAR(10) NOT NULL UNIQUE,
+    course_name VARCHAR(100) NOT NULL,
+    credits INT NOT NULL,
+    semester INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS enrollments (
+    enrollment_id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    course_id INT NOT NULL,
+    enrollment_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ENROLLED',
+    INDEX idx_enrollments_course_status (course_id, status),
+    INDEX idx_enrollments_status (status)
+);
+
+CREATE TABLE IF NOT EXISTS grades (
+    grade_id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    course_id INT NOT NULL,
+    assessment_type VARCHAR(20) NOT NULL,
+    marks DECIMAL(5,2) NOT NULL,
+    grade_letter VARCHAR(2),
+    semester INT NOT NULL,
+    recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_grades_student_course (student_id, course_id)
+);
+
+-- One row per student, course and date; attendance is written with
+-- INSERT ... ON DUPLICATE KEY UPDATE against these unique keys. Databases created
+-- before the keys existed must have duplicate rows removed before adding them.
+CREATE TABLE IF NOT EXISTS attendance (
+    attendance_id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    course_id INT NOT NULL,
+    date DATE NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    UNIQUE KEY uk_attendance_student_course_date (student_id, course_id, date),
+    INDEX idx_attendance_date_status (date, status)
+);
+
+CREATE TABLE IF NOT EXISTS attendance_records (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    course_id INT NOT NULL,
+    date DATE NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    remarks VARCHAR(255),
+    UNIQUE KEY uk_attendance_records_student_course_date (student_id, course_id, date)
+);
+
+CREATE TABLE IF NOT EXISTS performance (
+    performance_id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    semester INT NOT NULL,
+    gpa DECIMAL(3,2) NOT NULL,
+    total_credits INT NOT NULL,
+    remarks TEXT,
+    calculated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS student_progress (
+    progress_id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    course_id INT NOT NULL,
+    attendance_percentage DECIMAL(5,2),
+    assignments_completed INT,
+    exam_score DECIMAL(5,2),
+    remarks VARCHAR(255),
+    last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);